@@ -0,0 +1,15 @@
+package com.iagocanalejas.benchmarks;
+
+/**
+ * Base class of the serialized values, the JSON serializers are created for it so they have to
+ * write the concrete class as they do for any cached hierarchy.
+ */
+public abstract class AbstractPayload {
+
+    protected String mId;
+    protected long mTimestamp;
+
+    public String getId() {
+        return mId;
+    }
+}
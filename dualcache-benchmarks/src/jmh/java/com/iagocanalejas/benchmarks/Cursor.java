@@ -0,0 +1,26 @@
+package com.iagocanalejas.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Per thread position over the benchmark keys. Each thread starts at a different key so they do
+ * not walk the keys in lockstep.
+ */
+@State(Scope.Thread)
+public class Cursor {
+
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mIndex = new Random().nextInt(Values.ENTRIES);
+    }
+
+    int next() {
+        return mIndex++ & (Values.ENTRIES - 1);
+    }
+}
@@ -0,0 +1,90 @@
+package com.iagocanalejas.benchmarks;
+
+import com.iagocanalejas.dualcache.caches.DiskCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write latency of {@link DiskCache} over a temporary directory. Every key is written
+ * before measuring, so reads always hit and writes always replace an entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DiskCacheBenchmark {
+
+    private static final int APP_VERSION = 1;
+
+    @Param({"64", "1024", "16384"})
+    public int valueSize;
+
+    private File mDirectory;
+    private DiskCache mCache;
+    private String[] mKeys;
+    private byte[][] mValues;
+
+    @Setup
+    public void setUp() throws IOException {
+        mDirectory = Files.createTempDirectory("dualcache-benchmark").toFile();
+        mCache = new DiskCache(mDirectory, APP_VERSION, (long) Values.ENTRIES * valueSize * 2);
+
+        mKeys = Values.keys(Values.ENTRIES);
+        mValues = new byte[Values.ENTRIES][];
+        for (int i = 0; i < Values.ENTRIES; i++) {
+            mValues[i] = Values.bytes(valueSize, i);
+            mCache.set(mKeys[i], mValues[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        mCache.clear();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] get(Cursor cursor) {
+        return mCache.get(mKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] get4Threads(Cursor cursor) {
+        return mCache.get(mKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void set(Cursor cursor) {
+        int index = cursor.next();
+        mCache.set(mKeys[index], mValues[index]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void set4Threads(Cursor cursor) {
+        int index = cursor.next();
+        mCache.set(mKeys[index], mValues[index]);
+    }
+}
@@ -0,0 +1,59 @@
+package com.iagocanalejas.benchmarks;
+
+import com.iagocanalejas.dualcache.hashing.Hashing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a key into a disk safe name, the SHA-1 hash used by the default hasher against
+ * the murmur3 encodings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class HashingBenchmark {
+
+    @Param({"16", "64", "256"})
+    public int keyLength;
+
+    private String mKey;
+
+    @Setup
+    public void setUp() {
+        mKey = Values.text(keyLength);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String sha1() {
+        return Hashing.sha1(mKey);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String sha1AllThreads() {
+        return Hashing.sha1(mKey);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String murmur3Hex() {
+        return Hashing.murmur3Hex(mKey);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String murmur3Base32() {
+        return Hashing.murmur3Base32(mKey);
+    }
+}
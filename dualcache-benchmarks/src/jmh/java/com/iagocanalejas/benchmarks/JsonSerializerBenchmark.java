@@ -0,0 +1,72 @@
+package com.iagocanalejas.benchmarks;
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.gsonserializer.GsonSerializer;
+import com.iagocanalejas.jacksonserializer.JacksonSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization cost of the Gson and Jackson serializers through their
+ * {@link ByteSerializer} methods, the ones used by the cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JsonSerializerBenchmark {
+
+    @Param({"gson", "jackson"})
+    public String serializer;
+
+    @Param({"64", "1024", "16384"})
+    public int valueSize;
+
+    private ByteSerializer<AbstractPayload> mSerializer;
+    private AbstractPayload mPayload;
+    private byte[] mBytes;
+
+    @Setup
+    public void setUp() {
+        if ("gson".equals(serializer)) {
+            mSerializer = new GsonSerializer<>(AbstractPayload.class);
+        } else {
+            mSerializer = new JacksonSerializer<>(AbstractPayload.class);
+        }
+        mPayload = new Payload("payload", System.currentTimeMillis(), Values.text(valueSize));
+        mBytes = mSerializer.toBytes(mPayload);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] toBytes() {
+        return mSerializer.toBytes(mPayload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] toBytes4Threads() {
+        return mSerializer.toBytes(mPayload);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AbstractPayload fromBytes() {
+        return mSerializer.fromBytes(mBytes, 0, mBytes.length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AbstractPayload fromBytes4Threads() {
+        return mSerializer.fromBytes(mBytes, 0, mBytes.length);
+    }
+}
@@ -0,0 +1,28 @@
+package com.iagocanalejas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Value with a mix of field types whose serialized size grows with its body.
+ */
+public class Payload extends AbstractPayload {
+
+    private static final int TAGS = 4;
+
+    private String mBody;
+    private List<String> mTags;
+
+    public Payload() {
+    }
+
+    Payload(String id, long timestamp, String body) {
+        mId = id;
+        mTimestamp = timestamp;
+        mBody = body;
+        mTags = new ArrayList<>(TAGS);
+        for (int i = 0; i < TAGS; i++) {
+            mTags.add("tag_" + i);
+        }
+    }
+}
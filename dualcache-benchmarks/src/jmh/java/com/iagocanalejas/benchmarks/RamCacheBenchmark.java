@@ -0,0 +1,107 @@
+package com.iagocanalejas.benchmarks;
+
+import com.iagocanalejas.dualcache.caches.ConcurrentRamCache;
+import com.iagocanalejas.dualcache.caches.RamCache;
+import com.iagocanalejas.dualcache.caches.RamSerializedCache;
+import com.iagocanalejas.dualcache.interfaces.Cache;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hit and replace throughput of the RAM cache layer, storing references with {@link RamCache} or
+ * {@link ConcurrentRamCache}, or serialized entries with {@link RamSerializedCache}. The caches
+ * are big enough to hold every key, so nothing is evicted. Comparing the results from 1 thread
+ * to all the cores shows how hits scale with the readers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RamCacheBenchmark {
+
+    private static final SizeOf<byte[]> SIZE_OF = new SizeOf<byte[]>() {
+        @Override
+        public int sizeOf(byte[] object) {
+            return object.length;
+        }
+    };
+
+    @Param({"RamCache", "ConcurrentRamCache", "RamSerializedCache"})
+    public String cache;
+
+    @Param({"64", "1024", "16384"})
+    public int valueSize;
+
+    private Cache<String, byte[]> mCache;
+    private String[] mKeys;
+    private byte[][] mValues;
+
+    @Setup
+    public void setUp() {
+        int maxSize = Values.ENTRIES * valueSize * 2;
+        if ("RamCache".equals(cache)) {
+            mCache = new RamCache<>(SIZE_OF, maxSize);
+        } else if ("ConcurrentRamCache".equals(cache)) {
+            mCache = new ConcurrentRamCache<>(SIZE_OF, maxSize,
+                    Runtime.getRuntime().availableProcessors());
+        } else {
+            mCache = new RamSerializedCache(maxSize);
+        }
+
+        mKeys = Values.keys(Values.ENTRIES);
+        mValues = new byte[Values.ENTRIES][];
+        for (int i = 0; i < Values.ENTRIES; i++) {
+            mValues[i] = Values.bytes(valueSize, i);
+            mCache.put(mKeys[i], mValues[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] get(Cursor cursor) {
+        return mCache.get(mKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] get4Threads(Cursor cursor) {
+        return mCache.get(mKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] getAllThreads(Cursor cursor) {
+        return mCache.get(mKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] put(Cursor cursor) {
+        int index = cursor.next();
+        return mCache.put(mKeys[index], mValues[index]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] put4Threads(Cursor cursor) {
+        int index = cursor.next();
+        return mCache.put(mKeys[index], mValues[index]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] putAllThreads(Cursor cursor) {
+        int index = cursor.next();
+        return mCache.put(mKeys[index], mValues[index]);
+    }
+}
@@ -0,0 +1,43 @@
+package com.iagocanalejas.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Deterministic keys and values shared by the benchmarks, so every run works over the same data.
+ */
+final class Values {
+
+    /**
+     * Number of distinct keys used by the cache benchmarks, a power of two.
+     */
+    static final int ENTRIES = 1024;
+
+    private static final long SEED = 42;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+
+    private Values() {
+    }
+
+    static String[] keys(int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = "key_" + i;
+        }
+        return keys;
+    }
+
+    static byte[] bytes(int size, int index) {
+        byte[] bytes = new byte[size];
+        new Random(SEED + index).nextBytes(bytes);
+        return bytes;
+    }
+
+    static String text(int length) {
+        Random random = new Random(SEED);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,69 @@
+package com.iagocanalejas.benchmarks;
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.utils.VolatileEntry;
+import com.iagocanalejas.dualcache.utils.VolatileSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead added by {@link VolatileSerializer} on top of a serializer that only copies bytes,
+ * for the timestamp header and the timestamp only read done when checking expiration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class VolatileSerializerBenchmark {
+
+    private static final ByteSerializer<byte[]> COPY = new ByteSerializer<byte[]>() {
+        @Override
+        public byte[] fromBytes(byte[] data, int offset, int length) {
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+
+        @Override
+        public byte[] toBytes(byte[] object) {
+            return object.clone();
+        }
+    };
+
+    @Param({"64", "1024", "16384"})
+    public int valueSize;
+
+    private VolatileSerializer<byte[]> mSerializer;
+    private VolatileEntry<byte[]> mEntry;
+    private byte[] mBytes;
+
+    @Setup
+    public void setUp() {
+        mSerializer = new VolatileSerializer<>(COPY);
+        mEntry = new VolatileEntry<>(System.currentTimeMillis() + 60000,
+                Values.bytes(valueSize, 0));
+        mBytes = mSerializer.toBytes(mEntry);
+    }
+
+    @Benchmark
+    public byte[] toBytes() {
+        return mSerializer.toBytes(mEntry);
+    }
+
+    @Benchmark
+    public VolatileEntry<byte[]> fromBytes() {
+        return mSerializer.fromBytes(mBytes, 0, mBytes.length);
+    }
+
+    @Benchmark
+    public long timestampOf() {
+        return mSerializer.timestampOf(mBytes, 0, mBytes.length);
+    }
+}
@@ -0,0 +1,757 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.caches.ConcurrentRamCache;
+import com.iagocanalejas.dualcache.caches.LongRamCache;
+import com.iagocanalejas.dualcache.caches.OffHeapRamCache;
+import com.iagocanalejas.dualcache.caches.PolicyRamCache;
+import com.iagocanalejas.dualcache.caches.RamCache;
+import com.iagocanalejas.dualcache.caches.RamSerializedCache;
+import com.iagocanalejas.dualcache.caches.TinyLfuRamCache;
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.interfaces.CacheEventListener;
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.interfaces.Clock;
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.Hasher;
+import com.iagocanalejas.dualcache.interfaces.Serializer;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+import com.iagocanalejas.dualcache.modes.DualCacheDiskMode;
+import com.iagocanalejas.dualcache.modes.DualCacheKeyMode;
+import com.iagocanalejas.dualcache.modes.DualCachePromotionMode;
+import com.iagocanalejas.dualcache.modes.DualCacheRamMode;
+import com.iagocanalejas.dualcache.modes.DualCacheVolatileMode;
+import com.iagocanalejas.dualcache.utils.ByteSizeOf;
+import com.iagocanalejas.dualcache.utils.CacheExecutors;
+import com.iagocanalejas.dualcache.utils.CompositeCacheEventListener;
+import com.iagocanalejas.dualcache.utils.SimpleCacheEventListener;
+import com.iagocanalejas.dualcache.utils.StringByteSerializer;
+import com.iagocanalejas.dualcache.utils.VolatileSizeOf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Configuration shared by the cache builders. Platforms extend it to add their own ways of
+ * choosing the disk cache folder, every configuration method returns the concrete builder.
+ *
+ * @param <K> is the class of the keys.
+ * @param <V> is the class of object to store in cache.
+ * @param <B> is the class of the concrete builder.
+ */
+public abstract class AbstractBuilder<K, V, B extends AbstractBuilder<K, V, B>> {
+
+    /**
+     * Prefix of the folders and threads created by the library.
+     */
+    protected static final String CACHE_FILE_PREFIX = "dualcache";
+
+    private static final int DEFAULT_IO_THREADS = 2;
+    private static final int DEFAULT_IO_PENDING_TASKS = 128;
+    private static final int DEFAULT_PROMOTION_DISK_HITS = 2;
+    private static final int MAX_PROMOTION_DISK_HITS = 15;
+    private static final int PROMOTION_PENDING_TASKS = 64;
+    private static final int REFRESH_PENDING_TASKS = 64;
+
+    // Basic conf
+    private String mCacheId;
+    private int mAppVersion;
+    private boolean mLogEnabled;
+    private boolean mRecordStats;
+    private final List<CacheEventListener> mEventListeners = new ArrayList<>();
+
+    // Key conf
+    private DualCacheKeyMode mKeyMode;
+    private Hasher<K> mHasher;
+
+
+    // Ram conf
+    private int mMaxRamSizeBytes;
+    private DualCacheRamMode mRamMode;
+    private ByteSerializer<V> mRamSerializer;
+    private SizeOf<V> mSizeOf;
+    private int mRamConcurrencyLevel;
+    private boolean mRamTinyLfu;
+    private EvictionPolicy<String> mRamEvictionPolicy;
+    private boolean mRamOffHeap;
+    private DualCachePromotionMode mPromotionMode;
+    private int mPromotionDiskHits;
+
+    // Disk conf
+    private int mMaxDiskSizeBytes;
+    private DualCacheDiskMode mDiskMode;
+    private ByteSerializer<V> mDiskSerializer;
+    private File mDiskFolder;
+    private boolean mLogStructuredDisk;
+    private DualCacheCompressionMode mCompressionMode;
+    private int mMinCompressionSize;
+    private int mMaxPendingDiskWrites;
+    private DualCacheBackPressureMode mBackPressureMode;
+
+    // Persistence conf
+    private DualCacheVolatileMode mVolatileMode;
+    private Long mDefaultPersistenceTime;
+    private CacheLoader<K, V> mRefreshLoader;
+    private long mStalePeriod;
+    private long mRefreshAheadPeriod;
+    private Clock mClock = Clock.SYSTEM;
+
+    // Negative cache conf
+    private int mMaxNegativeEntries;
+    private long mNegativeEntryLife;
+
+    // Async conf
+    private Executor mIoExecutor;
+    private int mIoThreads;
+    private int mIoPendingTasks;
+
+    /**
+     * Start the building of the cache.
+     *
+     * @param cacheId    is the mCacheId of the cache (should be unique).
+     * @param appVersion is the app version of the app. If data are already stored in disk cache
+     *                   with previous app version, it will be clear.
+     */
+    protected AbstractBuilder(String cacheId, int appVersion) {
+        this.mCacheId = cacheId;
+        this.mAppVersion = appVersion;
+
+        this.mRamMode = null;
+        this.mDiskMode = null;
+        this.mKeyMode = DualCacheKeyMode.KEY;
+
+        this.mDefaultPersistenceTime = null;
+        this.mVolatileMode = DualCacheVolatileMode.PERSISTENCE;
+
+        this.mPromotionMode = DualCachePromotionMode.ALWAYS;
+
+        this.mIoThreads = DEFAULT_IO_THREADS;
+        this.mIoPendingTasks = DEFAULT_IO_PENDING_TASKS;
+
+        this.mLogEnabled = false;
+    }
+
+    /**
+     * @return this builder as the concrete builder class.
+     */
+    protected abstract B self();
+
+    /**
+     * @return the id of the cache being built.
+     */
+    protected String getCacheId() {
+        return mCacheId;
+    }
+
+    /**
+     * Builder the cache. Exception will be thrown if it can not be created.
+     *
+     * @return the cache instance.
+     */
+    public DualCache<K, V> build() {
+        if (mRamMode == null) {
+            throw new IllegalStateException("No ram mode set");
+        }
+        if (mDiskMode == null) {
+            throw new IllegalStateException("No disk mode set");
+        }
+        int ramEngines = (mRamConcurrencyLevel > 0 ? 1 : 0) + (mRamTinyLfu ? 1 : 0)
+                + (mRamEvictionPolicy != null ? 1 : 0) + (mRamOffHeap ? 1 : 0);
+        if (ramEngines > 1) {
+            throw new IllegalStateException(
+                    "Only one of concurrent, TinyLFU, eviction policy or off-heap RAM allowed");
+        }
+        if (mRamOffHeap && !mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            throw new IllegalStateException("Off-heap RAM needs a serializer in RAM");
+        }
+
+        boolean isVolatile = mVolatileMode.equals(DualCacheVolatileMode.VOLATILE);
+        if ((mStalePeriod > 0 || mRefreshAheadPeriod > 0) && !isVolatile) {
+            throw new IllegalStateException("Stale and refresh ahead periods need volatile mode");
+        }
+        if (mRefreshAheadPeriod > 0 && mRefreshLoader == null) {
+            throw new IllegalStateException("No refresh loader set");
+        }
+        if (mRefreshLoader != null && !isVolatile) {
+            throw new IllegalStateException("Refresh loader needs a volatile cache");
+        }
+
+        if (mLogStructuredDisk
+                && !mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            throw new IllegalStateException("Log-structured disk needs a disk serializer");
+        }
+        if (mCompressionMode != null
+                && !mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            throw new IllegalStateException("Disk compression needs a disk serializer");
+        }
+
+        if (!mPromotionMode.equals(DualCachePromotionMode.ALWAYS)
+                && mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            throw new IllegalStateException("Promotion mode needs a RAM layer");
+        }
+        if (mPromotionMode.equals(DualCachePromotionMode.AFTER_HITS)
+                && (mPromotionDiskHits < 1 || mPromotionDiskHits > MAX_PROMOTION_DISK_HITS)) {
+            throw new IllegalStateException(
+                    "Promotion after hits needs between 1 and 15 disk hits");
+        }
+
+        // Executors created here belong to the cache, which shuts them down on close
+        boolean ownsIoExecutor = (mIoExecutor == null);
+        Executor ioExecutor = ownsIoExecutor
+                ? CacheExecutors.newIoExecutor(CACHE_FILE_PREFIX + mCacheId, mIoThreads,
+                        mIoPendingTasks)
+                : mIoExecutor;
+        Executor refreshExecutor = null;
+        if (mRefreshLoader != null) {
+            refreshExecutor = CacheExecutors.newDiscardingExecutor(
+                    CACHE_FILE_PREFIX + mCacheId + "-refresh", REFRESH_PENDING_TASKS);
+        }
+        Executor promotionExecutor = null;
+        if (mPromotionMode.equals(DualCachePromotionMode.ASYNC)) {
+            promotionExecutor = CacheExecutors.newDiscardingExecutor(
+                    CACHE_FILE_PREFIX + mCacheId, PROMOTION_PENDING_TASKS);
+        }
+
+        Logger logger = new Logger(mLogEnabled);
+        DualCache<K, V> cache = new DualCache<>(mAppVersion, logger, mKeyMode,
+                mHasher, mRamMode, mRamSerializer, buildRamCache(), mDiskMode, mDiskSerializer,
+                mMaxDiskSizeBytes, mDiskFolder, mLogStructuredDisk, mCompressionMode,
+                mMinCompressionSize, mVolatileMode, mDefaultPersistenceTime, ioExecutor,
+                ownsIoExecutor, mMaxPendingDiskWrites, mBackPressureMode, mRefreshLoader,
+                refreshExecutor, mStalePeriod, mRefreshAheadPeriod, mMaxNegativeEntries,
+                mNegativeEntryLife, mPromotionMode, mPromotionDiskHits, promotionExecutor,
+                mRecordStats, buildEventListener(logger), mClock);
+
+        boolean isRamDisable = cache.getRamMode().equals(DualCacheRamMode.DISABLE);
+        boolean isDiskDisable = cache.getDiskMode().equals(DualCacheDiskMode.DISABLE);
+
+        if (isRamDisable && isDiskDisable) {
+            throw new IllegalStateException(
+                    "The ram cache layer and the disk cache layer are "
+                            + "disable. You have to use at least one of those "
+                            + "layers.");
+        }
+
+        return cache;
+    }
+
+    /**
+     * Build a cache keyed by primitive longs instead of K, it should be built from a
+     * builder of {@code Long} keys. Exception will be thrown if it can not be created or if the
+     * configuration uses features it does not support: hashed keys, volatile entries, negative
+     * entries, statistics, event listeners, a RAM engine other than the default one or a
+     * promotion mode other than {@link DualCachePromotionMode#ALWAYS}.
+     *
+     * @return the cache instance.
+     */
+    @SuppressWarnings("unchecked")
+    public LongDualCache<V> buildLong() {
+        if (mRamMode == null) {
+            throw new IllegalStateException("No ram mode set");
+        }
+        if (mDiskMode == null) {
+            throw new IllegalStateException("No disk mode set");
+        }
+        if (mRamMode.equals(DualCacheRamMode.DISABLE)
+                && mDiskMode.equals(DualCacheDiskMode.DISABLE)) {
+            throw new IllegalStateException(
+                    "The ram cache layer and the disk cache layer are "
+                            + "disable. You have to use at least one of those "
+                            + "layers.");
+        }
+        if (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY)) {
+            throw new IllegalStateException("Long keys can not be hashed");
+        }
+        if (mRamConcurrencyLevel > 0 || mRamTinyLfu || mRamEvictionPolicy != null
+                || mRamOffHeap) {
+            throw new IllegalStateException("Long keys only support the default RAM engine");
+        }
+        if (!mVolatileMode.equals(DualCacheVolatileMode.PERSISTENCE)
+                || mMaxNegativeEntries > 0) {
+            throw new IllegalStateException(
+                    "Long keys do not support volatile or negative entries");
+        }
+        if (!mPromotionMode.equals(DualCachePromotionMode.ALWAYS)) {
+            throw new IllegalStateException("Long keys only support promoting every disk hit");
+        }
+        if (mRecordStats || !mEventListeners.isEmpty()) {
+            throw new IllegalStateException(
+                    "Long keys do not support statistics or event listeners");
+        }
+        if ((mLogStructuredDisk || mCompressionMode != null)
+                && !mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            throw new IllegalStateException(
+                    "Log-structured disk and disk compression need a disk serializer");
+        }
+
+        LongRamCache<V> ramReferences = null;
+        LongRamCache<byte[]> ramBytes = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            ramBytes = new LongRamCache<>(new ByteSizeOf(), mMaxRamSizeBytes);
+        } else if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            ramReferences = new LongRamCache<>(mSizeOf, mMaxRamSizeBytes);
+        }
+
+        return new LongDualCache<>(mAppVersion, new Logger(mLogEnabled), mRamMode,
+                mRamSerializer, ramReferences, ramBytes, mDiskMode, mDiskSerializer,
+                mMaxDiskSizeBytes, mDiskFolder, mLogStructuredDisk, mCompressionMode,
+                mMinCompressionSize, mMaxPendingDiskWrites, mBackPressureMode);
+    }
+
+    /**
+     * Should be called if your cache key is not a string.
+     *
+     * @param hasher {@link Hasher}.
+     * @return the builder.
+     */
+    public B useHashedKey(Hasher<K> hasher) {
+        this.mKeyMode = DualCacheKeyMode.HASHED_KEY;
+        this.mHasher = hasher;
+        return self();
+    }
+
+    /**
+     * Use Json serialization/deserialization to store and retrieve object from ram cache.
+     *
+     * @param maxRamSizeBytes is the max amount of ram in bytes which can be used by the cache.
+     * @param serializer      is the cache interface which provide serialization/deserialization
+     *                        methods
+     *                        for the ram cache layer.
+     * @return the builder.
+     */
+    public B useSerializerInRam(int maxRamSizeBytes, Serializer<V> serializer) {
+        return useByteSerializerInRam(maxRamSizeBytes, wrap(serializer, mDiskSerializer));
+    }
+
+    /**
+     * Use byte serialization/deserialization to store and retrieve object from ram cache,
+     * avoiding any intermediate {@link String}.
+     *
+     * @param maxRamSizeBytes is the max amount of ram in bytes which can be used by the cache.
+     * @param serializer      provides serialization/deserialization methods for the ram cache
+     *                        layer.
+     * @return the builder.
+     */
+    public B useByteSerializerInRam(int maxRamSizeBytes, ByteSerializer<V> serializer) {
+        this.mRamMode = DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER;
+        this.mMaxRamSizeBytes = maxRamSizeBytes;
+        this.mRamSerializer = serializer;
+        return self();
+    }
+
+    /**
+     * Store directly objects in ram (without serialization/deserialization).
+     * You have to provide a way to compute the size of an object in
+     * ram to be able to used the LRU capacity of the ram cache.
+     *
+     * @param maxRamSizeBytes is the max amount of ram which can be used by the ram cache.
+     * @param handlerSizeOf   computes the size of object stored in ram.
+     * @return the builder.
+     */
+    public B useReferenceInRam(int maxRamSizeBytes, SizeOf<V> handlerSizeOf) {
+        this.mRamMode = DualCacheRamMode.ENABLE_WITH_REFERENCE;
+        this.mMaxRamSizeBytes = maxRamSizeBytes;
+        this.mSizeOf = handlerSizeOf;
+        return self();
+    }
+
+    /**
+     * Use a concurrent RAM cache layer where reads do not block each other, instead of the
+     * default one which synchronizes every access. Useful if many threads read at the same time.
+     *
+     * @param concurrencyLevel expected number of threads reading at the same time.
+     * @return the builder.
+     */
+    public B useConcurrentRam(int concurrencyLevel) {
+        this.mRamConcurrencyLevel = concurrencyLevel;
+        return self();
+    }
+
+    /**
+     * Use the W-TinyLFU policy in the RAM cache layer instead of LRU. Entries are only kept if
+     * they are accessed more often than the ones they would replace, so scans of keys read once
+     * (paginations, syncs) do not push out the frequently used entries.
+     *
+     * @return the builder.
+     */
+    public B useTinyLfuInRam() {
+        this.mRamTinyLfu = true;
+        return self();
+    }
+
+    /**
+     * Choose the entries evicted from the RAM cache layer with the given policy instead of LRU.
+     * Available policies are {@link com.iagocanalejas.dualcache.policies.LruPolicy},
+     * {@link com.iagocanalejas.dualcache.policies.LfuPolicy},
+     * {@link com.iagocanalejas.dualcache.policies.ArcPolicy} and
+     * {@link com.iagocanalejas.dualcache.policies.S3FifoPolicy}.
+     *
+     * @param policy chooses the evicted entries, a new instance for each cache.
+     * @return the builder.
+     */
+    public B useEvictionPolicyInRam(EvictionPolicy<String> policy) {
+        this.mRamEvictionPolicy = policy;
+        return self();
+    }
+
+    /**
+     * Store the serialized RAM entries in direct memory, outside of the Java heap, so big RAM
+     * sizes do not increase garbage collection pauses. Memory is allocated in slabs of up to 1 MB
+     * and entries bigger than a slab are not kept in RAM. Only for serializers in RAM.
+     *
+     * @return the builder.
+     */
+    public B useOffHeapRam() {
+        this.mRamOffHeap = true;
+        return self();
+    }
+
+    /**
+     * Choose when entries read from disk are also stored in RAM, by default every disk hit is.
+     * {@link DualCachePromotionMode#AFTER_HITS} promotes a key on its second disk hit.
+     *
+     * @param promotionMode {@link DualCachePromotionMode}.
+     * @return the builder.
+     */
+    public B usePromotionInRam(DualCachePromotionMode promotionMode) {
+        return usePromotionInRam(promotionMode, DEFAULT_PROMOTION_DISK_HITS);
+    }
+
+    /**
+     * Choose when entries read from disk are also stored in RAM. Disk hits of each key are
+     * counted in a compact frequency sketch, which forgets old hits over time.
+     *
+     * @param promotionMode {@link DualCachePromotionMode}.
+     * @param diskHits      number of disk hits of a key, from 1 to 15, needed to promote it with
+     *                      {@link DualCachePromotionMode#AFTER_HITS}.
+     * @return the builder.
+     */
+    public B usePromotionInRam(DualCachePromotionMode promotionMode, int diskHits) {
+        this.mPromotionMode = promotionMode;
+        this.mPromotionDiskHits = diskHits;
+        return self();
+    }
+
+    /**
+     * The ram cache will not be used, meaning that only the disk cache will be used.
+     *
+     * @return the builder for the disk cache layer.
+     */
+    public B noRam() {
+        this.mRamMode = DualCacheRamMode.DISABLE;
+        return self();
+    }
+
+    /**
+     * Use custom serialization/deserialization to store and retrieve object from disk cache.
+     *
+     * @param maxDiskSizeBytes is the max size of disk in bytes which an be used by the cache
+     *                         layer.
+     * @param diskCacheFolder  is the folder where the disk cache will be stored.
+     * @param serializer       provides serialization/deserialization methods for the disk cache
+     *                         layer.
+     * @return the builder.
+     */
+    public B useSerializerInDisk(int maxDiskSizeBytes, File diskCacheFolder,
+                                 Serializer<V> serializer) {
+
+        return useByteSerializerInDisk(maxDiskSizeBytes, diskCacheFolder,
+                wrap(serializer, mRamSerializer));
+    }
+
+    /**
+     * Use byte serialization/deserialization to store and retrieve objects from disk cache,
+     * avoiding any intermediate {@link String}.
+     *
+     * @param maxDiskSizeBytes is the max size of disk in bytes which an be used by the cache
+     *                         layer.
+     * @param diskCacheFolder  is the folder where the disk cache will be stored.
+     * @param serializer       provides serialization/deserialization methods for the disk cache
+     *                         layer.
+     * @return the builder.
+     */
+    public B useByteSerializerInDisk(int maxDiskSizeBytes, File diskCacheFolder,
+                                     ByteSerializer<V> serializer) {
+
+        this.mDiskFolder = diskCacheFolder;
+        this.mDiskMode = DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER;
+        this.mMaxDiskSizeBytes = maxDiskSizeBytes;
+        this.mDiskSerializer = serializer;
+        return self();
+    }
+
+    /**
+     * Use this if you do not want use the disk cache layer, meaning that only the
+     * ram cache layer will be used.
+     *
+     * @return the builder.
+     */
+    public B noDisk() {
+        this.mDiskMode = DualCacheDiskMode.DISABLE;
+        return self();
+    }
+
+    /**
+     * Store the disk entries in append-only segment files, with the location of every key kept
+     * in RAM, instead of one file per entry. Writes are sequential and reads take a single
+     * positional read. Overwritten entries are compacted in background and, when the disk is
+     * full, the oldest written entries are evicted instead of the least recently used.
+     *
+     * @return the builder.
+     */
+    public B useLogStructuredDisk() {
+        this.mLogStructuredDisk = true;
+        return self();
+    }
+
+    /**
+     * Compress the serialized entries before writing them to disk, volatile entries included.
+     * Every compressed entry records its codec, so the mode can be changed without clearing the
+     * cache. To stop compressing keep using {@link DualCacheCompressionMode#NONE}, so entries
+     * already compressed can still be read.
+     *
+     * @param compressionMode codec used for new entries.
+     * @param minSizeBytes    entries smaller than this are written uncompressed.
+     * @return the builder.
+     */
+    public B useCompressionInDisk(DualCacheCompressionMode compressionMode, int minSizeBytes) {
+        this.mCompressionMode = compressionMode;
+        this.mMinCompressionSize = minSizeBytes;
+        return self();
+    }
+
+    /**
+     * Write disk entries from a background thread. Writes return as soon as the RAM layer is
+     * updated and repeated writes to the same key are merged while they wait. Use
+     * {@link DualCache#flush()} to wait for all the queued writes to be stored.
+     * <p>
+     * {@link DualCache#put} and {@link DualCache#remove} still return the previous value, reading
+     * it from disk in the calling thread if it is not queued. Use {@link DualCache#set} and
+     * {@link DualCache#delete} when it is not needed.
+     *
+     * @param maxPendingWrites max number of keys waiting to be written to disk.
+     * @param backPressureMode what a write does when the queue is full.
+     * @return the builder.
+     */
+    public B useWriteBehindDisk(int maxPendingWrites, DualCacheBackPressureMode backPressureMode) {
+        this.mMaxPendingDiskWrites = maxPendingWrites;
+        this.mBackPressureMode = backPressureMode;
+        return self();
+    }
+
+    /**
+     * Set a persistence time for all cache entries
+     *
+     * @param seconds time a cache entry can persist in seconds
+     * @return the builder
+     */
+    public B useVolatileCache(long seconds) {
+        this.mDefaultPersistenceTime = seconds * 1000;
+        this.mVolatileMode = DualCacheVolatileMode.VOLATILE;
+        return self();
+    }
+
+    /**
+     * Remember keys missing from every layer, so repeated lookups of absent keys are answered
+     * from RAM without reaching the disk. Writing a key forgets it was missing.
+     *
+     * @param maxEntries max number of missing keys kept, independent from the RAM layer size.
+     * @param seconds    time a key is known to be missing.
+     * @return the builder
+     */
+    public B useNegativeCache(int maxEntries, long seconds) {
+        this.mMaxNegativeEntries = maxEntries;
+        this.mNegativeEntryLife = seconds * 1000;
+        return self();
+    }
+
+    /**
+     * Keep serving expired entries for some more time. During that time a read returns the old
+     * entry and, if a refresh loader is set, reloads it in background. Only for volatile caches.
+     *
+     * @param seconds time an entry is still returned after its persistence time.
+     * @return the builder
+     */
+    public B useStaleWhileRevalidate(long seconds) {
+        this.mStalePeriod = seconds * 1000;
+        return self();
+    }
+
+    /**
+     * Reload in background entries read within the given time before they expire, so popular
+     * entries are replaced before readers miss them. Needs a refresh loader.
+     *
+     * @param seconds time before the persistence time an entry is refreshed.
+     * @return the builder
+     */
+    public B useRefreshAhead(long seconds) {
+        this.mRefreshAheadPeriod = seconds * 1000;
+        return self();
+    }
+
+    /**
+     * Loader used to refresh stale entries in a background thread. Refreshes are dropped while
+     * too many are pending, so readers never wait for them. Only for volatile caches.
+     *
+     * @param loader computes the new value of a key.
+     * @return the builder
+     */
+    public B useRefreshLoader(CacheLoader<K, V> loader) {
+        this.mRefreshLoader = loader;
+        return self();
+    }
+
+    /**
+     * Use your own time source to expire volatile entries, so tests can move the time instead
+     * of waiting for it. By default {@link Clock#SYSTEM} is used.
+     *
+     * @param clock giving the current time.
+     * @return the builder
+     */
+    public B useClock(Clock clock) {
+        this.mClock = clock;
+        return self();
+    }
+
+    /**
+     * Configure the executor used to run the disk operations of the asynchronous methods.
+     * By default 2 threads with up to 128 pending operations are used.
+     *
+     * @param threads         max number of threads running disk operations.
+     * @param maxPendingTasks max number of operations waiting for a thread, once reached the
+     *                        futures of new operations fail with a
+     *                        {@link java.util.concurrent.RejectedExecutionException}.
+     * @return the builder.
+     */
+    public B useIoExecutor(int threads, int maxPendingTasks) {
+        this.mIoExecutor = null;
+        this.mIoThreads = threads;
+        this.mIoPendingTasks = maxPendingTasks;
+        return self();
+    }
+
+    /**
+     * Use your own executor to run the disk operations of the asynchronous methods. It is not
+     * shut down when the cache is closed.
+     *
+     * @param executor running disk operations.
+     * @return the builder.
+     */
+    public B useIoExecutor(Executor executor) {
+        this.mIoExecutor = executor;
+        return self();
+    }
+
+    /**
+     * Enabling log from the cache. By default disable.
+     *
+     * @return the builder.
+     */
+    public B enableLog() {
+        this.mLogEnabled = true;
+        return self();
+    }
+
+    /**
+     * Register a listener of the cache events: hits, misses, puts, evictions, expirations and
+     * promotions. Can be called several times, listeners are called in order.
+     *
+     * @param listener {@link CacheEventListener}.
+     * @return the builder.
+     */
+    public B useEventListener(CacheEventListener listener) {
+        this.mEventListeners.add(listener);
+        return self();
+    }
+
+    /**
+     * Record the statistics of the cache: hits and misses of each layer, promotions, evictions,
+     * expirations, loads and the latencies of serialization and disk access, see
+     * {@link DualCache#getStats()}. By default disable.
+     *
+     * @return the builder.
+     */
+    public B recordStats() {
+        this.mRecordStats = true;
+        return self();
+    }
+
+    /**
+     * Adapt a {@link Serializer} reusing the adapter of the other layer if it wraps the same
+     * instance, so the cache can still detect both layers share the serialized form.
+     */
+    private ByteSerializer<V> wrap(Serializer<V> serializer, ByteSerializer<V> other) {
+        if (other instanceof StringByteSerializer
+                && ((StringByteSerializer<V>) other).getSerializer() == serializer) {
+            return other;
+        }
+        return new StringByteSerializer<>(serializer);
+    }
+
+    /**
+     * Combine the registered listeners, the logger first if the log is enabled. Without any
+     * listener the events are ignored.
+     *
+     * @param logger of the cache.
+     * @return the listener of the cache.
+     */
+    private CacheEventListener buildEventListener(Logger logger) {
+        List<CacheEventListener> listeners = new ArrayList<>();
+        if (mLogEnabled) {
+            listeners.add(logger);
+        }
+        listeners.addAll(mEventListeners);
+        switch (listeners.size()) {
+            case 0:
+                return new SimpleCacheEventListener();
+            case 1:
+                return listeners.get(0);
+            default:
+                return new CompositeCacheEventListener(listeners);
+        }
+    }
+
+    /**
+     * Create the RAM layer storing what the RAM mode requires.
+     *
+     * @return the RAM layer or null if it is disabled.
+     */
+    @SuppressWarnings("unchecked")
+    private ConditionalCache buildRamCache() {
+        SizeOf sizeOf;
+        switch (mRamMode) {
+            case ENABLE_WITH_SPECIFIC_SERIALIZER:
+                sizeOf = new ByteSizeOf();
+                break;
+            case ENABLE_WITH_REFERENCE:
+                sizeOf = mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)
+                        ? new VolatileSizeOf<>(mSizeOf)
+                        : mSizeOf;
+                break;
+            default:
+                return null;
+        }
+
+        if (mRamOffHeap) {
+            return new OffHeapRamCache(mMaxRamSizeBytes);
+        }
+        if (mRamTinyLfu) {
+            return new TinyLfuRamCache<>(sizeOf, mMaxRamSizeBytes);
+        }
+        if (mRamEvictionPolicy != null) {
+            return new PolicyRamCache<>(sizeOf, mMaxRamSizeBytes, mRamEvictionPolicy);
+        }
+        if (mRamConcurrencyLevel > 0) {
+            return new ConcurrentRamCache<>(sizeOf, mMaxRamSizeBytes, mRamConcurrencyLevel);
+        }
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            return new RamSerializedCache(mMaxRamSizeBytes);
+        }
+        return new RamCache<>(sizeOf, mMaxRamSizeBytes);
+    }
+
+}
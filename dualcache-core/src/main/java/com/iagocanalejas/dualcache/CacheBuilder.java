@@ -0,0 +1,26 @@
+package com.iagocanalejas.dualcache;
+
+/**
+ * Builder of caches for plain JVMs, the disk cache folder is given as a {@link java.io.File}.
+ *
+ * @param <K> is the class of the keys.
+ * @param <V> is the class of object to store in cache.
+ */
+public class CacheBuilder<K, V> extends AbstractBuilder<K, V, CacheBuilder<K, V>> {
+
+    /**
+     * Start the building of the cache.
+     *
+     * @param cacheId    is the mCacheId of the cache (should be unique).
+     * @param appVersion is the app version of the app. If data are already stored in disk cache
+     *                   with previous app version, it will be clear.
+     */
+    public CacheBuilder(String cacheId, int appVersion) {
+        super(cacheId, appVersion);
+    }
+
+    @Override
+    protected CacheBuilder<K, V> self() {
+        return this;
+    }
+}
@@ -0,0 +1,1974 @@
+/*
+ * Copyright 2014 Vincent Brison.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.caches.CompressedDiskCache;
+import com.iagocanalejas.dualcache.caches.DiskCache;
+import com.iagocanalejas.dualcache.caches.LogDiskCache;
+import com.iagocanalejas.dualcache.caches.NegativeCache;
+import com.iagocanalejas.dualcache.caches.TimedDiskCache;
+import com.iagocanalejas.dualcache.caches.WriteBehindDiskCache;
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.interfaces.CacheCallback;
+import com.iagocanalejas.dualcache.interfaces.CacheEventListener;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.interfaces.Clock;
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.Hasher;
+import com.iagocanalejas.dualcache.interfaces.VolatileCache;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+import com.iagocanalejas.dualcache.modes.DualCacheDiskMode;
+import com.iagocanalejas.dualcache.modes.DualCacheKeyMode;
+import com.iagocanalejas.dualcache.modes.DualCachePromotionMode;
+import com.iagocanalejas.dualcache.modes.DualCacheRamMode;
+import com.iagocanalejas.dualcache.modes.DualCacheVolatileMode;
+import com.iagocanalejas.dualcache.stats.CacheStats;
+import com.iagocanalejas.dualcache.stats.StatsCounter;
+import com.iagocanalejas.dualcache.utils.CompletedFuture;
+import com.iagocanalejas.dualcache.utils.FrequencySketch;
+import com.iagocanalejas.dualcache.utils.TimedByteSerializer;
+import com.iagocanalejas.dualcache.utils.TimerWheel;
+import com.iagocanalejas.dualcache.utils.VolatileEntry;
+import com.iagocanalejas.dualcache.utils.VolatileSerializer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class intent to provide a very easy to use, reliable, highly configurable caching library
+ * for Android.
+ *
+ * @param <V> is the Class of object to cache.
+ */
+public class DualCache<K, V> implements VolatileCache<K, V>, BulkCache<K, V>, Closeable {
+    private static final String TAG = DualCache.class.getSimpleName();
+
+    // Keys whose disk hits are counted to promote them after several hits
+    private static final int PROMOTION_SKETCH_KEYS = 4096;
+    // Stripes of the promotion stamps, a power of two
+    private static final int PROMOTION_STRIPES = 64;
+    // Time close waits for the tasks queued in the executors created by the cache
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    // Basic conf
+    private final int mAppVersion;
+    private final Logger mLogger;
+
+    // Key conf
+    private final DualCacheKeyMode mKeyMode;
+    private final Hasher<K> mHasher;
+
+    // Disk conf
+    private final DualCacheDiskMode mDiskMode;
+    private BulkCache<String, byte[]> mDiskLruCache;
+    private WriteBehindDiskCache mWriteBehindCache;
+    // Disk layer storing the entries, closed with the cache
+    private Closeable mDiskStore;
+
+    // Ram conf
+    private final ConditionalCache mLruCache;
+    private final DualCacheRamMode mRamMode;
+
+    // Serializers
+    private final VolatileSerializer<V> mVolatileRamSerializer;
+    private final VolatileSerializer<V> mVolatileDiskSerializer;
+    private final ByteSerializer<V> mDiskSerializer;
+    private final ByteSerializer<V> mRamSerializer;
+
+    // Persistence conf
+    private final DualCacheVolatileMode mVolatileMode;
+    private final Long mDefaultPersistenceTime;
+
+    // Async conf
+    private final Executor mIoExecutor;
+    private final boolean mOwnsIoExecutor;
+
+    // Loads in progress by hashed key
+    private final ConcurrentMap<String, LoadTask<V>> mLoads = new ConcurrentHashMap<>();
+
+    // Refresh conf, refreshes run in a background executor dropping them when it is busy
+    private final CacheLoader<K, V> mRefreshLoader;
+    private final Executor mRefreshExecutor;
+    private final long mStalePeriod;
+    private final long mRefreshAheadPeriod;
+
+    // Keys known to be missing
+    private final NegativeCache mNegativeCache;
+
+    // Promotion of disk hits to RAM, writes move the stamp of the stripe of their key so
+    // background promotions of entries read before them are discarded
+    private final DualCachePromotionMode mPromotionMode;
+    private final int mPromotionDiskHits;
+    private final FrequencySketch mPromotionSketch;
+    private final Executor mPromotionExecutor;
+    private final AtomicLongArray mPromotionStamps = new AtomicLongArray(PROMOTION_STRIPES);
+
+    // Time source of the volatile entries
+    private final Clock mClock;
+
+    // Expiration of the volatile entries in RAM
+    private final TimerWheel<String> mExpirationWheel;
+    private final AtomicLong mRamExpirations = new AtomicLong();
+
+    // Statistics, RAM evictions are counted by the RAM layer since it was created
+    private final StatsCounter mStats;
+    private volatile int mRamEvictionsAtReset;
+
+    // Events
+    private final CacheEventListener mListener;
+
+    DualCache(int appVersion, Logger logger, DualCacheKeyMode keyMode, Hasher<K> hasher,
+              DualCacheRamMode ramMode, ByteSerializer<V> ramSerializer,
+              ConditionalCache ramCache, DualCacheDiskMode diskMode,
+              ByteSerializer<V> diskSerializer,
+              int maxDiskSizeBytes, File diskFolder, boolean logStructuredDisk,
+              DualCacheCompressionMode compressionMode, int minCompressionSize,
+              DualCacheVolatileMode volatileMode, Long defaultPersistenceTime,
+              Executor ioExecutor, boolean ownsIoExecutor, int maxPendingDiskWrites,
+              DualCacheBackPressureMode backPressureMode, CacheLoader<K, V> refreshLoader,
+              Executor refreshExecutor, long stalePeriod, long refreshAheadPeriod,
+              int maxNegativeEntries, long negativeEntryLife, DualCachePromotionMode promotionMode,
+              int promotionDiskHits, Executor promotionExecutor, boolean recordStats,
+              CacheEventListener listener, Clock clock) {
+
+        this.mStats = recordStats ? new StatsCounter() : StatsCounter.disabled();
+        if (recordStats) {
+            // Wrap a shared serializer once so the same serializer optimizations keep working
+            ByteSerializer<V> timedRamSerializer = (ramSerializer != null)
+                    ? new TimedByteSerializer<>(ramSerializer, mStats)
+                    : null;
+            if (diskSerializer == ramSerializer) {
+                diskSerializer = timedRamSerializer;
+            } else if (diskSerializer != null) {
+                diskSerializer = new TimedByteSerializer<>(diskSerializer, mStats);
+            }
+            ramSerializer = timedRamSerializer;
+        }
+
+        this.mAppVersion = appVersion;
+        this.mLogger = logger;
+        this.mKeyMode = keyMode;
+        this.mHasher = hasher;
+        this.mRamMode = ramMode;
+        this.mRamSerializer = ramSerializer;
+        this.mDiskMode = diskMode;
+        this.mDiskSerializer = diskSerializer;
+        this.mDefaultPersistenceTime = defaultPersistenceTime;
+        this.mVolatileMode = volatileMode;
+        this.mIoExecutor = ioExecutor;
+        this.mOwnsIoExecutor = ownsIoExecutor;
+        this.mRefreshLoader = refreshLoader;
+        this.mRefreshExecutor = refreshExecutor;
+        this.mStalePeriod = stalePeriod;
+        this.mRefreshAheadPeriod = refreshAheadPeriod;
+        this.mNegativeCache = (maxNegativeEntries > 0)
+                ? new NegativeCache(maxNegativeEntries, negativeEntryLife)
+                : null;
+        this.mPromotionMode = promotionMode;
+        this.mPromotionDiskHits = promotionDiskHits;
+        this.mPromotionSketch = promotionMode.equals(DualCachePromotionMode.AFTER_HITS)
+                ? new FrequencySketch(PROMOTION_SKETCH_KEYS)
+                : null;
+        this.mPromotionExecutor = promotionExecutor;
+
+        this.mLruCache = ramCache;
+        this.mListener = listener;
+        if (ramCache instanceof EvictionCounter) {
+            ((EvictionCounter) ramCache).setEvictionListener(new EvictionListener() {
+                @Override
+                public void onEviction(String key) {
+                    descheduleExpiration(key);
+                    mListener.onEvict(key);
+                }
+            });
+        }
+        this.mClock = clock;
+        this.mExpirationWheel = (volatileMode.equals(DualCacheVolatileMode.VOLATILE)
+                && !ramMode.equals(DualCacheRamMode.DISABLE))
+                ? new TimerWheel<String>(mClock.currentTimeMillis())
+                : null;
+
+        switch (diskMode) {
+            case ENABLE_WITH_SPECIFIC_SERIALIZER:
+                try {
+                    if (logStructuredDisk) {
+                        LogDiskCache diskCache =
+                                new LogDiskCache(diskFolder, mAppVersion, maxDiskSizeBytes);
+                        this.mDiskStore = diskCache;
+                        this.mDiskLruCache = diskCache;
+                    } else {
+                        DiskCache diskCache =
+                                new DiskCache(diskFolder, mAppVersion, maxDiskSizeBytes);
+                        this.mDiskStore = diskCache;
+                        this.mDiskLruCache = diskCache;
+                    }
+                    if (recordStats) {
+                        this.mDiskLruCache = new TimedDiskCache(mDiskLruCache, mStats);
+                    }
+                    if (compressionMode != null) {
+                        this.mDiskLruCache = new CompressedDiskCache(mDiskLruCache,
+                                compressionMode, minCompressionSize);
+                    }
+                    if (maxPendingDiskWrites > 0) {
+                        this.mWriteBehindCache = new WriteBehindDiskCache(mDiskLruCache,
+                                maxPendingDiskWrites, backPressureMode, diskFolder.getName());
+                        this.mDiskLruCache = mWriteBehindCache;
+                    }
+                } catch (IOException e) {
+                    mLogger.logError(TAG, e);
+                }
+                break;
+            default:
+                this.mDiskLruCache = null;
+        }
+
+
+        //region Init Volatile Serializers
+        if (!volatileMode.equals(DualCacheVolatileMode.PERSISTENCE)
+                && ramMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            mVolatileRamSerializer = new VolatileSerializer<>(ramSerializer);
+        } else {
+            mVolatileRamSerializer = null;
+        }
+
+        if (!volatileMode.equals(DualCacheVolatileMode.PERSISTENCE)
+                && diskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            // Share the wrapper so the same serializer optimizations keep working
+            mVolatileDiskSerializer = (diskSerializer == ramSerializer)
+                    ? mVolatileRamSerializer
+                    : new VolatileSerializer<>(diskSerializer);
+        } else {
+            mVolatileDiskSerializer = null;
+        }
+        //endregion
+
+    }
+
+    public int getCacheVersion() {
+        return mAppVersion;
+    }
+
+    public long getRamUsedInBytes() {
+        if (mLruCache == null) {
+            return -1;
+        } else {
+            return mLruCache.size();
+        }
+    }
+
+    public long getDiskUsedInBytes() {
+        if (mDiskLruCache == null) {
+            return -1;
+        } else {
+            return mDiskLruCache.size();
+        }
+
+    }
+
+    /**
+     * Return the way keys are handled.
+     *
+     * @return the way keys are handled.
+     */
+    public DualCacheKeyMode getKeyMode() {
+        return mKeyMode;
+    }
+
+    /**
+     * Return the way objects are cached in RAM layer.
+     *
+     * @return the way objects are cached in RAM layer.
+     */
+    public DualCacheRamMode getRamMode() {
+        return mRamMode;
+    }
+
+    /**
+     * Return the way objects are cached in disk layer.
+     *
+     * @return the way objects are cached in disk layer.
+     */
+    public DualCacheDiskMode getDiskMode() {
+        return mDiskMode;
+    }
+
+
+    /**
+     * Return the way cache persistence is working
+     *
+     * @return the way cache persistence is working
+     */
+    public DualCacheVolatileMode getPersistenceMode() {
+        return mVolatileMode;
+    }
+
+    //region PUT
+
+    /**
+     * Put a volatile entry on the cache
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife    persistence time for given entry, <= 0 means persistence entry
+     * @param readPrevious false to skip reading and decoding the previous entry.
+     * @return previous entry or null
+     */
+    @SuppressWarnings("unchecked")
+    private V putVolatileEntry(String key, V object, long entryLife, boolean readPrevious) {
+        invalidatePromotions(key);
+        long lifetime = (entryLife > 0)
+                ? mClock.currentTimeMillis() + entryLife
+                : 0; // Same as a persistence entry
+
+        expireRam();
+        invalidateMissing(key);
+        mListener.onPut(key);
+        scheduleExpiration(key, lifetime);
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            VolatileEntry<V> prev = ((VolatileEntry<V>) mLruCache.put(key,
+                    new VolatileEntry<>(lifetime, object)));
+            if (readPrevious && prev != null
+                    && prev.getTimestamp().getTime() < mClock.currentTimeMillis()) {
+                previous = prev.getItem();
+            }
+        }
+
+        byte[] ramSerialized = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            ramSerialized = mVolatileRamSerializer.toBytes(new VolatileEntry<>(lifetime, object));
+            byte[] prev = (byte[]) mLruCache.put(key, ramSerialized);
+            if (readPrevious && prev != null) {
+                VolatileEntry<V> prevEntry = mVolatileRamSerializer.fromBytes(prev, 0, prev.length);
+                if (prevEntry.getTimestamp().getTime() < mClock.currentTimeMillis()) {
+                    previous = prevEntry.getItem();
+                }
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            if (mVolatileRamSerializer == mVolatileDiskSerializer) {
+                // Optimization if using same serializer
+                mDiskLruCache.set(key, ramSerialized);
+            } else if (!readPrevious) {
+                mDiskLruCache.set(key,
+                        mVolatileDiskSerializer.toBytes(new VolatileEntry<>(lifetime, object)));
+            } else {
+                byte[] prev = mDiskLruCache.put(key,
+                        mVolatileDiskSerializer.toBytes(new VolatileEntry<>(lifetime, object)));
+                if (prev != null && previous == null
+                        && mVolatileDiskSerializer.isReadable(prev, 0, prev.length)) {
+                    VolatileEntry<V> prevEntry =
+                            mVolatileDiskSerializer.fromBytes(prev, 0, prev.length);
+                    if (prevEntry.getTimestamp().getTime() < mClock.currentTimeMillis()) {
+                        previous = prevEntry.getItem();
+                    }
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Put a persistent entry on the cache
+     *
+     * @param key          the key of the object.
+     * @param object       the object to put in cache.
+     * @param readPrevious false to skip reading and decoding the previous entry.
+     * @return previous entry or null
+     */
+    @SuppressWarnings("unchecked")
+    private V putEntry(String key, V object, boolean readPrevious) {
+        invalidatePromotions(key);
+        invalidateMissing(key);
+        mListener.onPut(key);
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            previous = (V) mLruCache.put(key, object);
+        }
+
+        byte[] ramSerialized = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            ramSerialized = mRamSerializer.toBytes(object);
+            byte[] prev = (byte[]) mLruCache.put(key, ramSerialized);
+            if (readPrevious && prev != null) {
+                previous = mRamSerializer.fromBytes(prev, 0, prev.length);
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            if (mRamSerializer == mDiskSerializer) {
+                // Optimization if using same serializer
+                mDiskLruCache.set(key, ramSerialized);
+            } else if (!readPrevious) {
+                mDiskLruCache.set(key, mDiskSerializer.toBytes(object));
+            } else {
+                byte[] prev = mDiskLruCache.put(key, mDiskSerializer.toBytes(object));
+                if (prev != null && previous == null) {
+                    previous = mDiskSerializer.fromBytes(prev, 0, prev.length);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Put an object in cache with a lifetime if we are in a
+     * {@link DualCacheVolatileMode#VOLATILE} cache
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     */
+    @Override
+    public V put(K key, V object, long entryLife) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            throw new UnsupportedOperationException(
+                    "Operation only supported for VOLATILE cache type");
+        }
+        return putVolatileEntry(nKey, object, entryLife, true);
+    }
+
+    /**
+     * Put an object in cache with a lifetime if we are in a
+     * {@link DualCacheVolatileMode#VOLATILE} cache. Unlike {@link #put(Object, Object, long)}
+     * the previous object is not read or decoded in any layer.
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     */
+    @Override
+    public void set(K key, V object, long entryLife) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            throw new UnsupportedOperationException(
+                    "Operation only supported for VOLATILE cache type");
+        }
+        putVolatileEntry(nKey, object, entryLife, false);
+    }
+
+    /**
+     * Put an object in cache. With a write-behind disk layer the previous object is read from
+     * disk in the calling thread if it is neither in RAM nor queued.
+     *
+     * @param key    is the key of the object.
+     * @param object is the object to put in cache.
+     * @return previous object or null.
+     */
+    @Override
+    public V put(K key, V object) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        return putHashed(nKey, object, true);
+    }
+
+    /**
+     * Put an object in cache. Unlike {@link #put(Object, Object)} the previous object is not
+     * read or decoded in any layer.
+     *
+     * @param key    is the key of the object.
+     * @param object is the object to put in cache.
+     */
+    @Override
+    public void set(K key, V object) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        putHashed(nKey, object, false);
+    }
+
+    /**
+     * Used if key is already hashed
+     *
+     * @param key          for the entry
+     * @param object       is the object to put in cache.
+     * @param readPrevious false to skip reading and decoding the previous entry.
+     * @return previous entry or null
+     */
+    private V putHashed(String key, V object, boolean readPrevious) {
+        if (mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            return putVolatileEntry(key, object, mDefaultPersistenceTime, readPrevious);
+        }
+        return putEntry(key, object, readPrevious);
+    }
+
+    /**
+     * Record a key as missing, following lookups of the key will not reach any layer until the
+     * negative entry expires or the key is written. Does nothing if the cache was built without
+     * {@link AbstractBuilder#useNegativeCache(int, long)}.
+     *
+     * @param key is the key known to be missing.
+     */
+    public void putMissing(K key) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (mNegativeCache != null) {
+            Object lookup = mNegativeCache.startLookup(nKey);
+            removeHashed(nKey, false);
+            mNegativeCache.markMissing(nKey, lookup);
+        }
+    }
+
+    /**
+     * Forget a negative entry, must be called before writing the key.
+     *
+     * @param key written key
+     */
+    private void invalidateMissing(String key) {
+        if (mNegativeCache != null) {
+            mNegativeCache.invalidate(key);
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) (getRamUsedInBytes() + getDiskUsedInBytes());
+    }
+    //endregion
+
+    //region GET
+
+    /**
+     * Try to get key object from disk
+     *
+     * @param key given string to search
+     * @return entry bytes or null
+     */
+    private byte[] getFromDisk(String key) {
+        byte[] value = mDiskLruCache.get(key);
+        if (value == null) {
+            recordDiskMiss(key);
+        }
+        return value;
+    }
+
+    /**
+     * Try to get key object from RAM
+     *
+     * @param key given string to search
+     * @return stored RAM object (reference, {@link VolatileEntry} or bytes) or null
+     */
+    @SuppressWarnings("unchecked")
+    private Object getFromRam(String key) {
+        if (mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            return null;
+        }
+        expireRam();
+        return mLruCache.get(key);
+    }
+
+    /**
+     * Count a key not found in RAM, if there is a RAM layer.
+     *
+     * @param key looked up
+     */
+    private void recordRamMiss(String key) {
+        if (!mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            mStats.recordRamMiss();
+            mListener.onMiss(key, CacheEventListener.Layer.RAM);
+        }
+    }
+
+    private void recordRamHit(String key) {
+        mStats.recordRamHit();
+        mListener.onHit(key, CacheEventListener.Layer.RAM);
+    }
+
+    private void recordDiskMiss(String key) {
+        mStats.recordDiskMiss();
+        mListener.onMiss(key, CacheEventListener.Layer.DISK);
+    }
+
+    private void recordDiskHit(String key) {
+        mStats.recordDiskHit();
+        mListener.onHit(key, CacheEventListener.Layer.DISK);
+    }
+
+    /**
+     * Count an entry read from disk and stored in RAM.
+     *
+     * @param key of the entry
+     */
+    private void recordPromotion(String key) {
+        mStats.recordPromotion();
+        mListener.onPromote(key);
+    }
+
+    /**
+     * Try to find an entry on the cache, first in the negative cache, then in RAM and then in
+     * disk, recording the key as missing if it is not found
+     *
+     * @param key  original key, used to refresh the entry
+     * @param nKey given entry to find
+     * @return entry or null
+     */
+    private V getHashed(K key, String nKey) {
+        if (mNegativeCache == null) {
+            return findHashed(key, nKey);
+        }
+        if (isKnownMissing(nKey)) {
+            return null;
+        }
+        Object lookup = mNegativeCache.startLookup(nKey);
+        try {
+            V value = findHashed(key, nKey);
+            if (value == null) {
+                mNegativeCache.markMissing(nKey, lookup);
+            }
+            return value;
+        } finally {
+            mNegativeCache.endLookup(nKey, lookup);
+        }
+    }
+
+    /**
+     * Try to find an entry on the cache, first in RAM then in disk
+     *
+     * @param key  original key, used to refresh the entry
+     * @param nKey given entry to find
+     * @return entry or null
+     */
+    private V findHashed(K key, String nKey) {
+        Object ramResult = getFromRam(nKey);
+        if (ramResult != null) {
+            return fromRam(key, nKey, ramResult);
+        }
+
+        // Try to get the cached object from disk.
+        recordRamMiss(nKey);
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            long promotionStamp = promotionStamp(nKey);
+            byte[] diskResult = getFromDisk(nKey);
+            if (diskResult != null) {
+                return fromDisk(key, nKey, diskResult, promotionStamp);
+            }
+        }
+
+        // No data is available.
+        return null;
+    }
+
+    /**
+     * Check the negative cache for the key
+     *
+     * @param key given entry to find
+     * @return true if the key is known to be missing
+     */
+    private boolean isKnownMissing(String key) {
+        if (mNegativeCache != null && mNegativeCache.isMissing(key)) {
+            mLogger.logEntryForKeyIsMissing(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Load the object from a RAM result invalidating it if it has expired, an expired entry is
+     * counted as a RAM miss
+     *
+     * @param key       original key, used to refresh the entry
+     * @param nKey      of the entry
+     * @param ramResult object stored in RAM for the key
+     * @return entry or null
+     */
+    @SuppressWarnings("unchecked")
+    private V fromRam(K key, String nKey, Object ramResult) {
+        boolean isVolatile = mVolatileMode.equals(DualCacheVolatileMode.VOLATILE);
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            if (!isVolatile) {
+                recordRamHit(nKey);
+                return (V) ramResult;
+            }
+            VolatileEntry<V> cacheEntry = (VolatileEntry<V>) ramResult;
+            //Invalidate cache if needed
+            if (isExpired(cacheEntry)) {
+                recordRamMiss(nKey);
+                recordRamExpiration(nKey);
+                removeHashed(nKey, false);
+                return null;
+            }
+            recordRamHit(nKey);
+            refreshIfNeeded(key, nKey, cacheEntry);
+            return cacheEntry.getItem();
+        }
+
+        byte[] ramBytes = (byte[]) ramResult;
+        if (!isVolatile) {
+            recordRamHit(nKey);
+            return mRamSerializer.fromBytes(ramBytes, 0, ramBytes.length);
+        }
+        // Check the header before decoding the object
+        if (isExpired(mVolatileRamSerializer.timestampOf(ramBytes, 0, ramBytes.length))) {
+            recordRamMiss(nKey);
+            recordRamExpiration(nKey);
+            removeHashed(nKey, false);
+            return null;
+        }
+        recordRamHit(nKey);
+        VolatileEntry<V> cacheEntry =
+                mVolatileRamSerializer.fromBytes(ramBytes, 0, ramBytes.length);
+        refreshIfNeeded(key, nKey, cacheEntry);
+        return cacheEntry.getItem();
+    }
+
+    /**
+     * Check if a RAM result is an expired volatile entry, without decoding it.
+     *
+     * @param ramResult object stored in RAM for a key
+     * @return true if reading it would remove an expired entry
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isExpiredInRam(Object ramResult) {
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            return false;
+        }
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            return isExpired((VolatileEntry<V>) ramResult);
+        }
+        byte[] ramBytes = (byte[]) ramResult;
+        return isExpired(mVolatileRamSerializer.timestampOf(ramBytes, 0, ramBytes.length));
+    }
+
+    /**
+     * Load the object from a disk result invalidating it if it has expired, and refresh it in
+     * RAM. An expired entry is counted as a disk miss
+     *
+     * @param key            original key, used to refresh the entry
+     * @param nKey           of the entry
+     * @param diskResult     bytes stored in disk for the key
+     * @param promotionStamp promotion stamp of the key before reading it from disk
+     * @return entry or null
+     */
+    @SuppressWarnings("unchecked")
+    private V fromDisk(K key, String nKey, byte[] diskResult, long promotionStamp) {
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            recordDiskHit(nKey);
+            V objectFromDisk = mDiskSerializer.fromBytes(diskResult, 0, diskResult.length);
+            promote(nKey, objectFromDisk, null, diskResult, promotionStamp);
+            return objectFromDisk;
+        }
+
+        if (!mVolatileDiskSerializer.isReadable(diskResult, 0, diskResult.length)) {
+            // Written by a later version or corrupt, it would be a miss on every read
+            mLogger.logWarning(TAG, "Deleting unreadable entry " + nKey);
+            recordDiskMiss(nKey);
+            mDiskLruCache.delete(nKey);
+            return null;
+        }
+        //Invalidate cache if required, checking the header before decoding the object
+        if (isExpired(mVolatileDiskSerializer.timestampOf(diskResult, 0, diskResult.length))) {
+            recordDiskMiss(nKey);
+            mStats.recordDiskExpiration();
+            mListener.onExpire(nKey, CacheEventListener.Layer.DISK);
+            removeHashed(nKey, false);
+            return null;
+        }
+        recordDiskHit(nKey);
+        VolatileEntry<V> cacheEntry =
+                mVolatileDiskSerializer.fromBytes(diskResult, 0, diskResult.length);
+
+        if (mVolatileDiskSerializer.isLegacy(diskResult, 0, diskResult.length)) {
+            // Written by a previous version, store it again in the current format
+            diskResult = mVolatileDiskSerializer.toBytes(cacheEntry);
+            mDiskLruCache.set(nKey, diskResult);
+        }
+
+        promote(nKey, null, cacheEntry, diskResult, promotionStamp);
+        refreshIfNeeded(key, nKey, cacheEntry);
+        return cacheEntry.getItem();
+    }
+
+    /**
+     * Store an entry read from disk in RAM if the promotion mode allows it. The entry is only
+     * encoded for RAM when it is stored, out of the calling thread for asynchronous promotions
+     *
+     * @param nKey           of the entry
+     * @param object         read from disk, null for volatile entries
+     * @param cacheEntry     read from disk, null for persistence entries
+     * @param diskResult     bytes stored in disk for the key
+     * @param promotionStamp promotion stamp of the key before reading it from disk
+     */
+    @SuppressWarnings("unchecked")
+    private void promote(String nKey, V object, VolatileEntry<V> cacheEntry, byte[] diskResult,
+                         long promotionStamp) {
+        if (mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            return;
+        }
+        switch (mPromotionMode) {
+            case NEVER:
+                return;
+            case AFTER_HITS:
+                if (!countDiskHit(nKey)) {
+                    return;
+                }
+                break;
+            case ASYNC:
+                promoteAsync(nKey, object, cacheEntry, diskResult, promotionStamp);
+                return;
+            default:
+                break;
+        }
+        if (cacheEntry != null) {
+            scheduleExpiration(nKey, cacheEntry.getTimestamp().getTime());
+        }
+        mLruCache.put(nKey, toRamValue(object, cacheEntry, diskResult));
+        recordPromotion(nKey);
+    }
+
+    /**
+     * Record a disk hit of the key in the promotion sketch
+     *
+     * @param nKey read from disk
+     * @return true if the key has been read from disk often enough to be promoted
+     */
+    private boolean countDiskHit(String nKey) {
+        synchronized (mPromotionSketch) {
+            mPromotionSketch.increment(nKey);
+            return mPromotionSketch.frequency(nKey) >= mPromotionDiskHits;
+        }
+    }
+
+    /**
+     * Promote an entry in the promotion executor. The promotion is dropped if the key is in RAM
+     * or is written or removed after it was read from disk, and undone if that happens while
+     * storing it. Only the promoted instance is undone, so a newer value is kept
+     */
+    @SuppressWarnings("unchecked")
+    private void promoteAsync(final String nKey, final V object,
+                              final VolatileEntry<V> cacheEntry, final byte[] diskResult,
+                              final long promotionStamp) {
+        mPromotionExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Peek so the check is not counted as an access of an entry stored meanwhile
+                if (promotionStamp(nKey) != promotionStamp || mLruCache.peek(nKey) != null) {
+                    return;
+                }
+                Object ramValue = toRamValue(object, cacheEntry, diskResult);
+                if (mLruCache.putIfAbsent(nKey, ramValue) != null) {
+                    return;
+                }
+                if (promotionStamp(nKey) != promotionStamp) {
+                    // The write may have happened before storing the entry, readers go to disk
+                    mLruCache.remove(nKey, ramValue);
+                    return;
+                }
+                if (cacheEntry != null) {
+                    scheduleExpiration(nKey, cacheEntry.getTimestamp().getTime());
+                }
+                recordPromotion(nKey);
+            }
+        });
+    }
+
+    /**
+     * Encode for RAM an entry read from disk, reusing the disk bytes if both layers share the
+     * serializer
+     */
+    private Object toRamValue(V object, VolatileEntry<V> cacheEntry, byte[] diskResult) {
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            return cacheEntry != null ? cacheEntry : object;
+        } else if (mDiskSerializer == mRamSerializer) {
+            return diskResult;
+        }
+        return cacheEntry != null
+                ? mVolatileRamSerializer.toBytes(cacheEntry)
+                : mRamSerializer.toBytes(object);
+    }
+
+    /**
+     * Return the promotion stamp of a key, compared before and after promoting it to know if it
+     * was written or removed meanwhile
+     *
+     * @param nKey of the entry
+     * @return stamp of the stripe of the key, 0 without asynchronous promotions
+     */
+    private long promotionStamp(String nKey) {
+        return (mPromotionExecutor != null) ? mPromotionStamps.get(stripeOf(nKey)) : 0;
+    }
+
+    private static int stripeOf(String nKey) {
+        int hash = nKey.hashCode();
+        return (hash ^ (hash >>> 16)) & (PROMOTION_STRIPES - 1);
+    }
+
+    /**
+     * Discard the asynchronous promotions of a key read before now, must be called before
+     * writing or removing it
+     *
+     * @param nKey written or removed
+     */
+    private void invalidatePromotions(String nKey) {
+        if (mPromotionExecutor != null) {
+            mPromotionStamps.incrementAndGet(stripeOf(nKey));
+        }
+    }
+
+    /**
+     * Discard all the asynchronous promotions of entries read before now, must be called before
+     * clearing a layer
+     */
+    private void invalidatePromotions() {
+        if (mPromotionExecutor != null) {
+            for (int i = 0; i < PROMOTION_STRIPES; i++) {
+                mPromotionStamps.incrementAndGet(i);
+            }
+        }
+    }
+
+    /**
+     * Check if a volatile entry has expired, entries with timestamp 0 never expire. Entries
+     * past their timestamp are still valid during the stale period.
+     *
+     * @param cacheEntry to check
+     * @return true if the entry has expired
+     */
+    private boolean isExpired(VolatileEntry<V> cacheEntry) {
+        return isExpired(cacheEntry.getTimestamp().getTime());
+    }
+
+    /**
+     * Check if a volatile entry timestamp has expired, see {@link #isExpired(VolatileEntry)}.
+     *
+     * @param timestamp of the entry
+     * @return true if the entry has expired
+     */
+    private boolean isExpired(long timestamp) {
+        return timestamp != 0
+                && timestamp + mStalePeriod < mClock.currentTimeMillis();
+    }
+
+    /**
+     * Refresh in background a volatile entry that is stale, or will be in less than the refresh
+     * ahead period, if a refresh loader is registered.
+     *
+     * @param key        original key, given to the loader
+     * @param nKey       of the entry
+     * @param cacheEntry returned entry
+     */
+    private void refreshIfNeeded(K key, String nKey, VolatileEntry<V> cacheEntry) {
+        long timestamp = cacheEntry.getTimestamp().getTime();
+        if (mRefreshLoader != null && timestamp != 0
+                && timestamp - mRefreshAheadPeriod < mClock.currentTimeMillis()) {
+            refresh(key, nKey);
+        }
+    }
+
+    /**
+     * Track when a volatile entry stored in RAM expires, including its stale period.
+     *
+     * @param key       of the entry
+     * @param timestamp expiration time of the entry, 0 if it never expires
+     */
+    private void scheduleExpiration(String key, long timestamp) {
+        if (mExpirationWheel != null) {
+            if (timestamp != 0) {
+                mExpirationWheel.schedule(key, timestamp + mStalePeriod);
+            } else {
+                mExpirationWheel.deschedule(key);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking the expiration of a volatile entry removed from RAM.
+     *
+     * @param key of the entry
+     */
+    private void descheduleExpiration(String key) {
+        if (mExpirationWheel != null) {
+            mExpirationWheel.deschedule(key);
+        }
+    }
+
+    /**
+     * Remove from RAM the volatile entries expired since the last call. Most calls only compare
+     * the time with the one of the last call, the entries are checked again before removing them
+     * as the wheel may keep keys already replaced. Entries are peeked so checking them is not an
+     * access, and only removed if they were not replaced meanwhile.
+     */
+    @SuppressWarnings("unchecked")
+    private void expireRam() {
+        if (mExpirationWheel == null) {
+            return;
+        }
+        for (String key : mExpirationWheel.advance(mClock.currentTimeMillis())) {
+            Object ramResult = mLruCache.peek(key);
+            if (ramResult != null && isExpiredInRam(ramResult)
+                    && mLruCache.remove(key, ramResult)) {
+                recordRamExpiration(key);
+            }
+        }
+    }
+
+    /**
+     * Count a volatile entry removed from RAM because it expired.
+     *
+     * @param key of the entry
+     */
+    private void recordRamExpiration(String key) {
+        mRamExpirations.incrementAndGet();
+        mStats.recordRamExpiration();
+        mListener.onExpire(key, CacheEventListener.Layer.RAM);
+    }
+
+    /**
+     * Remove from RAM the volatile entries that have expired. Expired entries are removed while
+     * the cache is used, this can be called from a maintenance thread to remove them when it is
+     * idle too. Does nothing for caches without volatile entries in RAM.
+     */
+    public void cleanUp() {
+        expireRam();
+    }
+
+    /**
+     * Return the number of volatile entries removed from RAM because they expired, either when
+     * they were read or by {@link #cleanUp()} and the cache operations.
+     *
+     * @return the number of expired entries removed from RAM.
+     */
+    public long getRamExpirationCount() {
+        return mRamExpirations.get();
+    }
+
+    /**
+     * Return the statistics recorded since the cache was created or
+     * {@link #resetStats()} was called. All of them are zero unless the cache was built with
+     * {@link AbstractBuilder#recordStats()}.
+     *
+     * @return a snapshot of the statistics of the cache.
+     */
+    public CacheStats getStats() {
+        int ramEvictions = mStats.isEnabled() ? ramEvictionCount() - mRamEvictionsAtReset : 0;
+        return mStats.snapshot(ramEvictions);
+    }
+
+    /**
+     * Set all the statistics back to zero.
+     */
+    public void resetStats() {
+        mStats.reset();
+        mRamEvictionsAtReset = ramEvictionCount();
+    }
+
+    /**
+     * @return number of entries evicted by the RAM layer, 0 if it does not count them.
+     */
+    private int ramEvictionCount() {
+        return (mLruCache instanceof EvictionCounter)
+                ? ((EvictionCounter) mLruCache).evictionCount()
+                : 0;
+    }
+
+    /**
+     * Return the object of the corresponding key from the cache. In no object is available,
+     * return null.
+     *
+     * @param key is the key of the object.
+     * @return the object of the corresponding key from the cache. In no object is available,
+     * return null.
+     */
+    @Override
+    public V get(K key) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        return getHashed(key, nKey);
+    }
+    //endregion
+
+    @SuppressWarnings("unchecked")
+    private V removeVolatileEntry(String key, boolean readPrevious) {
+        invalidatePromotions(key);
+        descheduleExpiration(key);
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            VolatileEntry<V> previousEntry = ((VolatileEntry<V>) mLruCache.remove(key));
+            if (previousEntry != null) {
+                previous = previousEntry.getItem();
+            }
+        }
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            byte[] prev = (byte[]) mLruCache.remove(key);
+            if (readPrevious && prev != null) {
+                VolatileEntry<V> prevEntry = mVolatileRamSerializer.fromBytes(prev, 0, prev.length);
+                if (prevEntry.getTimestamp().getTime() < mClock.currentTimeMillis()) {
+                    previous = prevEntry.getItem();
+                }
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            if (mVolatileRamSerializer == mVolatileDiskSerializer || !readPrevious) {
+                mDiskLruCache.delete(key);
+            } else {
+                byte[] prev = mDiskLruCache.remove(key);
+                if (prev != null && mVolatileDiskSerializer.isReadable(prev, 0, prev.length)) {
+                    VolatileEntry<V> prevEntry =
+                            mVolatileDiskSerializer.fromBytes(prev, 0, prev.length);
+                    if (prevEntry.getTimestamp().getTime() < mClock.currentTimeMillis()) {
+                        previous = prevEntry.getItem();
+                    }
+                }
+            }
+        }
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeEntry(String key, boolean readPrevious) {
+        invalidatePromotions(key);
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            previous = (V) mLruCache.remove(key);
+        }
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            byte[] prev = (byte[]) mLruCache.remove(key);
+            if (readPrevious && prev != null) {
+                previous = mRamSerializer.fromBytes(prev, 0, prev.length);
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            if (mVolatileRamSerializer == mVolatileDiskSerializer || !readPrevious) {
+                mDiskLruCache.delete(key);
+            } else {
+                byte[] prev = mDiskLruCache.remove(key);
+                if (prev != null && previous == null) {
+                    previous = mDiskSerializer.fromBytes(prev, 0, prev.length);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Delete the corresponding object in cache. With a write-behind disk layer the removed object
+     * is read from disk in the calling thread if it is neither in RAM nor queued.
+     *
+     * @param key is the key of the object.
+     * @return removed entry or null
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        return removeHashed(nKey, true);
+    }
+
+    /**
+     * Delete the corresponding object in cache. Unlike {@link #remove(Object)} the removed
+     * object is not read or decoded in any layer.
+     *
+     * @param key is the key of the object.
+     */
+    @Override
+    public void delete(K key) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        removeHashed(nKey, false);
+    }
+
+    /**
+     * Used if key is already hashed
+     *
+     * @param key          for the entry
+     * @param readPrevious false to skip reading and decoding the removed entry.
+     * @return removed entry or null
+     */
+    private V removeHashed(String key, boolean readPrevious) {
+        if (mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            return removeVolatileEntry(key, readPrevious);
+        }
+        return removeEntry(key, readPrevious);
+    }
+
+    //region LOAD
+
+    /**
+     * Return the object of the corresponding key from the cache, loading it with the given
+     * loader if it is not cached. Concurrent calls missing the same key share a single load,
+     * and the loaded object is stored in every enabled layer. Keys known to be missing are not
+     * loaded, and with a negative cache a null load is recorded as missing.
+     *
+     * @param key    is the key of the object.
+     * @param loader used to load the object if it is not cached.
+     * @return the object of the corresponding key, or null if the loader returned null.
+     * @throws IllegalStateException wrapping the checked exceptions thrown by the loader, or if
+     *                               the loader asks for the key it is loading.
+     */
+    public V get(K key, CacheLoader<K, V> loader) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (isKnownMissing(nKey)) {
+            return null;
+        }
+        V value = findHashed(key, nKey);
+        if (value != null) {
+            return value;
+        }
+        return load(key, nKey, loader);
+    }
+
+    /**
+     * Load a key sharing the load with any concurrent caller loading the same key.
+     *
+     * @param key    original key, given to the loader.
+     * @param nKey   hashed key.
+     * @param loader used to load the object.
+     * @return loaded object or null.
+     */
+    private V load(final K key, final String nKey, final CacheLoader<K, V> loader) {
+        LoadTask<V> task = new LoadTask<>(new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                Object lookup = (mNegativeCache != null) ? mNegativeCache.startLookup(nKey) : null;
+                try {
+                    // A load for the key may have finished between the miss and this call
+                    V cached = findHashed(key, nKey);
+                    if (cached != null) {
+                        return cached;
+                    }
+                    V loaded = timedLoad(loader, key);
+                    if (loaded != null) {
+                        putHashed(nKey, loaded, false);
+                    } else if (lookup != null) {
+                        mNegativeCache.markMissing(nKey, lookup);
+                    }
+                    return loaded;
+                } finally {
+                    if (lookup != null) {
+                        mNegativeCache.endLookup(nKey, lookup);
+                    }
+                }
+            }
+        });
+
+        while (true) {
+            LoadTask<V> running = mLoads.putIfAbsent(nKey, task);
+            if (running == null) {
+                running = task;
+                try {
+                    task.run();
+                } finally {
+                    mLoads.remove(nKey, task);
+                }
+            } else if (running.isRunBy(Thread.currentThread())) {
+                // Waiting for a load running in this same thread would never return
+                throw new IllegalStateException("Recursive load of " + nKey);
+            }
+
+            try {
+                return running.get();
+            } catch (CancellationException e) {
+                // A background refresh dropped before running, load the key again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + nKey, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException("Unable to load " + nKey, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Load a key recording the result and latency of the load.
+     *
+     * @param loader used to load the object.
+     * @param key    original key, given to the loader.
+     * @return loaded object or null.
+     * @throws Exception thrown by the loader.
+     */
+    private V timedLoad(CacheLoader<K, V> loader, K key) throws Exception {
+        long start = mStats.time();
+        V loaded;
+        try {
+            loaded = loader.load(key);
+        } catch (Exception e) {
+            mStats.recordLoadFailure(start);
+            throw e;
+        }
+        if (loaded != null) {
+            mStats.recordLoadSuccess(start);
+        } else {
+            mStats.recordLoadFailure(start);
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload a key in the refresh executor with the refresh loader, unless a load for the key
+     * is already running. Readers keep getting the current entry until the refresh is stored,
+     * and refreshes dropped by a busy executor are forgotten.
+     *
+     * @param key  original key, given to the loader.
+     * @param nKey hashed key.
+     */
+    private void refresh(final K key, final String nKey) {
+        LoadTask<V> task = new LoadTask<V>(new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                V loaded = timedLoad(mRefreshLoader, key);
+                if (loaded != null) {
+                    putHashed(nKey, loaded, false);
+                }
+                return loaded;
+            }
+        }) {
+            @Override
+            protected void done() {
+                mLoads.remove(nKey, this);
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    mLogger.logError(TAG, e);
+                }
+            }
+        };
+
+        if (mLoads.putIfAbsent(nKey, task) == null) {
+            try {
+                mRefreshExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Release the key and wake up the callers that joined the refresh
+                mLoads.remove(nKey, task);
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Load of a key remembering the thread running it, so a loader asking for its own key can
+     * be told apart from a concurrent caller.
+     */
+    private static class LoadTask<T> extends FutureTask<T> {
+        private volatile Thread mRunner;
+
+        LoadTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            mRunner = Thread.currentThread();
+            try {
+                super.run();
+            } finally {
+                mRunner = null;
+            }
+        }
+
+        boolean isRunBy(Thread thread) {
+            return mRunner == thread;
+        }
+    }
+    //endregion
+
+    //region BULK
+
+    /**
+     * Hash all the given keys keeping a reference to the original ones
+     *
+     * @param keys to hash
+     * @return original keys by hashed key
+     */
+    private Map<String, K> hashAll(Collection<K> keys) {
+        Map<String, K> hashed = new LinkedHashMap<>(keys.size());
+        for (K key : keys) {
+            String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                    ? mHasher.hash(key)
+                    : (String) key;
+            hashed.put(nKey, key);
+        }
+        return hashed;
+    }
+
+    /**
+     * Return the objects of the corresponding keys from the cache. All the keys are looked up
+     * in RAM first and only the missing ones are read from disk in a single batch.
+     *
+     * @param keys are the keys of the objects.
+     * @return found objects by key, keys without object are not included.
+     */
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<String, K> hashed = hashAll(keys);
+        Map<K, V> found = new HashMap<>(hashed.size());
+
+        List<String> ramMisses = new ArrayList<>();
+        Map<String, Long> promotionStamps = new HashMap<>();
+        Map<String, Object> lookups = new HashMap<>();
+        for (Map.Entry<String, K> entry : hashed.entrySet()) {
+            if (isKnownMissing(entry.getKey())) {
+                continue;
+            }
+            Object ramResult = getFromRam(entry.getKey());
+            if (ramResult == null) {
+                recordRamMiss(entry.getKey());
+                ramMisses.add(entry.getKey());
+                promotionStamps.put(entry.getKey(), promotionStamp(entry.getKey()));
+                if (mNegativeCache != null) {
+                    lookups.put(entry.getKey(), mNegativeCache.startLookup(entry.getKey()));
+                }
+                continue;
+            }
+            V value = fromRam(entry.getValue(), entry.getKey(), ramResult);
+            if (value != null) {
+                found.put(entry.getValue(), value);
+            }
+        }
+
+        try {
+            boolean isDiskEnabled =
+                    mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER);
+            Map<String, byte[]> diskResults = Collections.emptyMap();
+            if (!ramMisses.isEmpty() && isDiskEnabled) {
+                diskResults = mDiskLruCache.getAll(ramMisses);
+            }
+            for (Map.Entry<String, byte[]> entry : diskResults.entrySet()) {
+                K key = hashed.get(entry.getKey());
+                V value = fromDisk(key, entry.getKey(), entry.getValue(),
+                        promotionStamps.get(entry.getKey()));
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+
+            for (String nKey : ramMisses) {
+                if (diskResults.containsKey(nKey)) {
+                    continue;
+                }
+                if (isDiskEnabled) {
+                    recordDiskMiss(nKey);
+                }
+                if (mNegativeCache != null) {
+                    mNegativeCache.markMissing(nKey, lookups.get(nKey));
+                }
+            }
+            return found;
+        } finally {
+            for (Map.Entry<String, Object> lookup : lookups.entrySet()) {
+                mNegativeCache.endLookup(lookup.getKey(), lookup.getValue());
+            }
+        }
+    }
+
+    /**
+     * Put all the given objects in the cache. Previous values are neither read nor returned and
+     * disk entries are written in a single batch.
+     *
+     * @param entries  the objects to put in cache by key.
+     * @param lifetime expiration time for volatile entries, 0 means persistence entry
+     */
+    @SuppressWarnings("unchecked")
+    private void putAllHashed(Map<K, V> entries, long lifetime) {
+        boolean isVolatile = mVolatileMode.equals(DualCacheVolatileMode.VOLATILE);
+        boolean isDiskEnabled =
+                mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER);
+        Map<String, byte[]> diskEntries = new HashMap<>(entries.size());
+
+        expireRam();
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                    ? mHasher.hash(entry.getKey())
+                    : (String) entry.getKey();
+            invalidatePromotions(nKey);
+            invalidateMissing(nKey);
+            mListener.onPut(nKey);
+            V object = entry.getValue();
+            VolatileEntry<V> volatileEntry = isVolatile
+                    ? new VolatileEntry<>(lifetime, object)
+                    : null;
+
+            if (isVolatile) {
+                scheduleExpiration(nKey, lifetime);
+            }
+            byte[] ramSerialized = null;
+            if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+                mLruCache.put(nKey, isVolatile ? volatileEntry : object);
+            } else if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+                ramSerialized = isVolatile
+                        ? mVolatileRamSerializer.toBytes(volatileEntry)
+                        : mRamSerializer.toBytes(object);
+                mLruCache.put(nKey, ramSerialized);
+            }
+
+            if (isDiskEnabled) {
+                if (ramSerialized != null && mRamSerializer == mDiskSerializer) {
+                    // Optimization if using same serializer
+                    diskEntries.put(nKey, ramSerialized);
+                } else {
+                    diskEntries.put(nKey, isVolatile
+                            ? mVolatileDiskSerializer.toBytes(volatileEntry)
+                            : mDiskSerializer.toBytes(object));
+                }
+            }
+        }
+
+        if (!diskEntries.isEmpty()) {
+            mDiskLruCache.putAll(diskEntries);
+        }
+    }
+
+    /**
+     * Put all the given objects in cache with the same lifetime if we are in a
+     * {@link DualCacheVolatileMode#VOLATILE} cache
+     *
+     * @param entries   the objects to put in cache by key.
+     * @param entryLife persistence time for given entries, <= 0 means persistence entries
+     */
+    @Override
+    public void putAll(Map<K, V> entries, long entryLife) {
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            throw new UnsupportedOperationException(
+                    "Operation only supported for VOLATILE cache type");
+        }
+        putAllHashed(entries, (entryLife > 0)
+                ? mClock.currentTimeMillis() + entryLife
+                : 0);
+    }
+
+    /**
+     * Put all the given objects in cache.
+     *
+     * @param entries the objects to put in cache by key.
+     */
+    @Override
+    public void putAll(Map<K, V> entries) {
+        if (mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            putAll(entries, mDefaultPersistenceTime);
+        } else {
+            putAllHashed(entries, 0);
+        }
+    }
+
+    /**
+     * Delete the corresponding objects in cache. Removed values are not returned and disk
+     * entries are removed in a single batch.
+     *
+     * @param keys are the keys of the objects.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void removeAll(Collection<K> keys) {
+        Map<String, K> hashed = hashAll(keys);
+        if (!mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            for (String nKey : hashed.keySet()) {
+                invalidatePromotions(nKey);
+                descheduleExpiration(nKey);
+                mLruCache.remove(nKey);
+            }
+        }
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            mDiskLruCache.removeAll(hashed.keySet());
+        }
+    }
+    //endregion
+
+    //region ASYNC
+
+    /**
+     * Run a cache operation in the I/O executor. If the executor rejects it the operation does
+     * not run and the returned future fails, disk work never runs on the calling thread.
+     *
+     * @param operation to run.
+     * @param callback  notified from the I/O thread when the operation ends, or from the calling
+     *                  thread if the executor rejects it. May be null.
+     * @return future result of the operation.
+     */
+    private <T> Future<T> submit(Callable<T> operation, final CacheCallback<T> callback) {
+        FutureTask<T> task = new FutureTask<T>(operation) {
+            @Override
+            protected void done() {
+                if (callback == null) {
+                    return;
+                }
+                T result;
+                try {
+                    result = get();
+                } catch (ExecutionException e) {
+                    callback.onFailure(e.getCause());
+                    return;
+                } catch (CancellationException | InterruptedException e) {
+                    callback.onFailure(e);
+                    return;
+                }
+                callback.onSuccess(result);
+            }
+        };
+        try {
+            mIoExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            if (callback != null) {
+                callback.onFailure(e);
+            }
+            return CompletedFuture.failed(e);
+        }
+        return task;
+    }
+
+    /**
+     * Answer an asynchronous operation resolved on the calling thread.
+     *
+     * @param result   of the operation.
+     * @param callback notified before returning. May be null.
+     * @return already completed future.
+     */
+    private static <T> Future<T> complete(T result, CacheCallback<T> callback) {
+        if (callback != null) {
+            callback.onSuccess(result);
+        }
+        return new CompletedFuture<>(result);
+    }
+
+    /**
+     * Asynchronous version of {@link #get(Object)}. RAM hits are resolved on the calling thread
+     * and returned as an already completed future, any other case, including expired RAM entries
+     * that must be removed from disk, is resolved in the I/O executor.
+     *
+     * @param key is the key of the object.
+     * @return future object of the corresponding key, or null if there is no object.
+     */
+    public Future<V> getAsync(K key) {
+        return getAsync(key, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #get(Object)} notifying the given callback. RAM hits call
+     * back before this method returns, disk reads call back from the I/O thread.
+     *
+     * @param key      is the key of the object.
+     * @param callback receives the object of the key, or null if there is no object.
+     * @return future object of the corresponding key, or null if there is no object.
+     */
+    public Future<V> getAsync(final K key, CacheCallback<V> callback) {
+        final String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        Object ramResult = getFromRam(nKey);
+        if (ramResult != null && !isExpiredInRam(ramResult)) {
+            return complete(fromRam(key, nKey, ramResult), callback);
+        }
+        if (ramResult == null
+                && (mDiskMode.equals(DualCacheDiskMode.DISABLE) || isKnownMissing(nKey))) {
+            return complete(null, callback);
+        }
+        return submit(new Callable<V>() {
+            @Override
+            public V call() {
+                return getHashed(key, nKey);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #put(Object, Object)}.
+     *
+     * @param key    is the key of the object.
+     * @param object is the object to put in cache.
+     * @return future previous object of the key.
+     */
+    public Future<V> putAsync(K key, V object) {
+        return putAsync(key, object, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #put(Object, Object)} notifying the given callback from the
+     * I/O thread.
+     *
+     * @param key      is the key of the object.
+     * @param object   is the object to put in cache.
+     * @param callback receives the previous object of the key.
+     * @return future previous object of the key.
+     */
+    public Future<V> putAsync(final K key, final V object, CacheCallback<V> callback) {
+        return submit(new Callable<V>() {
+            @Override
+            public V call() {
+                return put(key, object);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #put(Object, Object, long)}.
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     * @return future previous object of the key.
+     */
+    public Future<V> putAsync(K key, V object, long entryLife) {
+        return putAsync(key, object, entryLife, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #put(Object, Object, long)} notifying the given callback
+     * from the I/O thread.
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     * @param callback  receives the previous object of the key.
+     * @return future previous object of the key.
+     */
+    public Future<V> putAsync(final K key, final V object, final long entryLife,
+                              CacheCallback<V> callback) {
+        if (!mVolatileMode.equals(DualCacheVolatileMode.VOLATILE)) {
+            throw new UnsupportedOperationException(
+                    "Operation only supported for VOLATILE cache type");
+        }
+        return submit(new Callable<V>() {
+            @Override
+            public V call() {
+                return put(key, object, entryLife);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #remove(Object)}.
+     *
+     * @param key is the key of the object.
+     * @return future removed object.
+     */
+    public Future<V> removeAsync(K key) {
+        return removeAsync(key, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #remove(Object)} notifying the given callback from the I/O
+     * thread.
+     *
+     * @param key      is the key of the object.
+     * @param callback receives the removed object.
+     * @return future removed object.
+     */
+    public Future<V> removeAsync(final K key, CacheCallback<V> callback) {
+        return submit(new Callable<V>() {
+            @Override
+            public V call() {
+                return remove(key);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #contains(Object)}. Keys found in RAM are resolved on the
+     * calling thread and returned as an already completed future.
+     *
+     * @param key is the key of the object.
+     * @return future result of the check.
+     */
+    public Future<Boolean> containsAsync(K key) {
+        return containsAsync(key, null);
+    }
+
+    /**
+     * Asynchronous version of {@link #contains(Object)} notifying the given callback. Keys found
+     * in RAM call back before this method returns, disk checks call back from the I/O thread.
+     *
+     * @param key      is the key of the object.
+     * @param callback receives the result of the check.
+     * @return future result of the check.
+     */
+    @SuppressWarnings("unchecked")
+    public Future<Boolean> containsAsync(K key, CacheCallback<Boolean> callback) {
+        final String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (!mRamMode.equals(DualCacheRamMode.DISABLE) && mLruCache.contains(nKey)) {
+            return complete(true, callback);
+        }
+        if (mDiskMode.equals(DualCacheDiskMode.DISABLE) || isKnownMissing(nKey)) {
+            return complete(false, callback);
+        }
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return mDiskLruCache.contains(nKey);
+            }
+        }, callback);
+    }
+    //endregion
+
+    /**
+     * Wait until all the disk writes queued by a write-behind cache are stored. Does nothing for
+     * other caches.
+     */
+    public void flush() {
+        if (mWriteBehindCache != null) {
+            mWriteBehindCache.flush();
+        }
+    }
+
+    /**
+     * Release the resources of the cache: stop the executors it created once their queued tasks
+     * finish, store all the disk writes queued by a write-behind cache and close the disk layer.
+     * Executors given to the builder are not shut down. The cache can not be used after.
+     */
+    @Override
+    public void close() {
+        if (mOwnsIoExecutor) {
+            shutdown(mIoExecutor);
+        }
+        shutdown(mRefreshExecutor);
+        shutdown(mPromotionExecutor);
+        if (mWriteBehindCache != null) {
+            mWriteBehindCache.close();
+        }
+        if (mDiskStore != null) {
+            try {
+                mDiskStore.close();
+            } catch (IOException e) {
+                mLogger.logError(TAG, e);
+            }
+        }
+    }
+
+    /**
+     * Stop an executor created by the cache, waiting for its queued tasks so they do not reach
+     * a closed disk layer.
+     *
+     * @param executor to stop, may be null.
+     */
+    private void shutdown(Executor executor) {
+        if (!(executor instanceof ExecutorService)) {
+            return;
+        }
+        ExecutorService service = (ExecutorService) executor;
+        service.shutdown();
+        try {
+            service.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Remove all objects from cache (both RAM and disk).
+     */
+    @Override
+    public void clear() {
+        clearDisk();
+        clearRam();
+    }
+
+    /**
+     * Remove all objects from RAM, including keys known to be missing.
+     */
+    public void clearRam() {
+        invalidatePromotions();
+        if (!mRamMode.equals(DualCacheRamMode.DISABLE)) {
+            mLruCache.clear();
+        }
+        if (mExpirationWheel != null) {
+            mExpirationWheel.clear();
+        }
+        if (mNegativeCache != null) {
+            mNegativeCache.clear();
+        }
+    }
+
+    /**
+     * Remove all objects from Disk.
+     */
+    public void clearDisk() {
+        invalidatePromotions();
+        if (!mDiskMode.equals(DualCacheDiskMode.DISABLE)) {
+            mDiskLruCache.clear();
+        }
+    }
+
+    /**
+     * Test if an object is present in cache.
+     *
+     * @param key is the key of the object.
+     * @return true if the object is present in cache, false otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean contains(K key) {
+        String nKey = (mKeyMode.equals(DualCacheKeyMode.HASHED_KEY))
+                ? mHasher.hash(key)
+                : (String) key;
+
+        if (isKnownMissing(nKey)) {
+            return false;
+        }
+        return !mRamMode.equals(DualCacheRamMode.DISABLE) && mLruCache.contains(nKey)
+                || !mDiskMode.equals(DualCacheDiskMode.DISABLE) && mDiskLruCache.contains(nKey);
+    }
+
+}
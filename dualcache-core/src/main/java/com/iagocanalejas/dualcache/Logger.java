@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 Vincent Brison.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.interfaces.CacheEventListener;
+import com.iagocanalejas.dualcache.utils.CacheLog;
+
+/**
+ * This class provide a logging instance to the library, writing through {@link CacheLog}. It is
+ * also the {@link CacheEventListener} logging the cache events when the log is enabled.
+ */
+final class Logger implements CacheEventListener {
+
+    private static final String DEFAULT_LOG_TAG = "DualCache";
+    private final boolean mLogEnabled;
+
+    Logger(boolean logEnabled) {
+        this.mLogEnabled = logEnabled;
+    }
+
+    /**
+     * Default log info using tag {@link #DEFAULT_LOG_TAG}.
+     *
+     * @param tag caller class name.
+     * @param msg the msg to log.
+     */
+    void logInfo(String tag, String msg) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, tag + ": " + msg);
+        }
+    }
+
+    /**
+     * Default log info using tag {@link #DEFAULT_LOG_TAG}.
+     *
+     * @param msg the msg to log.
+     */
+    void logInfo(String msg) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, msg);
+        }
+    }
+
+    /**
+     * Log with level warning and tag {@link #DEFAULT_LOG_TAG}.
+     *
+     * @param tag caller class name.
+     * @param msg the msg to log.
+     */
+    void logWarning(String tag, String msg) {
+        if (mLogEnabled) {
+            CacheLog.warning(DEFAULT_LOG_TAG, tag + ": " + msg);
+        }
+    }
+
+    /**
+     * Log with level error and tag {@link #DEFAULT_LOG_TAG}.
+     *
+     * @param tag   caller class name.
+     * @param error the error to log.
+     */
+    void logError(String tag, Throwable error) {
+        if (mLogEnabled) {
+            CacheLog.error(DEFAULT_LOG_TAG, tag + ": " + error);
+        }
+    }
+
+    /**
+     * Log with level error and tag {@link #DEFAULT_LOG_TAG}.
+     *
+     * @param tag   caller class name.
+     * @param error the error to log.
+     */
+    void logError(String tag, String error) {
+        if (mLogEnabled) {
+            CacheLog.error(DEFAULT_LOG_TAG, tag + ": " + error);
+        }
+    }
+
+    /**
+     * Log a lookup answered by the negative cache.
+     *
+     * @param key known to be missing.
+     */
+    void logEntryForKeyIsMissing(String key) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key + " KNOWN TO BE MISSING.");
+        }
+    }
+
+    @Override
+    public void onHit(String key, Layer layer) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key
+                    + (layer == Layer.RAM ? " IN RAM." : " ON DISK."));
+        }
+    }
+
+    @Override
+    public void onMiss(String key, Layer layer) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key
+                    + (layer == Layer.RAM ? " NOT IN RAM." : " NOT ON DISK."));
+        }
+    }
+
+    @Override
+    public void onPut(String key) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key + " SAVED.");
+        }
+    }
+
+    @Override
+    public void onEvict(String key) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key + " EVICTED FROM RAM.");
+        }
+    }
+
+    @Override
+    public void onExpire(String key, Layer layer) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key
+                    + (layer == Layer.RAM ? " EXPIRED IN RAM." : " EXPIRED ON DISK."));
+        }
+    }
+
+    @Override
+    public void onPromote(String key) {
+        if (mLogEnabled) {
+            CacheLog.info(DEFAULT_LOG_TAG, "ENTRY: " + key + " PROMOTED TO RAM.");
+        }
+    }
+
+}
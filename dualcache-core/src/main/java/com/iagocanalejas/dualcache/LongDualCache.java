@@ -0,0 +1,363 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.caches.CompressedDiskCache;
+import com.iagocanalejas.dualcache.caches.DiskCache;
+import com.iagocanalejas.dualcache.caches.LogDiskCache;
+import com.iagocanalejas.dualcache.caches.LongRamCache;
+import com.iagocanalejas.dualcache.caches.WriteBehindDiskCache;
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+import com.iagocanalejas.dualcache.modes.DualCacheDiskMode;
+import com.iagocanalejas.dualcache.modes.DualCacheRamMode;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Cache keyed by primitive longs, for objects identified by numeric ids. Keys are not boxed nor
+ * hashed: the RAM layer is a {@link LongRamCache} and the disk key of an entry is the hex form of
+ * its id.
+ * <p>
+ * Built with {@link AbstractBuilder#buildLong()}, it supports the same RAM and disk modes as
+ * {@link DualCache} but only persistent entries.
+ *
+ * @param <V> is the Class of object to cache.
+ */
+public class LongDualCache<V> implements Closeable {
+    private static final String TAG = LongDualCache.class.getSimpleName();
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Basic conf
+    private final int mAppVersion;
+    private final Logger mLogger;
+
+    // Disk conf
+    private final DualCacheDiskMode mDiskMode;
+    private BulkCache<String, byte[]> mDiskLruCache;
+    private WriteBehindDiskCache mWriteBehindCache;
+    // Disk layer storing the entries, closed with the cache
+    private Closeable mDiskStore;
+
+    // Ram conf, objects are kept in the first cache with references and in the second one
+    // serialized, only the cache of the RAM mode is created
+    private final LongRamCache<V> mRamReferences;
+    private final LongRamCache<byte[]> mRamBytes;
+    private final DualCacheRamMode mRamMode;
+
+    // Serializers
+    private final ByteSerializer<V> mDiskSerializer;
+    private final ByteSerializer<V> mRamSerializer;
+
+    LongDualCache(int appVersion, Logger logger, DualCacheRamMode ramMode,
+                  ByteSerializer<V> ramSerializer, LongRamCache<V> ramReferences,
+                  LongRamCache<byte[]> ramBytes, DualCacheDiskMode diskMode,
+                  ByteSerializer<V> diskSerializer,
+                  int maxDiskSizeBytes, File diskFolder, boolean logStructuredDisk,
+                  DualCacheCompressionMode compressionMode, int minCompressionSize,
+                  int maxPendingDiskWrites, DualCacheBackPressureMode backPressureMode) {
+
+        this.mAppVersion = appVersion;
+        this.mLogger = logger;
+        this.mRamMode = ramMode;
+        this.mRamSerializer = ramSerializer;
+        this.mRamReferences = ramReferences;
+        this.mRamBytes = ramBytes;
+        this.mDiskMode = diskMode;
+        this.mDiskSerializer = diskSerializer;
+
+        if (diskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            try {
+                if (logStructuredDisk) {
+                    LogDiskCache diskCache =
+                            new LogDiskCache(diskFolder, mAppVersion, maxDiskSizeBytes);
+                    this.mDiskStore = diskCache;
+                    this.mDiskLruCache = diskCache;
+                } else {
+                    DiskCache diskCache = new DiskCache(diskFolder, mAppVersion, maxDiskSizeBytes);
+                    this.mDiskStore = diskCache;
+                    this.mDiskLruCache = diskCache;
+                }
+                if (compressionMode != null) {
+                    this.mDiskLruCache = new CompressedDiskCache(mDiskLruCache,
+                            compressionMode, minCompressionSize);
+                }
+                if (maxPendingDiskWrites > 0) {
+                    this.mWriteBehindCache = new WriteBehindDiskCache(mDiskLruCache,
+                            maxPendingDiskWrites, backPressureMode, diskFolder.getName());
+                    this.mDiskLruCache = mWriteBehindCache;
+                }
+            } catch (IOException e) {
+                mLogger.logError(TAG, e);
+            }
+        }
+    }
+
+    public int getCacheVersion() {
+        return mAppVersion;
+    }
+
+    public long getRamUsedInBytes() {
+        if (mRamReferences != null) {
+            return mRamReferences.size();
+        }
+        return (mRamBytes == null) ? -1 : mRamBytes.size();
+    }
+
+    public long getDiskUsedInBytes() {
+        return (mDiskLruCache == null) ? -1 : mDiskLruCache.size();
+    }
+
+    /**
+     * Return the way objects are cached in RAM layer.
+     *
+     * @return the way objects are cached in RAM layer.
+     */
+    public DualCacheRamMode getRamMode() {
+        return mRamMode;
+    }
+
+    /**
+     * Return the way objects are cached in disk layer.
+     *
+     * @return the way objects are cached in disk layer.
+     */
+    public DualCacheDiskMode getDiskMode() {
+        return mDiskMode;
+    }
+
+    /**
+     * Disk key of an id, its 16 hex digits.
+     *
+     * @param key id of the entry.
+     * @return key valid for the disk layer.
+     */
+    private static String toDiskKey(long key) {
+        char[] chars = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            chars[i] = HEX_DIGITS[(int) key & 0x0f];
+            key >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Put an object in cache.
+     *
+     * @param key    is the key of the object.
+     * @param object is the object to put in cache.
+     * @return previous object or null
+     */
+    public V put(long key, V object) {
+        return putEntry(key, object, true);
+    }
+
+    /**
+     * Put an object in cache. Unlike {@link #put(long, Object)} the previous object is not
+     * read or decoded in any layer.
+     *
+     * @param key    is the key of the object.
+     * @param object is the object to put in cache.
+     */
+    public void set(long key, V object) {
+        putEntry(key, object, false);
+    }
+
+    /**
+     * @param readPrevious false to skip reading and decoding the previous entry.
+     * @return previous entry or null
+     */
+    private V putEntry(long key, V object, boolean readPrevious) {
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            previous = mRamReferences.put(key, object);
+        }
+
+        byte[] ramSerialized = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            ramSerialized = mRamSerializer.toBytes(object);
+            byte[] prev = mRamBytes.put(key, ramSerialized);
+            if (readPrevious && prev != null) {
+                previous = mRamSerializer.fromBytes(prev, 0, prev.length);
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            String diskKey = toDiskKey(key);
+            if (mRamSerializer == mDiskSerializer) {
+                // Optimization if using same serializer
+                mDiskLruCache.set(diskKey, ramSerialized);
+            } else if (!readPrevious || previous != null) {
+                mDiskLruCache.set(diskKey, mDiskSerializer.toBytes(object));
+            } else {
+                byte[] prev = mDiskLruCache.put(diskKey, mDiskSerializer.toBytes(object));
+                if (prev != null) {
+                    previous = mDiskSerializer.fromBytes(prev, 0, prev.length);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Return the object of the corresponding key from the cache, first from RAM and then from
+     * disk, refreshing it in RAM.
+     *
+     * @param key is the key of the object.
+     * @return the object of the corresponding key from the cache, or null.
+     */
+    public V get(long key) {
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            V ramResult = mRamReferences.get(key);
+            if (ramResult != null) {
+                return ramResult;
+            }
+        } else if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            byte[] ramBytes = mRamBytes.get(key);
+            if (ramBytes != null) {
+                return mRamSerializer.fromBytes(ramBytes, 0, ramBytes.length);
+            }
+        }
+
+        if (!mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            return null;
+        }
+        byte[] diskResult = mDiskLruCache.get(toDiskKey(key));
+        if (diskResult == null) {
+            return null;
+        }
+        V objectFromDisk = mDiskSerializer.fromBytes(diskResult, 0, diskResult.length);
+        // Refresh object in ram.
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            mRamReferences.put(key, objectFromDisk);
+        } else if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            mRamBytes.put(key, (mDiskSerializer == mRamSerializer)
+                    ? diskResult
+                    : mRamSerializer.toBytes(objectFromDisk));
+        }
+        return objectFromDisk;
+    }
+
+    /**
+     * Delete the corresponding object in cache.
+     *
+     * @param key is the key of the object.
+     * @return removed object or null
+     */
+    public V remove(long key) {
+        return removeEntry(key, true);
+    }
+
+    /**
+     * Delete the corresponding object in cache. Unlike {@link #remove(long)} the removed
+     * object is not read or decoded in any layer.
+     *
+     * @param key is the key of the object.
+     */
+    public void delete(long key) {
+        removeEntry(key, false);
+    }
+
+    /**
+     * @param readPrevious false to skip reading and decoding the removed entry.
+     * @return removed entry or null
+     */
+    private V removeEntry(long key, boolean readPrevious) {
+        V previous = null;
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_REFERENCE)) {
+            previous = mRamReferences.remove(key);
+        }
+        if (mRamMode.equals(DualCacheRamMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            byte[] prev = mRamBytes.remove(key);
+            if (readPrevious && prev != null) {
+                previous = mRamSerializer.fromBytes(prev, 0, prev.length);
+            }
+        }
+
+        if (mDiskMode.equals(DualCacheDiskMode.ENABLE_WITH_SPECIFIC_SERIALIZER)) {
+            if (!readPrevious || previous != null) {
+                mDiskLruCache.delete(toDiskKey(key));
+            } else {
+                byte[] prev = mDiskLruCache.remove(toDiskKey(key));
+                if (prev != null) {
+                    previous = mDiskSerializer.fromBytes(prev, 0, prev.length);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Test if an object is present in cache.
+     *
+     * @param key is the key of the object.
+     * @return true if the object is present in cache, false otherwise.
+     */
+    public boolean contains(long key) {
+        return mRamReferences != null && mRamReferences.contains(key)
+                || mRamBytes != null && mRamBytes.contains(key)
+                || !mDiskMode.equals(DualCacheDiskMode.DISABLE)
+                && mDiskLruCache.contains(toDiskKey(key));
+    }
+
+    /**
+     * Wait until all the disk writes queued by a write-behind cache are stored. Does nothing for
+     * other caches.
+     */
+    public void flush() {
+        if (mWriteBehindCache != null) {
+            mWriteBehindCache.flush();
+        }
+    }
+
+    /**
+     * Store all the disk writes queued by a write-behind cache, stop its background writer and
+     * close the disk layer. The cache can not be used after.
+     */
+    @Override
+    public void close() {
+        if (mWriteBehindCache != null) {
+            mWriteBehindCache.close();
+        }
+        if (mDiskStore != null) {
+            try {
+                mDiskStore.close();
+            } catch (IOException e) {
+                mLogger.logError(TAG, e);
+            }
+        }
+    }
+
+    /**
+     * Remove all objects from cache (both RAM and disk).
+     */
+    public void clear() {
+        clearDisk();
+        clearRam();
+    }
+
+    /**
+     * Remove all objects from RAM.
+     */
+    public void clearRam() {
+        if (mRamReferences != null) {
+            mRamReferences.clear();
+        }
+        if (mRamBytes != null) {
+            mRamBytes.clear();
+        }
+    }
+
+    /**
+     * Remove all objects from Disk.
+     */
+    public void clearDisk() {
+        if (!mDiskMode.equals(DualCacheDiskMode.DISABLE)) {
+            mDiskLruCache.clear();
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.iagocanalejas.dualcache.caches;
 
+import java.util.Collection;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.Lock;
@@ -22,6 +24,28 @@ class CacheLock {
         mInvalidationReadWriteLock.readLock().unlock();
     }
 
+    /**
+     * Lock a group of entries at once. Keys are locked in natural order so two groups sharing
+     * keys can not deadlock.
+     *
+     * @return the locked keys, to be released with {@link #unLockDiskEntriesWrite}.
+     */
+    Collection<String> lockDiskEntriesWrite(Collection<String> keys) {
+        TreeSet<String> sorted = new TreeSet<>(keys);
+        mInvalidationReadWriteLock.readLock().lock();
+        for (String key : sorted) {
+            getLockForGivenDiskEntry(key).lock();
+        }
+        return sorted;
+    }
+
+    void unLockDiskEntriesWrite(Collection<String> lockedKeys) {
+        for (String key : lockedKeys) {
+            getLockForGivenDiskEntry(key).unlock();
+        }
+        mInvalidationReadWriteLock.readLock().unlock();
+    }
+
     void lockFullDiskWrite() {
         mInvalidationReadWriteLock.writeLock().lock();
     }
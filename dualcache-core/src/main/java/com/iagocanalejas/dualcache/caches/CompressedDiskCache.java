@@ -0,0 +1,264 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+import com.iagocanalejas.dualcache.utils.CacheLog;
+import com.iagocanalejas.dualcache.utils.Lz4;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Disk cache layer compressing the entries before writing them to another disk cache.
+ * <p>
+ * Compressed entries start with a header made of a magic, the codec and the original length, so
+ * entries written with any codec, or not compressed at all, can be read whatever the current
+ * codec is. Entries smaller than the threshold, or that do not get smaller, are written as they
+ * are. Entries that could be confused with a header are written with a header of no codec.
+ * <p>
+ * Entries that can not be decompressed are misses and are deleted when read. {@link #contains}
+ * reads and decodes the entry so it always agrees with {@link #get}.
+ */
+public class CompressedDiskCache implements BulkCache<String, byte[]> {
+    private static final String TAG = CompressedDiskCache.class.getSimpleName();
+
+    // Serialized entries never start with a zero byte followed by this one
+    private static final byte MAGIC_0 = 0;
+    private static final byte MAGIC_1 = (byte) 0xdc;
+    // Magic, codec and original length
+    private static final int HEADER_SIZE = 7;
+
+    private static final byte CODEC_NONE = 0;
+    private static final byte CODEC_DEFLATE = 1;
+    private static final byte CODEC_LZ4 = 2;
+
+    private final BulkCache<String, byte[]> mDiskCache;
+    private final DualCacheCompressionMode mCompressionMode;
+    private final int mMinSize;
+
+    /**
+     * @param diskCache       where the compressed entries are written.
+     * @param compressionMode codec used to write entries.
+     * @param minSize         entries smaller than this number of bytes are not compressed.
+     */
+    public CompressedDiskCache(BulkCache<String, byte[]> diskCache,
+                               DualCacheCompressionMode compressionMode, int minSize) {
+        this.mDiskCache = diskCache;
+        this.mCompressionMode = compressionMode;
+        this.mMinSize = minSize;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return mDiskCache.contains(key) && get(key) != null;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return decodeOrDelete(key, mDiskCache.get(key));
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        return decode(mDiskCache.put(key, encode(value)));
+    }
+
+    @Override
+    public int size() {
+        return mDiskCache.size();
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        return decode(mDiskCache.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        mDiskCache.clear();
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> found = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : mDiskCache.getAll(keys).entrySet()) {
+            byte[] value = decodeOrDelete(entry.getKey(), entry.getValue());
+            if (value != null) {
+                found.put(entry.getKey(), value);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        Map<String, byte[]> encoded = new HashMap<>(entries.size());
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            encoded.put(entry.getKey(), encode(entry.getValue()));
+        }
+        mDiskCache.putAll(encoded);
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        mDiskCache.removeAll(keys);
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        mDiskCache.set(key, encode(value));
+    }
+
+    @Override
+    public void delete(String key) {
+        mDiskCache.delete(key);
+    }
+
+    private byte[] encode(byte[] value) {
+        if (value.length >= mMinSize) {
+            byte[] compressed = null;
+            switch (mCompressionMode) {
+                case DEFLATE:
+                    compressed = deflate(value);
+                    break;
+                case LZ4:
+                    compressed = lz4(value);
+                    break;
+                default:
+                    break;
+            }
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        if (value.length < 2 || value[0] != MAGIC_0 || value[1] != MAGIC_1) {
+            return value;
+        }
+        byte[] result = new byte[HEADER_SIZE + value.length];
+        writeHeader(result, CODEC_NONE, value.length);
+        System.arraycopy(value, 0, result, HEADER_SIZE, value.length);
+        return result;
+    }
+
+    /**
+     * Decode a stored entry, deleting it if it can not be decompressed so it is not read again.
+     *
+     * @return the original entry or null if it is missing or corrupted.
+     */
+    private byte[] decodeOrDelete(String key, byte[] value) {
+        byte[] result = decode(value);
+        if (value != null && result == null) {
+            mDiskCache.delete(key);
+        }
+        return result;
+    }
+
+    /**
+     * @return the original entry or null if it can not be decompressed.
+     */
+    private byte[] decode(byte[] value) {
+        if (value == null || value.length < HEADER_SIZE
+                || value[0] != MAGIC_0 || value[1] != MAGIC_1) {
+            return value;
+        }
+        int length = ((value[3] & 0xff) << 24) | ((value[4] & 0xff) << 16)
+                | ((value[5] & 0xff) << 8) | (value[6] & 0xff);
+        if (length < 0) {
+            CacheLog.error(TAG, "Corrupted compressed entry");
+            return null;
+        }
+        try {
+            switch (value[2]) {
+                case CODEC_NONE:
+                    byte[] result = new byte[value.length - HEADER_SIZE];
+                    System.arraycopy(value, HEADER_SIZE, result, 0, result.length);
+                    return result;
+                case CODEC_DEFLATE:
+                    return inflate(value, length);
+                case CODEC_LZ4:
+                    return Lz4.decompress(value, HEADER_SIZE, value.length - HEADER_SIZE, length);
+                default:
+                    CacheLog.error(TAG, "Unknown codec " + value[2]);
+                    return null;
+            }
+        } catch (IllegalArgumentException | DataFormatException e) {
+            CacheLog.error(TAG, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return compressed entry with header, or null if it does not get smaller.
+     */
+    private static byte[] deflate(byte[] value) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(value);
+            deflater.finish();
+            byte[] buffer = new byte[value.length];
+            int length = HEADER_SIZE;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            writeHeader(buffer, CODEC_DEFLATE, value.length);
+            return trim(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] value, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(value, HEADER_SIZE, value.length - HEADER_SIZE);
+            byte[] result = new byte[length];
+            int read = 0;
+            while (read < length) {
+                int count = inflater.inflate(result, read, length - read);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Truncated deflate entry");
+                }
+                read += count;
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return compressed entry with header, or null if it does not get smaller.
+     */
+    private static byte[] lz4(byte[] value) {
+        byte[] buffer = new byte[HEADER_SIZE + Lz4.maxCompressedLength(value.length)];
+        int length = HEADER_SIZE + Lz4.compress(value, 0, value.length, buffer, HEADER_SIZE);
+        if (length >= value.length) {
+            return null;
+        }
+        writeHeader(buffer, CODEC_LZ4, value.length);
+        return trim(buffer, length);
+    }
+
+    private static void writeHeader(byte[] data, byte codec, int length) {
+        data[0] = MAGIC_0;
+        data[1] = MAGIC_1;
+        data[2] = codec;
+        data[3] = (byte) (length >>> 24);
+        data[4] = (byte) (length >>> 16);
+        data[5] = (byte) (length >>> 8);
+        data[6] = (byte) length;
+    }
+
+    private static byte[] trim(byte[] data, int length) {
+        byte[] result = new byte[length];
+        System.arraycopy(data, 0, result, 0, length);
+        return result;
+    }
+}
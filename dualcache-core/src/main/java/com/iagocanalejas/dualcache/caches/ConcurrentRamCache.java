@@ -0,0 +1,332 @@
+package com.iagocanalejas.dualcache.caches;
+
+
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent LRU cache used for the RAM layer as an alternative to {@link RamCache} and
+ * {@link RamSerializedCache}.
+ * <p>
+ * Entries live in a {@link ConcurrentHashMap} so reads never block. The LRU order is kept in a
+ * linked list guarded by a single eviction lock: reads record the access in one of several
+ * striped ring buffers, which are drained into the list by whoever gets the lock. Writes take
+ * the lock and evict the least recently used entries until the weight fits. Accesses are
+ * dropped while a buffer is full, so under heavy contention the order is approximate.
+ *
+ * @param <T> is the class of object stored in the cache.
+ */
+public class ConcurrentRamCache<T> implements ConditionalCache<String, T>, EvictionCounter {
+
+    private final ConcurrentHashMap<String, Node<T>> mData;
+    private final SizeOf<T> mHandlerSizeOf;
+    private final int mMaxSize;
+
+    private final ReentrantLock mEvictionLock = new ReentrantLock();
+    private final ReadBuffer[] mReadBuffers;
+    // LRU list, guarded by mEvictionLock
+    private Node<T> mHead;
+    private Node<T> mTail;
+    private volatile int mSize;
+    private volatile int mEvictionCount;
+    private volatile EvictionListener mEvictionListener;
+
+    /**
+     * @param handler          computes the size of each object stored in the RAM cache layer.
+     * @param maxSize          maximum sum of the sizes of the entries in this cache.
+     * @param concurrencyLevel expected number of threads reading at the same time.
+     */
+    public ConcurrentRamCache(SizeOf<T> handler, int maxSize, int concurrencyLevel) {
+        mHandlerSizeOf = handler;
+        mMaxSize = maxSize;
+        mData = new ConcurrentHashMap<>(16, 0.75f, concurrencyLevel);
+
+        int buffers = 1;
+        while (buffers < concurrencyLevel) {
+            buffers <<= 1;
+        }
+        mReadBuffers = new ReadBuffer[buffers];
+        for (int i = 0; i < buffers; i++) {
+            mReadBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return mData.containsKey(key);
+    }
+
+    @Override
+    public T get(String key) {
+        Node<T> node = mData.get(key);
+        if (node == null) {
+            return null;
+        }
+        ReadBuffer buffer =
+                mReadBuffers[(int) Thread.currentThread().getId() & (mReadBuffers.length - 1)];
+        if (!buffer.offer(node) && mEvictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                mEvictionLock.unlock();
+            }
+        }
+        return node.mValue;
+    }
+
+    @Override
+    public T peek(String key) {
+        Node<T> node = mData.get(key);
+        return (node != null) ? node.mValue : null;
+    }
+
+    @Override
+    public T put(String key, T value) {
+        Node<T> node = new Node<>(key, value, mHandlerSizeOf.sizeOf(value));
+        if (node.mSize < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+
+        mEvictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<T> previous = mData.put(key, node);
+            int size = mSize + node.mSize;
+            if (previous != null) {
+                unlink(previous);
+                size -= previous.mSize;
+            }
+            linkLast(node);
+            mSize = evict(size);
+            return (previous != null) ? previous.mValue : null;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public T putIfAbsent(String key, T value) {
+        Node<T> node = new Node<>(key, value, mHandlerSizeOf.sizeOf(value));
+        if (node.mSize < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+
+        mEvictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<T> current = mData.putIfAbsent(key, node);
+            if (current != null) {
+                return current.mValue;
+            }
+            linkLast(node);
+            mSize = evict(mSize + node.mSize);
+            return null;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    public T remove(String key) {
+        mEvictionLock.lock();
+        try {
+            Node<T> previous = mData.remove(key);
+            if (previous == null) {
+                return null;
+            }
+            unlink(previous);
+            mSize -= previous.mSize;
+            return previous.mValue;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(String key, T value) {
+        mEvictionLock.lock();
+        try {
+            Node<T> current = mData.get(key);
+            if (current == null || current.mValue != value) {
+                return false;
+            }
+            mData.remove(key, current);
+            unlink(current);
+            mSize -= current.mSize;
+            return true;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        mEvictionLock.lock();
+        try {
+            drainReadBuffers();
+            mData.clear();
+            for (Node<T> node = mHead; node != null; node = node.mNext) {
+                node.mLinked = false;
+            }
+            mHead = null;
+            mTail = null;
+            mSize = 0;
+        } finally {
+            mEvictionLock.unlock();
+        }
+    }
+
+    @Override
+    public int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
+    }
+
+    /**
+     * Remove the least recently used entries until the given size fits in the cache.
+     * Must hold the eviction lock.
+     *
+     * @param size current size of the cache.
+     * @return size after the eviction.
+     */
+    private int evict(int size) {
+        while (size > mMaxSize && mHead != null) {
+            Node<T> victim = mHead;
+            mData.remove(victim.mKey, victim);
+            unlink(victim);
+            size -= victim.mSize;
+            mEvictionCount++;
+            if (mEvictionListener != null) {
+                mEvictionListener.onEviction(victim.mKey);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Move to the tail of the LRU list the nodes read since the last drain.
+     * Must hold the eviction lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void drainReadBuffers() {
+        for (ReadBuffer buffer : mReadBuffers) {
+            Node<?> node;
+            while ((node = buffer.poll()) != null) {
+                // Skip nodes removed or replaced after being read
+                if (node.mLinked) {
+                    unlink((Node<T>) node);
+                    linkLast((Node<T>) node);
+                }
+            }
+        }
+    }
+
+    private void linkLast(Node<T> node) {
+        node.mPrev = mTail;
+        node.mNext = null;
+        if (mTail == null) {
+            mHead = node;
+        } else {
+            mTail.mNext = node;
+        }
+        mTail = node;
+        node.mLinked = true;
+    }
+
+    private void unlink(Node<T> node) {
+        if (!node.mLinked) {
+            return;
+        }
+        if (node.mPrev == null) {
+            mHead = node.mNext;
+        } else {
+            node.mPrev.mNext = node.mNext;
+        }
+        if (node.mNext == null) {
+            mTail = node.mPrev;
+        } else {
+            node.mNext.mPrev = node.mPrev;
+        }
+        node.mPrev = null;
+        node.mNext = null;
+        node.mLinked = false;
+    }
+
+    private static final class Node<T> {
+        final String mKey;
+        final T mValue;
+        final int mSize;
+
+        // Guarded by the eviction lock
+        Node<T> mPrev;
+        Node<T> mNext;
+        boolean mLinked;
+
+        Node(String key, T value, int size) {
+            mKey = key;
+            mValue = value;
+            mSize = size;
+        }
+    }
+
+    /**
+     * Lossy ring buffer of read nodes. Any thread can offer, only the eviction lock holder polls.
+     */
+    private static final class ReadBuffer {
+        private static final int CAPACITY = 16;
+        private static final int MASK = CAPACITY - 1;
+
+        private final AtomicReferenceArray<Node<?>> mNodes = new AtomicReferenceArray<>(CAPACITY);
+        private final AtomicLong mWrites = new AtomicLong();
+        private volatile long mReads;
+
+        /**
+         * @param node read node.
+         * @return false if the buffer is full and the node was dropped.
+         */
+        boolean offer(Node<?> node) {
+            long writes = mWrites.get();
+            if (writes - mReads >= CAPACITY) {
+                return false;
+            }
+            if (mWrites.compareAndSet(writes, writes + 1)) {
+                mNodes.lazySet((int) (writes & MASK), node);
+            }
+            return true;
+        }
+
+        /**
+         * @return next read node or null if there are none, or it is not yet published.
+         */
+        Node<?> poll() {
+            long reads = mReads;
+            if (reads == mWrites.get()) {
+                return null;
+            }
+            int index = (int) (reads & MASK);
+            Node<?> node = mNodes.get(index);
+            if (node == null) {
+                return null;
+            }
+            mNodes.lazySet(index, null);
+            mReads = reads + 1;
+            return node;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.utils.CacheLog;
+import com.jakewharton.disklrucache.DiskLruCache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by Iago on 07/01/2017.
+ */
+public class DiskCache implements BulkCache<String, byte[]>, Closeable {
+    private static final String TAG = DiskCache.class.getSimpleName();
+
+    private static final int VALUES_PER_CACHE_ENTRY = 1;
+
+    private final File mCacheDirectory;
+    private final int mAppVersion;
+    private final long mMaxCacheSize;
+
+    private DiskLruCache mDiskLruCache;
+    private final CacheLock mCacheLock = new CacheLock();
+
+    public DiskCache(File directory, int appVersion, long maxSize) throws IOException {
+        this.mCacheDirectory = directory;
+        this.mAppVersion = appVersion;
+        this.mMaxCacheSize = maxSize;
+
+        this.mDiskLruCache = DiskLruCache.open(mCacheDirectory, this.mAppVersion,
+                VALUES_PER_CACHE_ENTRY, this.mMaxCacheSize);
+
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        try {
+            mCacheLock.lockDiskEntryWrite(key);
+            return read(key);
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockDiskEntryWrite(key);
+        }
+        return null;
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        byte[] previous = null;
+        try {
+            mCacheLock.lockDiskEntryWrite(key);
+            // Find previous entry
+            previous = read(key);
+
+            // Modify entry
+            write(key, value);
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockDiskEntryWrite(key);
+        }
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return (int) mDiskLruCache.size();
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        try {
+            mCacheLock.lockDiskEntryWrite(key);
+            byte[] previous = read(key);
+            if (previous != null) {
+                mDiskLruCache.remove(key);
+                return previous;
+            }
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockDiskEntryWrite(key);
+        }
+        return null;
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        try {
+            mCacheLock.lockDiskEntryWrite(key);
+            write(key, value);
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockDiskEntryWrite(key);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        try {
+            mCacheLock.lockDiskEntryWrite(key);
+            mDiskLruCache.remove(key);
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockDiskEntryWrite(key);
+        }
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> found = new HashMap<>();
+        Collection<String> locked = mCacheLock.lockDiskEntriesWrite(keys);
+        try {
+            for (String key : locked) {
+                try {
+                    byte[] value = read(key);
+                    if (value != null) {
+                        found.put(key, value);
+                    }
+                } catch (IOException e) {
+                    CacheLog.error(TAG, e.getMessage());
+                }
+            }
+        } finally {
+            mCacheLock.unLockDiskEntriesWrite(locked);
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        Collection<String> locked = mCacheLock.lockDiskEntriesWrite(entries.keySet());
+        try {
+            for (String key : locked) {
+                try {
+                    write(key, entries.get(key));
+                } catch (IOException e) {
+                    CacheLog.error(TAG, e.getMessage());
+                }
+            }
+        } finally {
+            mCacheLock.unLockDiskEntriesWrite(locked);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        Collection<String> locked = mCacheLock.lockDiskEntriesWrite(keys);
+        try {
+            for (String key : locked) {
+                try {
+                    mDiskLruCache.remove(key);
+                } catch (IOException e) {
+                    CacheLog.error(TAG, e.getMessage());
+                }
+            }
+        } finally {
+            mCacheLock.unLockDiskEntriesWrite(locked);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            mCacheLock.lockFullDiskWrite();
+            mDiskLruCache.delete();
+            mDiskLruCache = DiskLruCache.open(mCacheDirectory, this.mAppVersion,
+                    VALUES_PER_CACHE_ENTRY, this.mMaxCacheSize);
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockFullDiskWrite();
+        }
+    }
+
+    /**
+     * Close the journal of the cache. The cache can not be used after.
+     */
+    @Override
+    public void close() {
+        try {
+            mCacheLock.lockFullDiskWrite();
+            mDiskLruCache.close();
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        } finally {
+            mCacheLock.unLockFullDiskWrite();
+        }
+    }
+
+    /**
+     * Read the whole value of an entry straight into a byte array of the stored length.
+     * Must be called holding the entry lock.
+     *
+     * @param key of the entry.
+     * @return stored bytes or null.
+     * @throws IOException if the entry can not be read.
+     */
+    private byte[] read(String key) throws IOException {
+        DiskLruCache.Snapshot snapshot = mDiskLruCache.get(key);
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            byte[] data = new byte[(int) snapshot.getLength(0)];
+            InputStream in = snapshot.getInputStream(0);
+            int read = 0;
+            while (read < data.length) {
+                int count = in.read(data, read, data.length - read);
+                if (count < 0) {
+                    throw new IOException("Unexpected end of entry " + key);
+                }
+                read += count;
+            }
+            return data;
+        } finally {
+            snapshot.close();
+        }
+    }
+
+    /**
+     * Write the value of an entry. Must be called holding the entry lock.
+     *
+     * @param key   of the entry.
+     * @param value to store.
+     * @throws IOException if the entry can not be written.
+     */
+    private void write(String key, byte[] value) throws IOException {
+        DiskLruCache.Editor editor = mDiskLruCache.edit(key);
+        if (editor == null) {
+            return;
+        }
+        OutputStream out = null;
+        try {
+            out = editor.newOutputStream(0);
+            out.write(value);
+            out.close();
+            out = null;
+            editor.commit();
+        } finally {
+            if (out != null) {
+                out.close();
+                editor.abort();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,925 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.utils.CacheExecutors;
+import com.iagocanalejas.dualcache.utils.CacheLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Log-structured disk cache layer, an alternative to {@link DiskCache} for many small entries.
+ * <p>
+ * Entries are appended as records to segment files and an in-memory key directory keeps the
+ * segment, offset and length of the last value of each key, so a read is a single positional
+ * read. Removals append tombstones. Once the active segment is full a new one is started.
+ * Segments mostly holding overwritten or removed values are compacted in background by copying
+ * their live records to the active segment. When the segment files exceed the max size the
+ * oldest segment is dropped, so entries are evicted in write order.
+ * <p>
+ * Every time a segment is filled, and on close, the key directory is checkpointed to an index
+ * file, so on open only the records appended after the checkpoint are scanned. Without a valid
+ * checkpoint all the segments are scanned. Every record has a CRC, a record partially written on
+ * a crash ends the scan of its segment.
+ */
+public class LogDiskCache implements BulkCache<String, byte[]>, Closeable {
+    private static final String TAG = LogDiskCache.class.getSimpleName();
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "index.ckp";
+    private static final String CHECKPOINT_TEMP_FILE = "index.ckp.tmp";
+    private static final int MAGIC = 0x44434c47;
+    private static final int CHECKPOINT_MAGIC = 0x44434b50;
+    // Magic and app version
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    // CRC, key length and value length
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int TOMBSTONE = -1;
+    private static final int MIN_SEGMENT_SIZE = 4 * 1024;
+    private static final int MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+    // Segments with less live bytes than this ratio are compacted
+    private static final float COMPACTION_RATIO = 0.5f;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File mDirectory;
+    private final int mAppVersion;
+    private final long mMaxSize;
+    private final long mSegmentSize;
+
+    private final ConcurrentHashMap<String, Location> mKeyDir = new ConcurrentHashMap<>();
+    // Oldest segment first
+    private final ConcurrentSkipListMap<Long, Segment> mSegments = new ConcurrentSkipListMap<>();
+    // Held to append records and update the key directory
+    private final Object mWriteLock = new Object();
+    // Reads hold the read lock so segments are not closed under them
+    private final ReentrantReadWriteLock mSegmentsLock = new ReentrantReadWriteLock();
+    private final ThreadPoolExecutor mMaintenanceExecutor;
+    private final AtomicBoolean mMaintenanceScheduled = new AtomicBoolean();
+    // Held to write or delete the checkpoint, after the write lock if both are needed
+    private final Object mCheckpointLock = new Object();
+
+    // Guarded by mWriteLock
+    private Segment mActive;
+    private long mNextSegmentId = 1;
+    private long mFilesSize;
+    private volatile long mLiveSize;
+    private boolean mClosed;
+    private boolean mCheckpointNeeded;
+    // Guarded by mCheckpointLock, changes when the cache is cleared
+    private int mClearCount;
+
+    /**
+     * @param directory  where the segment files are stored.
+     * @param appVersion cache is cleared if the stored entries were written by another version.
+     * @param maxSize    max number of bytes used by the segment files.
+     * @throws IOException if the segments can not be read or created.
+     */
+    public LogDiskCache(File directory, int appVersion, long maxSize) throws IOException {
+        this.mDirectory = directory;
+        this.mAppVersion = appVersion;
+        this.mMaxSize = maxSize;
+        this.mSegmentSize = Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, maxSize / 4));
+        this.mMaintenanceExecutor =
+                CacheExecutors.newIoExecutor(directory.getName() + "-log", 1, 1);
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can not create " + directory);
+        }
+        synchronized (mWriteLock) {
+            open();
+        }
+        scheduleMaintenance();
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return mKeyDir.containsKey(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Location location = mKeyDir.get(key);
+        return (location != null) ? read(location) : null;
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        byte[] previousValue = null;
+        synchronized (mWriteLock) {
+            try {
+                Location previous = write(key, value);
+                // Values are never overwritten in place, the previous one is still there
+                if (previous != null) {
+                    previousValue = read(previous);
+                }
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+        return previousValue;
+    }
+
+    @Override
+    public int size() {
+        return (int) mLiveSize;
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        byte[] previousValue = null;
+        synchronized (mWriteLock) {
+            try {
+                Location previous = unlink(key);
+                if (previous != null) {
+                    previousValue = read(previous);
+                }
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+        return previousValue;
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mWriteLock) {
+            synchronized (mCheckpointLock) {
+                mClearCount++;
+                new File(mDirectory, CHECKPOINT_FILE).delete();
+            }
+            mSegmentsLock.writeLock().lock();
+            try {
+                for (Segment segment : mSegments.values()) {
+                    deleteSegment(segment);
+                }
+                mSegments.clear();
+                mKeyDir.clear();
+                mFilesSize = 0;
+                mLiveSize = 0;
+                mActive = null;
+                if (!mClosed) {
+                    roll();
+                }
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            } finally {
+                mSegmentsLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        synchronized (mWriteLock) {
+            try {
+                write(key, value);
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+    }
+
+    @Override
+    public void delete(String key) {
+        synchronized (mWriteLock) {
+            try {
+                unlink(key);
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> result = new HashMap<>();
+        for (String key : keys) {
+            byte[] value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        synchronized (mWriteLock) {
+            try {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    write(entry.getKey(), entry.getValue());
+                }
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        synchronized (mWriteLock) {
+            try {
+                for (String key : keys) {
+                    unlink(key);
+                }
+                evictIfNeeded();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+        scheduleMaintenance();
+    }
+
+    /**
+     * Wait for the background maintenance, write the segments to the storage device, checkpoint
+     * the key directory and close the segments. The cache can not be used after.
+     */
+    @Override
+    public void close() {
+        // Stopped first so a compaction does not use closed segments and an older checkpoint
+        // does not replace the one written here
+        mMaintenanceExecutor.shutdown();
+        try {
+            mMaintenanceExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (mWriteLock) {
+            if (mClosed) {
+                return;
+            }
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+            mSegmentsLock.writeLock().lock();
+            try {
+                mClosed = true;
+                for (Segment segment : mSegments.values()) {
+                    segment.mChannel.close();
+                }
+                mSegments.clear();
+                mKeyDir.clear();
+                mActive = null;
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            } finally {
+                mSegmentsLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Rebuild the key directory from the checkpoint and the segment files, deleting them if they
+     * were written by another app version. Must hold the write lock.
+     */
+    private void open() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        ids.add(Long.parseLong(
+                                name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        Collections.sort(ids);
+
+        for (long id : ids) {
+            Segment segment = openSegment(id);
+            mSegments.put(id, segment);
+            mNextSegmentId = id + 1;
+            segment.mSize = segment.mChannel.size();
+            if (!hasValidHeader(segment)) {
+                // Written by another version, start from scratch
+                for (long other : ids) {
+                    Segment opened = mSegments.remove(other);
+                    if (opened != null) {
+                        deleteSegment(opened);
+                    } else {
+                        new File(mDirectory, other + SEGMENT_SUFFIX).delete();
+                    }
+                }
+                new File(mDirectory, CHECKPOINT_FILE).delete();
+                break;
+            }
+        }
+
+        long[] checkpoint = loadCheckpoint();
+        for (Segment segment : mSegments.values()) {
+            if (checkpoint == null || segment.mId > checkpoint[0]) {
+                scan(segment, SEGMENT_HEADER_SIZE);
+            } else if (segment.mId == checkpoint[0]) {
+                scan(segment, checkpoint[1]);
+            }
+            mFilesSize += segment.mSize;
+        }
+        roll();
+        evictIfNeeded();
+    }
+
+    /**
+     * Fill the key directory with the last checkpoint if it is valid for the current segments.
+     * Must hold the write lock.
+     *
+     * @return id of the active segment and its size when the checkpoint was taken, or null if
+     * there is no valid checkpoint.
+     */
+    private long[] loadCheckpoint() {
+        File file = new File(mDirectory, CHECKPOINT_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        CRC32 checksum = new CRC32();
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new CheckedInputStream(
+                    new BufferedInputStream(new FileInputStream(file)), checksum));
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != mAppVersion) {
+                return null;
+            }
+            long segmentId = in.readLong();
+            long position = in.readLong();
+            Segment active = mSegments.get(segmentId);
+            if (active != null && active.mSize < position) {
+                return null;
+            }
+
+            Map<String, Location> entries = new HashMap<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int keyLength = in.readInt();
+                if (keyLength < 0 || keyLength > file.length()) {
+                    return null;
+                }
+                byte[] key = new byte[keyLength];
+                in.readFully(key);
+                Location location = new Location(in.readLong(), in.readLong(), in.readInt(),
+                        in.readInt());
+                Segment segment = mSegments.get(location.mSegment);
+                if (segment == null) {
+                    // Evicted or compacted after the checkpoint
+                    continue;
+                }
+                if (location.mOffset + location.mLength > segment.mSize) {
+                    return null;
+                }
+                entries.put(new String(key, UTF_8), location);
+            }
+            long expected = checksum.getValue();
+            if (in.readLong() != expected) {
+                return null;
+            }
+
+            for (Location location : entries.values()) {
+                mSegments.get(location.mSegment).mLiveSize += location.mRecordSize;
+                mLiveSize += location.mRecordSize;
+            }
+            mKeyDir.putAll(entries);
+            return new long[]{segmentId, position};
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Write the key directory to the checkpoint file, replacing the previous one.
+     */
+    private void checkpoint() throws IOException {
+        Map<String, Location> entries;
+        List<Segment> segments;
+        long segmentId;
+        long position;
+        int clearCount;
+        synchronized (mWriteLock) {
+            if (mClosed) {
+                return;
+            }
+            mCheckpointNeeded = false;
+            entries = new HashMap<>(mKeyDir);
+            segments = new ArrayList<>(mSegments.values());
+            segmentId = mActive.mId;
+            position = mActive.mSize;
+            synchronized (mCheckpointLock) {
+                clearCount = mClearCount;
+            }
+        }
+
+        synchronized (mCheckpointLock) {
+            if (clearCount != mClearCount) {
+                return;
+            }
+            // Records referenced by the checkpoint must be stored before it
+            mSegmentsLock.readLock().lock();
+            try {
+                for (Segment segment : segments) {
+                    if (mSegments.get(segment.mId) == segment) {
+                        segment.mChannel.force(false);
+                    }
+                }
+            } finally {
+                mSegmentsLock.readLock().unlock();
+            }
+
+            File temp = new File(mDirectory, CHECKPOINT_TEMP_FILE);
+            FileOutputStream file = new FileOutputStream(temp);
+            CRC32 checksum = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(file), checksum));
+            try {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(mAppVersion);
+                out.writeLong(segmentId);
+                out.writeLong(position);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Location> entry : entries.entrySet()) {
+                    byte[] key = entry.getKey().getBytes(UTF_8);
+                    Location location = entry.getValue();
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeLong(location.mSegment);
+                    out.writeLong(location.mOffset);
+                    out.writeInt(location.mLength);
+                    out.writeInt(location.mRecordSize);
+                }
+                out.writeLong(checksum.getValue());
+                out.flush();
+                file.getFD().sync();
+            } finally {
+                closeQuietly(out);
+            }
+            if (!temp.renameTo(new File(mDirectory, CHECKPOINT_FILE))) {
+                throw new IOException("Can not write checkpoint in " + mDirectory);
+            }
+        }
+    }
+
+    /**
+     * Replay the records of a segment into the key directory. A record that can not be read
+     * ends the segment, which is truncated there.
+     *
+     * @param position of the first record to replay.
+     */
+    private void scan(Segment segment, long position) throws IOException {
+        long fileSize = segment.mSize;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_HEADER_SIZE <= fileSize) {
+            header.clear();
+            readFully(segment.mChannel, header, position);
+            int crc = header.getInt(0);
+            int keyLength = header.getInt(4);
+            int valueLength = header.getInt(8);
+            long recordSize = RECORD_HEADER_SIZE + (long) keyLength + Math.max(0, valueLength);
+            if (keyLength < 0 || valueLength < TOMBSTONE || position + recordSize > fileSize) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+            readFully(segment.mChannel, record, position);
+            CRC32 checksum = new CRC32();
+            checksum.update(record.array(), 4, (int) recordSize - 4);
+            if ((int) checksum.getValue() != crc) {
+                break;
+            }
+
+            String key = new String(record.array(), RECORD_HEADER_SIZE, keyLength, UTF_8);
+            Location previous;
+            if (valueLength == TOMBSTONE) {
+                previous = mKeyDir.remove(key);
+            } else {
+                Location location = new Location(segment.mId,
+                        position + RECORD_HEADER_SIZE + keyLength, valueLength, (int) recordSize);
+                previous = mKeyDir.put(key, location);
+                segment.mLiveSize += recordSize;
+                mLiveSize += recordSize;
+            }
+            if (previous != null) {
+                release(previous);
+            }
+            position += recordSize;
+        }
+        if (position < fileSize) {
+            CacheLog.error(TAG, "Truncating corrupted segment " + segment.mFile);
+            segment.mChannel.truncate(position);
+        }
+        segment.mSize = position;
+    }
+
+    /**
+     * Append a value and point the key to it. Must hold the write lock.
+     *
+     * @return previous location of the key or null.
+     */
+    private Location write(String key, byte[] value) throws IOException {
+        Location location = append(key, value);
+        Location previous = mKeyDir.put(key, location);
+        mActive.mLiveSize += location.mRecordSize;
+        mLiveSize += location.mRecordSize;
+        if (previous != null) {
+            release(previous);
+        }
+        return previous;
+    }
+
+    /**
+     * Append a tombstone if the key exists. Must hold the write lock.
+     *
+     * @return previous location of the key or null.
+     */
+    private Location unlink(String key) throws IOException {
+        Location previous = mKeyDir.remove(key);
+        if (previous != null) {
+            append(key, null);
+            release(previous);
+        }
+        return previous;
+    }
+
+    /**
+     * Append a record to the active segment, rolling it if full. Must hold the write lock.
+     *
+     * @param value to append or null for a tombstone.
+     * @return location of the value.
+     */
+    private Location append(String key, byte[] value) throws IOException {
+        if (mClosed) {
+            throw new IOException("Cache is closed");
+        }
+        byte[] keyBytes = key.getBytes(UTF_8);
+        int valueLength = (value != null) ? value.length : TOMBSTONE;
+        int recordSize = RECORD_HEADER_SIZE + keyBytes.length + Math.max(0, valueLength);
+        if (mActive.mSize + recordSize > mSegmentSize && mActive.mSize > SEGMENT_HEADER_SIZE) {
+            roll();
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(recordSize);
+        record.putInt(0).putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(record.array(), 4, recordSize - 4);
+        record.putInt(0, (int) checksum.getValue());
+        record.flip();
+
+        long position = mActive.mSize;
+        writeFully(mActive.mChannel, record, position);
+        mActive.mSize += recordSize;
+        mFilesSize += recordSize;
+        return new Location(mActive.mId, position + RECORD_HEADER_SIZE + keyBytes.length,
+                valueLength, recordSize);
+    }
+
+    /**
+     * Account a value that is not live anymore. Must hold the write lock.
+     */
+    private void release(Location location) {
+        Segment segment = mSegments.get(location.mSegment);
+        if (segment != null) {
+            segment.mLiveSize -= location.mRecordSize;
+        }
+        mLiveSize -= location.mRecordSize;
+    }
+
+    /**
+     * Start a new active segment. Must hold the write lock.
+     */
+    private void roll() throws IOException {
+        // Ids are never reused, so locations of deleted segments can not point to new ones
+        long id = mNextSegmentId++;
+        Segment segment = openSegment(id);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(mAppVersion).flip();
+        writeFully(segment.mChannel, header, 0);
+        segment.mChannel.truncate(SEGMENT_HEADER_SIZE);
+        segment.mSize = SEGMENT_HEADER_SIZE;
+        mFilesSize += SEGMENT_HEADER_SIZE;
+        mSegments.put(id, segment);
+        mActive = segment;
+        mCheckpointNeeded = true;
+    }
+
+    /**
+     * Drop the oldest segments while the files are bigger than the max size. Must hold the
+     * write lock.
+     */
+    private void evictIfNeeded() throws IOException {
+        while (mFilesSize > mMaxSize) {
+            Segment oldest = mSegments.firstEntry().getValue();
+            if (oldest == mActive) {
+                if (oldest.mSize == SEGMENT_HEADER_SIZE) {
+                    return;
+                }
+                roll();
+            }
+            if (isSparse(oldest)) {
+                // Keep its few live entries instead of evicting them
+                compact(oldest);
+            }
+            if (mSegments.get(oldest.mId) == oldest) {
+                dropSegment(oldest, true);
+            }
+        }
+    }
+
+    /**
+     * Remove a segment and every key pointing to it. Must hold the write lock.
+     *
+     * @param evict false if no key should be pointing to the segment.
+     */
+    private void dropSegment(Segment segment, boolean evict) {
+        if (evict && segment.mLiveSize > 0) {
+            for (Map.Entry<String, Location> entry : mKeyDir.entrySet()) {
+                if (entry.getValue().mSegment == segment.mId
+                        && mKeyDir.remove(entry.getKey(), entry.getValue())) {
+                    mLiveSize -= entry.getValue().mRecordSize;
+                }
+            }
+        }
+        mSegmentsLock.writeLock().lock();
+        try {
+            mSegments.remove(segment.mId);
+            mFilesSize -= segment.mSize;
+            deleteSegment(segment);
+        } finally {
+            mSegmentsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compact in background if the dead records could fill at least a segment, and checkpoint
+     * if a segment was filled.
+     */
+    private void scheduleMaintenance() {
+        synchronized (mWriteLock) {
+            if (mClosed || (!mCheckpointNeeded && mFilesSize - mLiveSize < mSegmentSize)) {
+                return;
+            }
+        }
+        if (!mMaintenanceScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            mMaintenanceExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    mMaintenanceScheduled.set(false);
+                    compact();
+                    try {
+                        boolean checkpointNeeded;
+                        synchronized (mWriteLock) {
+                            checkpointNeeded = mCheckpointNeeded;
+                        }
+                        if (checkpointNeeded) {
+                            checkpoint();
+                        }
+                    } catch (IOException e) {
+                        CacheLog.error(TAG, e.getMessage());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closing, the maintenance is done by close
+            mMaintenanceScheduled.set(false);
+        }
+    }
+
+    /**
+     * Copy the live records of the sparse segments to the active one and delete them.
+     */
+    private void compact() {
+        for (Segment segment : mSegments.values()) {
+            synchronized (mWriteLock) {
+                if (mClosed || segment == mActive || mSegments.get(segment.mId) != segment
+                        || !isSparse(segment)) {
+                    continue;
+                }
+            }
+            try {
+                compact(segment);
+            } catch (IOException e) {
+                CacheLog.error(TAG, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Must hold the write lock.
+     */
+    private boolean isSparse(Segment segment) {
+        return segment.mLiveSize <= (segment.mSize - SEGMENT_HEADER_SIZE) * COMPACTION_RATIO;
+    }
+
+    /**
+     * Copy the live records of a segment to the active one, deleting the segment if all of
+     * them are copied.
+     */
+    private void compact(Segment segment) throws IOException {
+        long position = SEGMENT_HEADER_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position < segment.mSize) {
+            header.clear();
+            mSegmentsLock.readLock().lock();
+            try {
+                if (mSegments.get(segment.mId) != segment) {
+                    // Evicted or cleared meanwhile
+                    return;
+                }
+                readFully(segment.mChannel, header, position);
+            } finally {
+                mSegmentsLock.readLock().unlock();
+            }
+            int keyLength = header.getInt(4);
+            int valueLength = header.getInt(8);
+            byte[] keyBytes = readBytes(segment, position + RECORD_HEADER_SIZE, keyLength);
+            if (keyBytes == null) {
+                return;
+            }
+            String key = new String(keyBytes, UTF_8);
+            long valueOffset = position + RECORD_HEADER_SIZE + keyLength;
+            position = valueOffset + Math.max(0, valueLength);
+
+            Location current = mKeyDir.get(key);
+            if (valueLength == TOMBSTONE) {
+                synchronized (mWriteLock) {
+                    // Keep it while older segments may hold a value for the key
+                    if (mKeyDir.get(key) == null && mSegments.firstKey() < segment.mId) {
+                        append(key, null);
+                    }
+                }
+            } else if (current != null && current.mSegment == segment.mId
+                    && current.mOffset == valueOffset) {
+                byte[] value = readBytes(segment, valueOffset, valueLength);
+                synchronized (mWriteLock) {
+                    if (value != null && mKeyDir.get(key) == current) {
+                        write(key, value);
+                    }
+                }
+            }
+        }
+
+        synchronized (mWriteLock) {
+            if (segment.mLiveSize == 0 && mSegments.containsKey(segment.mId)) {
+                dropSegment(segment, false);
+            }
+        }
+    }
+
+    private byte[] read(Location location) {
+        Segment segment = mSegments.get(location.mSegment);
+        return (segment != null) ? readBytes(segment, location.mOffset, location.mLength) : null;
+    }
+
+    /**
+     * @return the bytes or null if the segment is deleted or can not be read.
+     */
+    private byte[] readBytes(Segment segment, long position, int length) {
+        mSegmentsLock.readLock().lock();
+        try {
+            if (mSegments.get(segment.mId) != segment) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            readFully(segment.mChannel, ByteBuffer.wrap(bytes), position);
+            return bytes;
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+            return null;
+        } finally {
+            mSegmentsLock.readLock().unlock();
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        File file = new File(mDirectory, id + SEGMENT_SUFFIX);
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        return new Segment(id, file, channel);
+    }
+
+    private boolean hasValidHeader(Segment segment) throws IOException {
+        if (segment.mChannel.size() < SEGMENT_HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        readFully(segment.mChannel, header, 0);
+        return header.getInt(0) == MAGIC && header.getInt(4) == mAppVersion;
+    }
+
+    private void deleteSegment(Segment segment) {
+        try {
+            segment.mChannel.close();
+        } catch (IOException e) {
+            CacheLog.error(TAG, e.getMessage());
+        }
+        if (!segment.mFile.delete()) {
+            CacheLog.error(TAG, "Can not delete " + segment.mFile);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static final class Segment {
+        final long mId;
+        final File mFile;
+        final FileChannel mChannel;
+
+        // Guarded by the write lock
+        long mSize;
+        long mLiveSize;
+
+        Segment(long id, File file, FileChannel channel) {
+            mId = id;
+            mFile = file;
+            mChannel = channel;
+        }
+    }
+
+    /**
+     * Position of the last value of a key.
+     */
+    private static final class Location {
+        final long mSegment;
+        final long mOffset;
+        final int mLength;
+        final int mRecordSize;
+
+        Location(long segment, long offset, int length, int recordSize) {
+            mSegment = segment;
+            mOffset = offset;
+            mLength = length;
+            mRecordSize = recordSize;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+/**
+ * RAM cache layer keyed by primitive longs, so lookups neither box the key nor turn it into a
+ * String.
+ * <p>
+ * Entries are stored in an open addressing table with linear probing, kept at most half full,
+ * and removed with backward shifting so there are no tombstones. When the size goes over the
+ * maximum, entries are evicted with the CLOCK algorithm: a hand sweeps the table giving a second
+ * chance to the entries read since it last passed by, which approximates LRU without keeping an
+ * access order.
+ * <p>
+ * Entries bigger than the maximum size are not stored. All the methods are synchronized.
+ *
+ * @param <T> is the class of object stored in the cache.
+ */
+public class LongRamCache<T> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final SizeOf<T> mHandlerSizeOf;
+    private final int mMaxSize;
+
+    private long[] mKeys;
+    // Null for empty slots
+    private Object[] mValues;
+    private int[] mSizes;
+    private boolean[] mReferenced;
+    private int mMask;
+    private int mCount;
+    private int mSize;
+    private int mHand;
+
+    /**
+     * @param handler computes the size of each object stored in the RAM cache layer.
+     * @param maxSize maximum sum of the sizes of the entries in this cache.
+     */
+    public LongRamCache(SizeOf<T> handler, int maxSize) {
+        mHandlerSizeOf = handler;
+        mMaxSize = maxSize;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public synchronized boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized T get(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        mReferenced[index] = true;
+        return (T) mValues[index];
+    }
+
+    /**
+     * @return previous value of the key or null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T put(long key, T value) {
+        int size = mHandlerSizeOf.sizeOf(value);
+        if (size < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        int index = indexOf(key);
+        T previous = null;
+        if (index >= 0) {
+            previous = (T) mValues[index];
+            removeAt(index);
+        }
+        if (size > mMaxSize) {
+            return previous;
+        }
+
+        if ((mCount + 1) * 2 > mValues.length) {
+            grow();
+        }
+        index = slotOf(key);
+        while (mValues[index] != null) {
+            index = (index + 1) & mMask;
+        }
+        mKeys[index] = key;
+        mValues[index] = value;
+        mSizes[index] = size;
+        // New entries survive the first pass of the hand
+        mReferenced[index] = true;
+        mCount++;
+        mSize += size;
+
+        evictIfNeeded();
+        return previous;
+    }
+
+    /**
+     * @return removed value or null.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        T value = (T) mValues[index];
+        removeAt(index);
+        return value;
+    }
+
+    /**
+     * @return the sum of the sizes of the entries in this cache.
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+
+    public synchronized void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return slot where the key is stored, or -1.
+     */
+    private int indexOf(long key) {
+        int index = slotOf(key);
+        while (mValues[index] != null) {
+            if (mKeys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * @return first slot to probe for the key.
+     */
+    private int slotOf(long key) {
+        // Murmur3 finalizer, sequential ids would cluster otherwise
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mMask;
+    }
+
+    /**
+     * Empty a slot moving back the following entries of the probe sequence that can not be
+     * found anymore.
+     */
+    private void removeAt(int index) {
+        mCount--;
+        mSize -= mSizes[index];
+
+        int hole = index;
+        int next = (index + 1) & mMask;
+        while (mValues[next] != null) {
+            int slot = slotOf(mKeys[next]);
+            // The entry can fill the hole if its slot is not between the hole and itself
+            boolean movable = (hole <= next)
+                    ? (slot <= hole || slot > next)
+                    : (slot <= hole && slot > next);
+            if (movable) {
+                mKeys[hole] = mKeys[next];
+                mValues[hole] = mValues[next];
+                mSizes[hole] = mSizes[next];
+                mReferenced[hole] = mReferenced[next];
+                hole = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mValues[hole] = null;
+        mReferenced[hole] = false;
+    }
+
+    private void evictIfNeeded() {
+        while (mSize > mMaxSize && mCount > 0) {
+            if (mValues[mHand] != null && !mReferenced[mHand]) {
+                // The slot may get a shifted entry, check it again
+                removeAt(mHand);
+                continue;
+            }
+            mReferenced[mHand] = false;
+            mHand = (mHand + 1) & mMask;
+        }
+    }
+
+    /**
+     * Create an empty table of the given capacity.
+     */
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mSizes = new int[capacity];
+        mReferenced = new boolean[capacity];
+        mMask = capacity - 1;
+        mHand = 0;
+        mCount = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Double the capacity of the table moving the entries to it.
+     */
+    private void grow() {
+        long[] keys = mKeys;
+        Object[] values = mValues;
+        int[] sizes = mSizes;
+        boolean[] referenced = mReferenced;
+        int count = mCount;
+        int size = mSize;
+
+        allocate(values.length * 2);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                int index = slotOf(keys[i]);
+                while (mValues[index] != null) {
+                    index = (index + 1) & mMask;
+                }
+                mKeys[index] = keys[i];
+                mValues[index] = values[i];
+                mSizes[index] = sizes[i];
+                mReferenced[index] = referenced[i];
+            }
+        }
+        mCount = count;
+        mSize = size;
+    }
+}
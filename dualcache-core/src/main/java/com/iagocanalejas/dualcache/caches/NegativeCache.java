@@ -0,0 +1,145 @@
+package com.iagocanalejas.dualcache.caches;
+
+
+import com.iagocanalejas.dualcache.utils.LruCache;
+
+import java.util.Calendar;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * LRU cache of keys known to be missing, used to answer repeated lookups of absent keys from
+ * RAM. Each entry stores its expiration time and the cache has its own entry budget.
+ * <p>
+ * Missing keys are also kept in a concurrent map, so checking or invalidating a key that is not
+ * missing never takes the LRU lock. A miss is only recorded if no write of the key started
+ * while it was looked up, see {@link #startLookup(String)}.
+ */
+public class NegativeCache extends LruCache<String, NegativeCache.Mark> {
+
+    private final long mEntryLife;
+    // Recorded missing keys, the LRU only orders and bounds them
+    private final ConcurrentMap<String, Mark> mMarks = new ConcurrentHashMap<>();
+    // Lookups in progress by key, writes remove them so their misses are not recorded
+    private final ConcurrentMap<String, Object> mLookups = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxEntries max number of missing keys kept.
+     * @param entryLife  time in milliseconds a key is known to be missing.
+     */
+    public NegativeCache(int maxEntries, long entryLife) {
+        super(maxEntries);
+        mEntryLife = entryLife;
+    }
+
+    /**
+     * Start looking up a key, so a miss is only recorded if the key is not written meanwhile.
+     * Every lookup must be finished with {@link #markMissing(String, Object)} or
+     * {@link #endLookup(String, Object)}.
+     *
+     * @param key to look up.
+     * @return the lookup, to be given to {@link #markMissing(String, Object)}.
+     */
+    public Object startLookup(String key) {
+        Object lookup = new Object();
+        mLookups.put(key, lookup);
+        return lookup;
+    }
+
+    /**
+     * Finish a lookup without recording a miss.
+     *
+     * @param key    looked up.
+     * @param lookup returned by {@link #startLookup(String)}.
+     */
+    public void endLookup(String key, Object lookup) {
+        mLookups.remove(key, lookup);
+    }
+
+    /**
+     * @param key to check.
+     * @return true if the key is known to be missing.
+     */
+    public boolean isMissing(String key) {
+        Mark mark = mMarks.get(key);
+        if (mark == null || !mark.mConfirmed) {
+            return false;
+        }
+        if (mark.mExpiration < Calendar.getInstance().getTimeInMillis()) {
+            forget(key, mark);
+            return false;
+        }
+        // Keep recently missed keys
+        get(key);
+        return true;
+    }
+
+    /**
+     * Record a key as missing and finish its lookup, unless the key was invalidated since the
+     * lookup started.
+     *
+     * @param key    missing key.
+     * @param lookup returned by {@link #startLookup(String)} before looking up the key.
+     */
+    public void markMissing(String key, Object lookup) {
+        Mark mark = new Mark(Calendar.getInstance().getTimeInMillis() + mEntryLife);
+        mMarks.put(key, mark);
+        put(key, mark);
+        // Only confirmed once stored, an invalidation either removed the lookup before or
+        // finds the mark after
+        if (mLookups.remove(key, lookup)) {
+            mark.mConfirmed = true;
+        } else {
+            forget(key, mark);
+        }
+    }
+
+    /**
+     * Forget a missing key, called when the key is written.
+     *
+     * @param key written key.
+     */
+    public void invalidate(String key) {
+        mLookups.remove(key);
+        Mark mark = mMarks.remove(key);
+        if (mark != null) {
+            remove(key, mark);
+        }
+    }
+
+    /**
+     * Forget all the missing keys.
+     */
+    public void clear() {
+        mLookups.clear();
+        mMarks.clear();
+        evictAll();
+    }
+
+    @Override
+    protected void entryRemoved(boolean evicted, String key, Mark oldValue, Mark newValue) {
+        if (evicted) {
+            mMarks.remove(key, oldValue);
+        }
+    }
+
+    /**
+     * Remove a mark only if it is still the stored one.
+     */
+    private void forget(String key, Mark mark) {
+        mMarks.remove(key, mark);
+        remove(key, mark);
+    }
+
+    /**
+     * Expiration of a missing key, compared by identity.
+     */
+    static final class Mark {
+        final long mExpiration;
+        volatile boolean mConfirmed;
+
+        Mark(long expiration) {
+            this.mExpiration = expiration;
+        }
+    }
+}
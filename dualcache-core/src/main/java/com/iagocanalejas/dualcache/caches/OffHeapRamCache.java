@@ -0,0 +1,372 @@
+package com.iagocanalejas.dualcache.caches;
+
+
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RAM cache layer storing serialized entries outside of the Java heap, as an alternative to
+ * {@link RamSerializedCache} for big RAM sizes.
+ * <p>
+ * Memory is allocated in slabs of direct {@link ByteBuffer}s. Every slab belongs to a size class
+ * and is split in chunks of that size, an entry is stored in a chunk of the smallest class it
+ * fits in. The size of the cache is the sum of the chunks in use. When a class has no free chunk
+ * and no more slabs can be allocated, the least recently used entry of the class is evicted, or,
+ * if the class has no entries, a slab of the class with most slabs is emptied and reassigned.
+ * <p>
+ * Entries bigger than a slab are not stored. All the methods are synchronized. Values are copied
+ * in and out of the slabs, so {@link #remove(String, byte[])} compares them by content.
+ */
+public class OffHeapRamCache implements ConditionalCache<String, byte[]>, EvictionCounter {
+
+    private static final int MAX_SLAB_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+    private static final float CHUNK_GROWTH_FACTOR = 1.25f;
+
+    private final int mSlabSize;
+    private final int mMaxSlabs;
+    private final int[] mChunkSizes;
+    private final List<Slab> mSlabs = new ArrayList<>();
+    private final SizeClass[] mClasses;
+    private final HashMap<String, Chunk> mIndex = new HashMap<>();
+    private int mSize;
+    private int mEvictionCount;
+    private EvictionListener mEvictionListener;
+
+    /**
+     * @param maxSize maximum amount of memory in bytes allocated for the slabs.
+     */
+    public OffHeapRamCache(int maxSize) {
+        mSlabSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_SLAB_SIZE, maxSize));
+        mMaxSlabs = Math.max(1, maxSize / mSlabSize);
+
+        List<Integer> sizes = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size < mSlabSize) {
+            sizes.add(size);
+            // Chunk sizes are multiple of 8
+            size = ((int) (size * CHUNK_GROWTH_FACTOR) + 7) & ~7;
+        }
+        sizes.add(mSlabSize);
+
+        mChunkSizes = new int[sizes.size()];
+        mClasses = new SizeClass[sizes.size()];
+        for (int i = 0; i < mChunkSizes.length; i++) {
+            mChunkSizes[i] = sizes.get(i);
+            mClasses[i] = new SizeClass();
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mIndex.containsKey(key);
+    }
+
+    @Override
+    public synchronized byte[] get(String key) {
+        Chunk chunk = mIndex.get(key);
+        if (chunk == null) {
+            return null;
+        }
+        // Mark as recently used
+        mClasses[chunk.mSizeClass].mEntries.get(key);
+        return read(chunk);
+    }
+
+    @Override
+    public synchronized byte[] peek(String key) {
+        Chunk chunk = mIndex.get(key);
+        return (chunk != null) ? read(chunk) : null;
+    }
+
+    @Override
+    public synchronized byte[] put(String key, byte[] value) {
+        Chunk previous = mIndex.remove(key);
+        byte[] previousValue = null;
+        if (previous != null) {
+            previousValue = read(previous);
+            release(key, previous);
+        }
+
+        int sizeClass = sizeClassOf(value.length);
+        if (sizeClass < 0) {
+            // Bigger than a slab
+            return previousValue;
+        }
+
+        Chunk chunk = allocate(sizeClass, value.length);
+        ByteBuffer buffer = mSlabs.get(chunk.mSlab).mBuffer;
+        buffer.clear();
+        buffer.position(chunk.mOffset);
+        buffer.put(value);
+
+        mIndex.put(key, chunk);
+        mClasses[sizeClass].mEntries.put(key, chunk);
+        mSize += mChunkSizes[sizeClass];
+        return previousValue;
+    }
+
+    @Override
+    public synchronized byte[] putIfAbsent(String key, byte[] value) {
+        Chunk chunk = mIndex.get(key);
+        return (chunk != null) ? read(chunk) : put(key, value);
+    }
+
+    @Override
+    public synchronized int size() {
+        return mSize;
+    }
+
+    @Override
+    public synchronized byte[] remove(String key) {
+        Chunk chunk = mIndex.remove(key);
+        if (chunk == null) {
+            return null;
+        }
+        byte[] value = read(chunk);
+        release(key, chunk);
+        return value;
+    }
+
+    @Override
+    public synchronized boolean remove(String key, byte[] value) {
+        Chunk chunk = mIndex.get(key);
+        if (chunk == null || chunk.mLength != value.length || !Arrays.equals(read(chunk), value)) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        mIndex.clear();
+        for (SizeClass sizeClass : mClasses) {
+            sizeClass.mEntries.clear();
+            sizeClass.mFreeChunks.clear();
+            sizeClass.mSlabs.clear();
+        }
+        // Keep the allocated slabs, unassigned
+        for (int i = 0; i < mSlabs.size(); i++) {
+            mSlabs.get(i).mSizeClass = -1;
+        }
+        mSize = 0;
+    }
+
+    @Override
+    public synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
+    }
+
+    private void notifyEviction(String key) {
+        if (mEvictionListener != null) {
+            mEvictionListener.onEviction(key);
+        }
+    }
+
+    private byte[] read(Chunk chunk) {
+        byte[] value = new byte[chunk.mLength];
+        ByteBuffer buffer = mSlabs.get(chunk.mSlab).mBuffer;
+        buffer.clear();
+        buffer.position(chunk.mOffset);
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * @param length of the entry.
+     * @return smallest size class the entry fits in, or -1 if it is bigger than a slab.
+     */
+    private int sizeClassOf(int length) {
+        for (int i = 0; i < mChunkSizes.length; i++) {
+            if (length <= mChunkSizes[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find a free chunk of the given class, assigning a slab or evicting entries if needed.
+     */
+    private Chunk allocate(int sizeClass, int length) {
+        SizeClass chunks = mClasses[sizeClass];
+        while (chunks.mFreeChunks.isEmpty()) {
+            if (assignSlab(sizeClass)) {
+                continue;
+            }
+            if (!chunks.mEntries.isEmpty()) {
+                // Evict the least recently used entry of the class
+                Iterator<String> iterator = chunks.mEntries.keySet().iterator();
+                String victim = iterator.next();
+                release(victim, mIndex.remove(victim));
+                mEvictionCount++;
+                notifyEviction(victim);
+            } else {
+                reassignSlab(sizeClass);
+            }
+        }
+        long location = chunks.mFreeChunks.pop();
+        return new Chunk((int) (location >>> 32), (int) location, sizeClass, length);
+    }
+
+    /**
+     * Give an unassigned slab to the class, allocating a new one if under the budget.
+     *
+     * @return false if there are no slabs available.
+     */
+    private boolean assignSlab(int sizeClass) {
+        int slab = -1;
+        for (int i = 0; i < mSlabs.size(); i++) {
+            if (mSlabs.get(i).mSizeClass < 0) {
+                slab = i;
+                break;
+            }
+        }
+        if (slab < 0) {
+            if (mSlabs.size() >= mMaxSlabs) {
+                return false;
+            }
+            mSlabs.add(new Slab(ByteBuffer.allocateDirect(mSlabSize)));
+            slab = mSlabs.size() - 1;
+        }
+
+        mSlabs.get(slab).mSizeClass = sizeClass;
+        SizeClass chunks = mClasses[sizeClass];
+        chunks.mSlabs.add(slab);
+        int chunkSize = mChunkSizes[sizeClass];
+        for (int offset = 0; offset + chunkSize <= mSlabSize; offset += chunkSize) {
+            chunks.mFreeChunks.push(((long) slab << 32) | offset);
+        }
+        return true;
+    }
+
+    /**
+     * Empty a slab of the class owning most slabs and leave it unassigned.
+     */
+    private void reassignSlab(int sizeClass) {
+        int donor = -1;
+        for (int i = 0; i < mClasses.length; i++) {
+            if (i != sizeClass && (donor < 0
+                    || mClasses[i].mSlabs.size() > mClasses[donor].mSlabs.size())) {
+                donor = i;
+            }
+        }
+        if (donor < 0 || mClasses[donor].mSlabs.isEmpty()) {
+            throw new IllegalStateException("No slab available for size " + mChunkSizes[sizeClass]);
+        }
+
+        SizeClass chunks = mClasses[donor];
+        int slab = chunks.mSlabs.remove(0);
+        Iterator<Map.Entry<String, Chunk>> entries = chunks.mEntries.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Chunk> entry = entries.next();
+            if (entry.getValue().mSlab == slab) {
+                entries.remove();
+                mIndex.remove(entry.getKey());
+                mSize -= mChunkSizes[donor];
+                mEvictionCount++;
+                notifyEviction(entry.getKey());
+            }
+        }
+        chunks.mFreeChunks.removeSlab(slab);
+        mSlabs.get(slab).mSizeClass = -1;
+    }
+
+    /**
+     * Return the chunk of an entry already removed from the index to its class.
+     */
+    private void release(String key, Chunk chunk) {
+        SizeClass chunks = mClasses[chunk.mSizeClass];
+        chunks.mEntries.remove(key);
+        chunks.mFreeChunks.push(((long) chunk.mSlab << 32) | chunk.mOffset);
+        mSize -= mChunkSizes[chunk.mSizeClass];
+    }
+
+    private static final class Slab {
+        final ByteBuffer mBuffer;
+        // Size class using the slab, -1 if unassigned
+        int mSizeClass = -1;
+
+        Slab(ByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+    }
+
+    private static final class SizeClass {
+        // Entries in access order, least recently used first
+        final LinkedHashMap<String, Chunk> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+        final FreeChunks mFreeChunks = new FreeChunks();
+        final List<Integer> mSlabs = new ArrayList<>();
+    }
+
+    /**
+     * Location of a chunk in use, and length of the entry stored in it.
+     */
+    private static final class Chunk {
+        final int mSlab;
+        final int mOffset;
+        final int mSizeClass;
+        final int mLength;
+
+        Chunk(int slab, int offset, int sizeClass, int length) {
+            mSlab = slab;
+            mOffset = offset;
+            mSizeClass = sizeClass;
+            mLength = length;
+        }
+    }
+
+    /**
+     * Stack of free chunks, each one encoded as slab index and offset in a long so free memory
+     * does not need objects in the heap.
+     */
+    private static final class FreeChunks {
+        private long[] mChunks = new long[16];
+        private int mCount;
+
+        boolean isEmpty() {
+            return mCount == 0;
+        }
+
+        void push(long chunk) {
+            if (mCount == mChunks.length) {
+                mChunks = Arrays.copyOf(mChunks, mCount * 2);
+            }
+            mChunks[mCount++] = chunk;
+        }
+
+        long pop() {
+            return mChunks[--mCount];
+        }
+
+        void removeSlab(int slab) {
+            int kept = 0;
+            for (int i = 0; i < mCount; i++) {
+                if ((int) (mChunks[i] >>> 32) != slab) {
+                    mChunks[kept++] = mChunks[i];
+                }
+            }
+            mCount = kept;
+        }
+
+        void clear() {
+            mCount = 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.iagocanalejas.dualcache.caches;
+
+
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import java.util.HashMap;
+
+/**
+ * RAM cache layer delegating the choice of the evicted entries to an {@link EvictionPolicy}.
+ * All the methods are synchronized, like in {@link com.iagocanalejas.dualcache.utils.LruCache}.
+ *
+ * @param <T> is the class of object stored in the cache.
+ */
+public class PolicyRamCache<T> implements ConditionalCache<String, T>, EvictionCounter {
+
+    private final HashMap<String, Entry<T>> mData = new HashMap<>();
+    private final SizeOf<T> mHandlerSizeOf;
+    private final EvictionPolicy<String> mPolicy;
+    private final int mMaxSize;
+    private int mSize;
+    private int mEvictionCount;
+    private EvictionListener mEvictionListener;
+
+    /**
+     * @param handler computes the size of each object stored in the RAM cache layer.
+     * @param maxSize maximum sum of the sizes of the entries in this cache.
+     * @param policy  chooses the entries to evict, must not be used by other caches.
+     */
+    public PolicyRamCache(SizeOf<T> handler, int maxSize, EvictionPolicy<String> policy) {
+        mHandlerSizeOf = handler;
+        mMaxSize = maxSize;
+        mPolicy = policy;
+        mPolicy.init(maxSize);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mData.containsKey(key);
+    }
+
+    @Override
+    public synchronized T get(String key) {
+        Entry<T> entry = mData.get(key);
+        if (entry == null) {
+            return null;
+        }
+        mPolicy.onAccess(key);
+        return entry.mValue;
+    }
+
+    @Override
+    public synchronized T peek(String key) {
+        Entry<T> entry = mData.get(key);
+        return (entry != null) ? entry.mValue : null;
+    }
+
+    @Override
+    public synchronized T put(String key, T value) {
+        int size = mHandlerSizeOf.sizeOf(value);
+        if (size < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+
+        Entry<T> previous = mData.put(key, new Entry<>(value, size));
+        mSize += size;
+        if (previous != null) {
+            mSize -= previous.mSize;
+            mPolicy.onUpdate(key, previous.mSize, size);
+        } else {
+            mPolicy.onInsert(key, size);
+        }
+
+        while (mSize > mMaxSize) {
+            String victim = mPolicy.evict();
+            if (victim == null) {
+                break;
+            }
+            Entry<T> evicted = mData.remove(victim);
+            if (evicted != null) {
+                mSize -= evicted.mSize;
+                mEvictionCount++;
+                notifyEviction(victim);
+            }
+        }
+        return (previous != null) ? previous.mValue : null;
+    }
+
+    @Override
+    public synchronized T putIfAbsent(String key, T value) {
+        Entry<T> entry = mData.get(key);
+        return (entry != null) ? entry.mValue : put(key, value);
+    }
+
+    @Override
+    public synchronized int size() {
+        return mSize;
+    }
+
+    @Override
+    public synchronized T remove(String key) {
+        Entry<T> previous = mData.remove(key);
+        if (previous == null) {
+            return null;
+        }
+        mSize -= previous.mSize;
+        mPolicy.onRemove(key);
+        return previous.mValue;
+    }
+
+    @Override
+    public synchronized boolean remove(String key, T value) {
+        Entry<T> entry = mData.get(key);
+        if (entry == null || entry.mValue != value) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        mData.clear();
+        mPolicy.clear();
+        mSize = 0;
+    }
+
+    @Override
+    public synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
+    }
+
+    private void notifyEviction(String key) {
+        if (mEvictionListener != null) {
+            mEvictionListener.onEviction(key);
+        }
+    }
+
+    private static final class Entry<T> {
+        final T mValue;
+        final int mSize;
+
+        Entry(T value, int size) {
+            mValue = value;
+            mSize = size;
+        }
+    }
+}
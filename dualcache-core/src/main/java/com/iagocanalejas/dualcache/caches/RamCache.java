@@ -1,19 +1,22 @@
 package com.iagocanalejas.dualcache.caches;
 
 
-import android.util.LruCache;
-
-import com.iagocanalejas.dualcache.interfaces.Cache;
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
 import com.iagocanalejas.dualcache.interfaces.SizeOf;
+import com.iagocanalejas.dualcache.utils.LruCache;
 
 /**
  * This is the LRU cache used for the RAM layer when configured to used references.
  *
  * @param <T> is the class of object stored in the cache.
  */
-public class RamCache<T> extends LruCache<String, T> implements Cache<String, T> {
+public class RamCache<T> extends LruCache<String, T>
+        implements ConditionalCache<String, T>, EvictionCounter {
 
     private SizeOf<T> mHandlerSizeOf;
+    private volatile EvictionListener mEvictionListener;
 
     /**
      * @param handler computes the size of each object stored in the RAM cache layer.
@@ -31,13 +34,33 @@ public class RamCache<T> extends LruCache<String, T> implements Cache<String, T>
         return mHandlerSizeOf.sizeOf(value);
     }
 
+    @Override
+    protected void entryRemoved(boolean evicted, String key, T oldValue, T newValue) {
+        EvictionListener listener = mEvictionListener;
+        if (evicted && listener != null) {
+            listener.onEviction(key);
+        }
+    }
+
+    @Override
+    public void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
+    }
+
     @Override
     public boolean contains(String key) {
         return snapshot().containsKey(key);
     }
 
+    /**
+     * Remove all the entries, unlike {@link #evictAll()} they are not counted as evictions.
+     */
     @Override
     public void clear() {
-        evictAll();
+        synchronized (this) {
+            for (String key : snapshot().keySet()) {
+                remove(key);
+            }
+        }
     }
 }
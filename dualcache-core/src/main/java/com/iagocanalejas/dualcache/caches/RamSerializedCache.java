@@ -17,16 +17,18 @@
 package com.iagocanalejas.dualcache.caches;
 
 
-import android.util.LruCache;
-
-import com.iagocanalejas.dualcache.interfaces.Cache;
-
-import java.nio.charset.Charset;
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.utils.LruCache;
 
 /**
  * LRU cache used by the RAM cache layer when storing serialized object.
  */
-public class RamSerializedCache extends LruCache<String, String> implements Cache<String, String> {
+public class RamSerializedCache extends LruCache<String, byte[]>
+        implements ConditionalCache<String, byte[]>, EvictionCounter {
+
+    private volatile EvictionListener mEvictionListener;
 
     /**
      * @param maxCacheSize for caches that do not override {@link #sizeOf}, this is
@@ -38,8 +40,21 @@ public class RamSerializedCache extends LruCache<String, String> implements Cach
     }
 
     @Override
-    protected int sizeOf(String key, String value) {
-        return value.getBytes(Charset.defaultCharset()).length;
+    protected int sizeOf(String key, byte[] value) {
+        return value.length;
+    }
+
+    @Override
+    protected void entryRemoved(boolean evicted, String key, byte[] oldValue, byte[] newValue) {
+        EvictionListener listener = mEvictionListener;
+        if (evicted && listener != null) {
+            listener.onEviction(key);
+        }
+    }
+
+    @Override
+    public void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
     }
 
     @Override
@@ -47,8 +62,15 @@ public class RamSerializedCache extends LruCache<String, String> implements Cach
         return snapshot().containsKey(key);
     }
 
+    /**
+     * Remove all the entries, unlike {@link #evictAll()} they are not counted as evictions.
+     */
     @Override
     public void clear() {
-        evictAll();
+        synchronized (this) {
+            for (String key : snapshot().keySet()) {
+                remove(key);
+            }
+        }
     }
 }
@@ -0,0 +1,94 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.stats.StatsCounter;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Disk cache layer recording in a {@link StatsCounter} the latency of the reads and writes of
+ * another disk cache. Bulk operations are recorded as a single read or write.
+ */
+public class TimedDiskCache implements BulkCache<String, byte[]> {
+
+    private final BulkCache<String, byte[]> mDiskCache;
+    private final StatsCounter mStats;
+
+    /**
+     * @param diskCache whose reads and writes are measured.
+     * @param stats     where the latencies are recorded.
+     */
+    public TimedDiskCache(BulkCache<String, byte[]> diskCache, StatsCounter stats) {
+        this.mDiskCache = diskCache;
+        this.mStats = stats;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return mDiskCache.contains(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        long start = mStats.time();
+        byte[] value = mDiskCache.get(key);
+        mStats.recordDiskRead(start);
+        return value;
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        long start = mStats.time();
+        byte[] previous = mDiskCache.put(key, value);
+        mStats.recordDiskWrite(start);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        return mDiskCache.size();
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        return mDiskCache.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        mDiskCache.clear();
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        long start = mStats.time();
+        Map<String, byte[]> found = mDiskCache.getAll(keys);
+        mStats.recordDiskRead(start);
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        long start = mStats.time();
+        mDiskCache.putAll(entries);
+        mStats.recordDiskWrite(start);
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        mDiskCache.removeAll(keys);
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        long start = mStats.time();
+        mDiskCache.set(key, value);
+        mStats.recordDiskWrite(start);
+    }
+
+    @Override
+    public void delete(String key) {
+        mDiskCache.delete(key);
+    }
+}
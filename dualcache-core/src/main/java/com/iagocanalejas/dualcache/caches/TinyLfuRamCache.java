@@ -0,0 +1,294 @@
+package com.iagocanalejas.dualcache.caches;
+
+
+import com.iagocanalejas.dualcache.interfaces.ConditionalCache;
+import com.iagocanalejas.dualcache.interfaces.EvictionCounter;
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+import com.iagocanalejas.dualcache.utils.FrequencySketch;
+
+import java.util.HashMap;
+
+/**
+ * RAM cache layer using the W-TinyLFU policy, an alternative to plain LRU resistant to scans.
+ * <p>
+ * New entries go into a small LRU admission window (1% of the size). Entries leaving the window
+ * are candidates to enter the main region, a segmented LRU with a probation and a protected
+ * segment (80% of the main region). When the cache is full a candidate only replaces the
+ * probation victim if it has been accessed more often, as estimated by a
+ * {@link FrequencySketch}. Entries read while on probation are promoted to protected.
+ * <p>
+ * All the methods are synchronized, like in {@link com.iagocanalejas.dualcache.utils.LruCache}.
+ *
+ * @param <T> is the class of object stored in the cache.
+ */
+public class TinyLfuRamCache<T> implements ConditionalCache<String, T>, EvictionCounter {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final HashMap<String, Node<T>> mData = new HashMap<>();
+    private final FrequencySketch mSketch = new FrequencySketch(16);
+    private final SizeOf<T> mHandlerSizeOf;
+    private final int mMaxSize;
+    private final int mMaxWindowSize;
+    private final int mMaxProtectedSize;
+
+    private final Queue<T> mWindow = new Queue<>();
+    private final Queue<T> mProbation = new Queue<>();
+    private final Queue<T> mProtected = new Queue<>();
+    private int mSize;
+    private int mEvictionCount;
+    private EvictionListener mEvictionListener;
+
+    /**
+     * @param handler computes the size of each object stored in the RAM cache layer.
+     * @param maxSize maximum sum of the sizes of the entries in this cache.
+     */
+    public TinyLfuRamCache(SizeOf<T> handler, int maxSize) {
+        mHandlerSizeOf = handler;
+        mMaxSize = maxSize;
+        mMaxWindowSize = Math.max(1, maxSize / 100);
+        mMaxProtectedSize = (int) ((maxSize - mMaxWindowSize) * 0.8);
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return mData.containsKey(key);
+    }
+
+    @Override
+    public synchronized T get(String key) {
+        mSketch.increment(key);
+        Node<T> node = mData.get(key);
+        if (node == null) {
+            return null;
+        }
+        onAccess(node);
+        return node.mValue;
+    }
+
+    @Override
+    public synchronized T peek(String key) {
+        Node<T> node = mData.get(key);
+        return (node != null) ? node.mValue : null;
+    }
+
+    @Override
+    public synchronized T put(String key, T value) {
+        int size = mHandlerSizeOf.sizeOf(value);
+        if (size < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+
+        mSketch.increment(key);
+        Node<T> node = mData.get(key);
+        T previous = null;
+        if (node != null) {
+            previous = node.mValue;
+            queueOf(node).mSize += size - node.mSize;
+            mSize += size - node.mSize;
+            node.mValue = value;
+            node.mSize = size;
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value, size);
+            mData.put(key, node);
+            mSketch.ensureCapacity(mData.size());
+            mWindow.linkLast(node, WINDOW);
+            mSize += size;
+        }
+        evict();
+        return previous;
+    }
+
+    @Override
+    public synchronized T putIfAbsent(String key, T value) {
+        Node<T> node = mData.get(key);
+        return (node != null) ? node.mValue : put(key, value);
+    }
+
+    @Override
+    public synchronized int size() {
+        return mSize;
+    }
+
+    @Override
+    public synchronized T remove(String key) {
+        Node<T> node = mData.remove(key);
+        if (node == null) {
+            return null;
+        }
+        queueOf(node).unlink(node);
+        mSize -= node.mSize;
+        return node.mValue;
+    }
+
+    @Override
+    public synchronized boolean remove(String key, T value) {
+        Node<T> node = mData.get(key);
+        if (node == null || node.mValue != value) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        mData.clear();
+        mWindow.clear();
+        mProbation.clear();
+        mProtected.clear();
+        mSketch.clear();
+        mSize = 0;
+    }
+
+    @Override
+    public synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+
+    @Override
+    public synchronized void setEvictionListener(EvictionListener listener) {
+        mEvictionListener = listener;
+    }
+
+    private void onAccess(Node<T> node) {
+        switch (node.mQueue) {
+            case WINDOW:
+                mWindow.unlink(node);
+                mWindow.linkLast(node, WINDOW);
+                break;
+            case PROBATION:
+                mProbation.unlink(node);
+                mProtected.linkLast(node, PROTECTED);
+                // Demote the least recently used protected entries if it overflows
+                while (mProtected.mSize > mMaxProtectedSize && mProtected.mHead != node) {
+                    Node<T> demoted = mProtected.mHead;
+                    mProtected.unlink(demoted);
+                    mProbation.linkLast(demoted, PROBATION);
+                }
+                break;
+            default:
+                mProtected.unlink(node);
+                mProtected.linkLast(node, PROTECTED);
+        }
+    }
+
+    /**
+     * Move the entries overflowing the window to probation and, while the cache is too big,
+     * evict either the oldest probation entry or a candidate, keeping the most frequent one.
+     */
+    private void evict() {
+        Node<T> candidate = null;
+        while (mWindow.mSize > mMaxWindowSize && mWindow.mHead != null) {
+            Node<T> node = mWindow.mHead;
+            mWindow.unlink(node);
+            mProbation.linkLast(node, PROBATION);
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+
+        while (mSize > mMaxSize) {
+            Node<T> victim = mProbation.mHead;
+            if (victim == null) {
+                victim = (mProtected.mHead != null) ? mProtected.mHead : mWindow.mHead;
+            }
+            if (candidate == null || candidate == victim) {
+                if (candidate == victim) {
+                    candidate = candidate.mNext;
+                }
+                evict(victim);
+            } else if (mSketch.frequency(candidate.mKey) > mSketch.frequency(victim.mKey)) {
+                evict(victim);
+            } else {
+                Node<T> next = candidate.mNext;
+                evict(candidate);
+                candidate = next;
+            }
+        }
+    }
+
+    private void evict(Node<T> node) {
+        mData.remove(node.mKey);
+        queueOf(node).unlink(node);
+        mSize -= node.mSize;
+        mEvictionCount++;
+        if (mEvictionListener != null) {
+            mEvictionListener.onEviction(node.mKey);
+        }
+    }
+
+    private Queue<T> queueOf(Node<T> node) {
+        switch (node.mQueue) {
+            case WINDOW:
+                return mWindow;
+            case PROBATION:
+                return mProbation;
+            default:
+                return mProtected;
+        }
+    }
+
+    private static final class Node<T> {
+        final String mKey;
+        T mValue;
+        int mSize;
+        int mQueue;
+        Node<T> mPrev;
+        Node<T> mNext;
+
+        Node(String key, T value, int size) {
+            mKey = key;
+            mValue = value;
+            mSize = size;
+        }
+    }
+
+    /**
+     * LRU ordered list of nodes, least recently used first.
+     */
+    private static final class Queue<T> {
+        Node<T> mHead;
+        Node<T> mTail;
+        int mSize;
+
+        void linkLast(Node<T> node, int queue) {
+            node.mQueue = queue;
+            node.mPrev = mTail;
+            node.mNext = null;
+            if (mTail == null) {
+                mHead = node;
+            } else {
+                mTail.mNext = node;
+            }
+            mTail = node;
+            mSize += node.mSize;
+        }
+
+        void unlink(Node<T> node) {
+            if (node.mPrev == null) {
+                mHead = node.mNext;
+            } else {
+                node.mPrev.mNext = node.mNext;
+            }
+            if (node.mNext == null) {
+                mTail = node.mPrev;
+            } else {
+                node.mNext.mPrev = node.mPrev;
+            }
+            node.mPrev = null;
+            node.mNext = null;
+            mSize -= node.mSize;
+        }
+
+        void clear() {
+            mHead = null;
+            mTail = null;
+            mSize = 0;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.utils.CacheLog;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disk layer decorator that queues writes in memory and stores them from a background thread.
+ * Repeated writes to the same key are merged while they wait, and reads always see the newest
+ * queued value. Previous values are returned from the queue, or read from disk before queueing
+ * the write if the key is not queued. Only {@link #put} and {@link #remove} read them, the other
+ * writes never read the disk.
+ */
+public class WriteBehindDiskCache implements BulkCache<String, byte[]>, Closeable {
+    private static final String TAG = WriteBehindDiskCache.class.getSimpleName();
+
+    /**
+     * Marks a queued removal. Compared by reference so empty values are still valid.
+     */
+    private static final byte[] REMOVED = new byte[0];
+
+    private final BulkCache<String, byte[]> mDiskCache;
+    private final int mMaxPendingWrites;
+    private final DualCacheBackPressureMode mBackPressureMode;
+
+    // Guards mPending, mInFlight and mClosed
+    private final Object mLock = new Object();
+    // Only one batch is written at a time so writes reach the disk in order
+    private final Object mDrainLock = new Object();
+
+    private Map<String, byte[]> mPending = new HashMap<>();
+    private Map<String, byte[]> mInFlight = Collections.emptyMap();
+    private boolean mClosed;
+
+    /**
+     * @param diskCache        where the writes are stored.
+     * @param maxPendingWrites max number of distinct keys waiting to be written.
+     * @param backPressureMode what to do when the queue is full.
+     * @param name             of the background writer thread.
+     */
+    public WriteBehindDiskCache(BulkCache<String, byte[]> diskCache, int maxPendingWrites,
+                                DualCacheBackPressureMode backPressureMode, String name) {
+        this.mDiskCache = diskCache;
+        this.mMaxPendingWrites = maxPendingWrites;
+        this.mBackPressureMode = backPressureMode;
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, name + "-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public boolean contains(String key) {
+        synchronized (mLock) {
+            if (isQueued(key)) {
+                return queuedValue(key) != null;
+            }
+        }
+        return mDiskCache.contains(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        synchronized (mLock) {
+            if (isQueued(key)) {
+                return queuedValue(key);
+            }
+        }
+        return mDiskCache.get(key);
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        return enqueue(key, value, true);
+    }
+
+    @Override
+    public int size() {
+        return mDiskCache.size();
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        return enqueue(key, REMOVED, true);
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        enqueue(key, value, false);
+    }
+
+    @Override
+    public void delete(String key) {
+        enqueue(key, REMOVED, false);
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> found = new HashMap<>();
+        List<String> notQueued = new ArrayList<>();
+        synchronized (mLock) {
+            for (String key : keys) {
+                if (!isQueued(key)) {
+                    notQueued.add(key);
+                    continue;
+                }
+                byte[] value = queuedValue(key);
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+        }
+        if (!notQueued.isEmpty()) {
+            found.putAll(mDiskCache.getAll(notQueued));
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            enqueue(entry.getKey(), entry.getValue(), false);
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        for (String key : keys) {
+            enqueue(key, REMOVED, false);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mDrainLock) {
+            synchronized (mLock) {
+                mPending.clear();
+                mLock.notifyAll();
+            }
+            mDiskCache.clear();
+        }
+    }
+
+    /**
+     * Write all the entries queued before the call, returning when they are stored. Writes
+     * queued meanwhile by other threads do not delay it.
+     */
+    public void flush() {
+        // Batches are only in flight while holding the drain lock, so once it is taken every
+        // entry queued before the call is either stored or still pending and taken by this drain
+        drain();
+    }
+
+    /**
+     * Stop the background writer after storing all the queued entries. Further writes go
+     * straight to disk.
+     */
+    @Override
+    public void close() {
+        synchronized (mLock) {
+            mClosed = true;
+            mLock.notifyAll();
+        }
+        flush();
+    }
+
+    /**
+     * Queue a write, merging it with any queued write for the same key.
+     *
+     * @param key          of the entry.
+     * @param value        to write or {@link #REMOVED}.
+     * @param readPrevious false if the previous value is not needed when writing straight to
+     *                     disk.
+     * @return previous value or null, always null if readPrevious is false.
+     */
+    private byte[] enqueue(String key, byte[] value, boolean readPrevious) {
+        byte[] diskPrevious = null;
+        if (readPrevious) {
+            boolean queued;
+            synchronized (mLock) {
+                queued = isQueued(key);
+            }
+            if (!queued) {
+                // Read outside of the lock, the disk is up to date for keys not queued
+                diskPrevious = mDiskCache.get(key);
+            }
+        }
+        while (true) {
+            synchronized (mLock) {
+                if (mClosed) {
+                    break;
+                }
+                if (mPending.containsKey(key) || mPending.size() < mMaxPendingWrites) {
+                    byte[] previous = isQueued(key) ? queuedValue(key) : diskPrevious;
+                    mPending.put(key, value);
+                    mLock.notifyAll();
+                    return previous;
+                }
+                if (mBackPressureMode.equals(DualCacheBackPressureMode.BLOCK)) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    continue;
+                }
+            }
+            // CALLER_RUNS
+            drain();
+        }
+
+        // Closed or interrupted, write straight to disk keeping the order with queued writes
+        synchronized (mDrainLock) {
+            flush();
+            if (!readPrevious) {
+                if (value == REMOVED) {
+                    mDiskCache.delete(key);
+                } else {
+                    mDiskCache.set(key, value);
+                }
+                return null;
+            }
+            return (value == REMOVED) ? mDiskCache.remove(key) : mDiskCache.put(key, value);
+        }
+    }
+
+    /**
+     * Must be called holding {@link #mLock}.
+     */
+    private boolean isQueued(String key) {
+        return mPending.containsKey(key) || mInFlight.containsKey(key);
+    }
+
+    /**
+     * Must be called holding {@link #mLock}.
+     *
+     * @return newest queued value, null if it is a removal.
+     */
+    private byte[] queuedValue(String key) {
+        byte[] value = mPending.containsKey(key) ? mPending.get(key) : mInFlight.get(key);
+        return (value == REMOVED) ? null : value;
+    }
+
+    /**
+     * Take all the queued writes and store them in disk as a single batch.
+     */
+    private void drain() {
+        synchronized (mDrainLock) {
+            Map<String, byte[]> batch;
+            synchronized (mLock) {
+                if (mPending.isEmpty()) {
+                    return;
+                }
+                batch = mPending;
+                mInFlight = batch;
+                mPending = new HashMap<>();
+                mLock.notifyAll();
+            }
+
+            try {
+                Map<String, byte[]> puts = new HashMap<>(batch.size());
+                List<String> removals = new ArrayList<>();
+                for (Map.Entry<String, byte[]> entry : batch.entrySet()) {
+                    if (entry.getValue() == REMOVED) {
+                        removals.add(entry.getKey());
+                    } else {
+                        puts.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                if (!puts.isEmpty()) {
+                    mDiskCache.putAll(puts);
+                }
+                if (!removals.isEmpty()) {
+                    mDiskCache.removeAll(removals);
+                }
+            } finally {
+                synchronized (mLock) {
+                    mInFlight = Collections.emptyMap();
+                }
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            synchronized (mLock) {
+                while (mPending.isEmpty() && !mClosed) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (mClosed) {
+                    return;
+                }
+            }
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                CacheLog.error(TAG, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.iagocanalejas.dualcache.hashing;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Created by Canalejas on 11/01/2017.
+ * <p>
+ * All the encodings only use characters valid for the disk cache keys, [a-z0-9].
+ */
+
+public final class Hashing {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] BASE32_DIGITS = "0123456789abcdefghijklmnopqrstuv".toCharArray();
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    // MessageDigest is not thread safe and expensive to get
+    private static final ThreadLocal<MessageDigest> SHA1 = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-1");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private Hashing() {
+    }
+
+    private static String convertToHex(byte[] data) {
+        char[] chars = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(data[i] >>> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX_DIGITS[data[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    public static String sha1(String text, Charset charset) {
+        MessageDigest md = SHA1.get();
+        byte[] textBytes = text.getBytes(charset);
+        md.update(textBytes, 0, textBytes.length);
+        return convertToHex(md.digest());
+    }
+
+    public static String sha1(String text) {
+        return sha1(text, Charset.defaultCharset());
+    }
+
+    /**
+     * 128 bits Murmur3 (x64 variant) of the UTF-16LE representation of the text, computed over
+     * the chars without encoding them.
+     *
+     * @return 32 hex chars.
+     */
+    public static String murmur3Hex(CharSequence text) {
+        long[] hash = murmur3(text);
+        char[] chars = new char[32];
+        for (int i = 0; i < 16; i++) {
+            chars[i] = HEX_DIGITS[(int) (hash[0] >>> (60 - i * 4)) & 0x0f];
+            chars[16 + i] = HEX_DIGITS[(int) (hash[1] >>> (60 - i * 4)) & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Same hash as {@link #murmur3Hex(CharSequence)} with a shorter encoding.
+     *
+     * @return 26 base32 chars.
+     */
+    public static String murmur3Base32(CharSequence text) {
+        long[] hash = murmur3(text);
+        char[] chars = new char[26];
+        // 13 chars of 5 bits per half, the last one of each half only takes 4 bits
+        for (int i = 0; i < 13; i++) {
+            int shift = 59 - i * 5;
+            chars[i] = BASE32_DIGITS[shift >= 0
+                    ? (int) (hash[0] >>> shift) & 0x1f
+                    : (int) hash[0] & 0x0f];
+            chars[13 + i] = BASE32_DIGITS[shift >= 0
+                    ? (int) (hash[1] >>> shift) & 0x1f
+                    : (int) hash[1] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    private static long[] murmur3(CharSequence text) {
+        long h1 = 0;
+        long h2 = 0;
+        int length = text.length();
+
+        // Blocks of 16 bytes, 8 chars
+        int blocks = length >> 3;
+        for (int i = 0; i < blocks; i++) {
+            int offset = i << 3;
+            long k1 = chars(text, offset, 4);
+            long k2 = chars(text, offset + 4, 4);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // Tail, up to 7 chars
+        int offset = blocks << 3;
+        int remaining = length - offset;
+        if (remaining > 4) {
+            h2 ^= mixK2(chars(text, offset + 4, remaining - 4));
+        }
+        if (remaining > 0) {
+            h1 ^= mixK1(chars(text, offset, Math.min(remaining, 4)));
+        }
+
+        long bytes = (long) length * 2;
+        h1 ^= bytes;
+        h2 ^= bytes;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        return new long[]{h1, h2};
+    }
+
+    /**
+     * @return up to 4 chars as a little endian long.
+     */
+    private static long chars(CharSequence text, int offset, int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value |= (long) text.charAt(offset + i) << (i * 16);
+        }
+        return value;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
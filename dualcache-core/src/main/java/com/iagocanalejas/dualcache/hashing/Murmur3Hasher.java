@@ -0,0 +1,34 @@
+package com.iagocanalejas.dualcache.hashing;
+
+import com.iagocanalejas.dualcache.interfaces.Hasher;
+
+/**
+ * {@link Hasher} using the 128 bits Murmur3 of the key {@link Object#toString()}, so it's only
+ * valid for keys whose string representation identifies them. It's not a cryptographic hash but
+ * it's much faster than SHA-1 and does not allocate more than the result.
+ */
+public class Murmur3Hasher<K> implements Hasher<K> {
+
+    private final boolean mBase32;
+
+    /**
+     * Hash keys to 32 hex chars.
+     */
+    public Murmur3Hasher() {
+        this(false);
+    }
+
+    /**
+     * @param base32 true to hash keys to 26 base32 chars instead of 32 hex chars.
+     */
+    public Murmur3Hasher(boolean base32) {
+        this.mBase32 = base32;
+    }
+
+    @Override
+    public String hash(K key) {
+        String text = key.toString();
+        return mBase32 ? Hashing.murmur3Base32(text) : Hashing.murmur3Hex(text);
+    }
+
+}
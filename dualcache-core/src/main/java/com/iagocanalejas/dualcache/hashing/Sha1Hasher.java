@@ -0,0 +1,20 @@
+package com.iagocanalejas.dualcache.hashing;
+
+import com.iagocanalejas.dualcache.interfaces.Hasher;
+
+import java.nio.charset.Charset;
+
+/**
+ * {@link Hasher} using the SHA-1 of the key {@link Object#toString()} encoded in UTF-8, so it's
+ * only valid for keys whose string representation identifies them. Prefer {@link Murmur3Hasher}
+ * unless a cryptographic hash is needed.
+ */
+public class Sha1Hasher<K> implements Hasher<K> {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Override
+    public String hash(K key) {
+        return Hashing.sha1(key.toString(), UTF_8);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Extends {@link Cache} with operations over groups of keys, so implementations can resolve
+ * all of them with a single pass over each layer.
+ */
+public interface BulkCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Try to find all the given keys in the cache.
+     *
+     * @param keys to find.
+     * @return found entries, missing keys are not included.
+     */
+    Map<K, V> getAll(Collection<K> keys);
+
+    /**
+     * Put all the given entries in the cache. Previous values are not returned.
+     *
+     * @param entries to add.
+     */
+    void putAll(Map<K, V> entries);
+
+    /**
+     * Delete all the given keys from the cache.
+     *
+     * @param keys to remove.
+     */
+    void removeAll(Collection<K> keys);
+
+    /**
+     * Put a new value in the cache without reading or decoding the previous one.
+     *
+     * @param key   for the value.
+     * @param value to add.
+     */
+    void set(K key, V value);
+
+    /**
+     * Delete given key from the cache without reading or decoding its value.
+     *
+     * @param key to remove.
+     */
+    void delete(K key);
+
+}
@@ -0,0 +1,29 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * This cache interface describe the way an object should be serialized/deserialized into a
+ * byte array, without going through an intermediate {@link String}.
+ *
+ * @param <T> is the class of object to serialized/deserialized.
+ * @see com.iagocanalejas.dualcache.utils.StringByteSerializer to reuse a {@link Serializer}.
+ */
+public interface ByteSerializer<T> {
+
+    /**
+     * Deserialization of a region of a byte array into an object.
+     *
+     * @param data   is the byte array containing the serialized data.
+     * @param offset of the first serialized byte inside data.
+     * @param length number of serialized bytes.
+     * @return the deserialized data.
+     */
+    T fromBytes(byte[] data, int offset, int length);
+
+    /**
+     * Serialization of an object into a byte array.
+     *
+     * @param object is the object to serialize.
+     * @return the result of the serialization into a byte array.
+     */
+    byte[] toBytes(T object);
+}
@@ -0,0 +1,28 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Receives the result of an asynchronous cache operation.
+ * <p>
+ * Operations resolved without reaching the disk, like RAM hits, call back on the calling thread
+ * before the asynchronous method returns. Any other operation calls back on the I/O thread that
+ * ran it, so methods must be fast and must not wait for other asynchronous operations.
+ *
+ * @param <T> is the class of the result.
+ */
+public interface CacheCallback<T> {
+
+    /**
+     * The operation finished.
+     *
+     * @param result of the operation.
+     */
+    void onSuccess(T result);
+
+    /**
+     * The operation failed, or did not run because the I/O executor rejected it.
+     *
+     * @param failure why the operation failed.
+     */
+    void onFailure(Throwable failure);
+
+}
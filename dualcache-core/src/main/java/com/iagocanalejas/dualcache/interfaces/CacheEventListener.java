@@ -0,0 +1,69 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Receives the events of a cache, register it with
+ * {@link com.iagocanalejas.dualcache.AbstractBuilder#useEventListener(CacheEventListener)}.
+ * <p>
+ * Methods are called on the thread doing the operation, evictions while holding the lock of the
+ * RAM layer, so they must be fast and must not call back into the cache. Keys are the ones
+ * stored in the layers, hashed if the cache uses hashed keys. Extend
+ * {@link com.iagocanalejas.dualcache.utils.SimpleCacheEventListener} to receive only some of the
+ * events.
+ */
+public interface CacheEventListener {
+
+    /**
+     * Layer of the cache where an event happened.
+     */
+    enum Layer {
+        RAM,
+        DISK
+    }
+
+    /**
+     * A lookup found a valid entry in a layer.
+     *
+     * @param key   of the entry.
+     * @param layer where the entry was found.
+     */
+    void onHit(String key, Layer layer);
+
+    /**
+     * A lookup did not find the key in a layer, or found it expired.
+     *
+     * @param key   looked up.
+     * @param layer where the key was looked up.
+     */
+    void onMiss(String key, Layer layer);
+
+    /**
+     * An entry was written by the user or a loader.
+     *
+     * @param key of the entry.
+     */
+    void onPut(String key);
+
+    /**
+     * An entry was evicted from RAM to keep it under its maximum size. Only reported by the RAM
+     * layers implementing {@link EvictionCounter}.
+     *
+     * @param key of the entry.
+     */
+    void onEvict(String key);
+
+    /**
+     * A volatile entry was removed because it expired.
+     *
+     * @param key   of the entry.
+     * @param layer where the entry was found expired.
+     */
+    void onExpire(String key, Layer layer);
+
+    /**
+     * An entry read from disk was stored in RAM.
+     *
+     * @param key of the entry.
+     */
+    void onPromote(String key);
+
+}
@@ -0,0 +1,20 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Computes the value of a key that is not present in the cache.
+ *
+ * @param <K> is the class of the cache keys.
+ * @param <V> is the class of object to cache.
+ */
+public interface CacheLoader<K, V> {
+
+    /**
+     * Load the value for a key, usually from the original source of the data.
+     *
+     * @param key to load.
+     * @return loaded value or null if the key does not exist.
+     * @throws Exception if the value can not be loaded.
+     */
+    V load(K key) throws Exception;
+
+}
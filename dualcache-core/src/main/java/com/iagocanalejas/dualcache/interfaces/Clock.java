@@ -0,0 +1,24 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Source of the current time used to expire volatile entries, register it with
+ * {@link com.iagocanalejas.dualcache.AbstractBuilder#useClock(Clock)}.
+ */
+public interface Clock {
+
+    /**
+     * Reads {@link System#currentTimeMillis()}, used by default.
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * @return current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+}
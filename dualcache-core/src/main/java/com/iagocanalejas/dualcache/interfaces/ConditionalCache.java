@@ -0,0 +1,39 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Implemented by the RAM cache layers, adds the operations needed to change an entry only if no
+ * other thread changed it meanwhile, and to read it without counting it as an access.
+ *
+ * @param <K> is the class of the keys.
+ * @param <V> is the class of the values.
+ */
+public interface ConditionalCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Read a key without counting it as an access, so the eviction order is not changed.
+     *
+     * @param key to find.
+     * @return found value or null.
+     */
+    V peek(K key);
+
+    /**
+     * Put a value only if the key has none.
+     *
+     * @param key   for the value.
+     * @param value to add.
+     * @return existing value of the key, or null if the given one was added.
+     */
+    V putIfAbsent(K key, V value);
+
+    /**
+     * Delete a key only if it still has the given value, as returned by {@link #get} or
+     * {@link #peek}.
+     *
+     * @param key   to remove.
+     * @param value expected value of the key.
+     * @return true if the key was removed.
+     */
+    boolean remove(K key, V value);
+
+}
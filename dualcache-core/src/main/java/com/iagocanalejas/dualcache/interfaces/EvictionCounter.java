@@ -0,0 +1,19 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Implemented by the cache layers able to tell how many entries they have evicted to keep under
+ * their maximum size, and which ones. Entries removed or replaced by the user are not evictions.
+ */
+public interface EvictionCounter {
+
+    /**
+     * @return number of entries evicted since the cache was created.
+     */
+    int evictionCount();
+
+    /**
+     * @param listener notified of every evicted key, or null to stop notifying.
+     */
+    void setEvictionListener(EvictionListener listener);
+
+}
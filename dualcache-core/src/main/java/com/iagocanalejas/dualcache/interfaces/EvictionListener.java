@@ -0,0 +1,15 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Receives the keys evicted by a cache layer, see {@link EvictionCounter}.
+ */
+public interface EvictionListener {
+
+    /**
+     * Called while holding the lock of the cache layer, must not call back into it.
+     *
+     * @param key of the evicted entry.
+     */
+    void onEviction(String key);
+
+}
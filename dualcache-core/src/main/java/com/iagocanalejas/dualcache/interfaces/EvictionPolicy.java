@@ -0,0 +1,64 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Decides which entry the RAM cache layer evicts when it is full. The cache notifies the policy
+ * of every insertion, access and removal and asks it for a victim while it is over its size.
+ * <p>
+ * Calls are made holding the cache lock, so implementations do not need to be thread safe, but
+ * an instance must not be shared by several caches.
+ *
+ * @param <K> is the class of the cache keys.
+ */
+public interface EvictionPolicy<K> {
+
+    /**
+     * Called once before any other method.
+     *
+     * @param maxSize maximum sum of the sizes of the entries in the cache.
+     */
+    void init(int maxSize);
+
+    /**
+     * A new entry was added to the cache.
+     *
+     * @param key  of the entry.
+     * @param size of the entry.
+     */
+    void onInsert(K key, int size);
+
+    /**
+     * The value of an existing entry was replaced.
+     *
+     * @param key     of the entry.
+     * @param oldSize size of the previous value.
+     * @param newSize size of the new value.
+     */
+    void onUpdate(K key, int oldSize, int newSize);
+
+    /**
+     * An existing entry was read.
+     *
+     * @param key of the entry.
+     */
+    void onAccess(K key);
+
+    /**
+     * An entry was removed from the cache, not evicted.
+     *
+     * @param key of the entry.
+     */
+    void onRemove(K key);
+
+    /**
+     * Choose the next entry to evict and stop tracking it.
+     *
+     * @return key to evict, or null if there are no entries.
+     */
+    K evict();
+
+    /**
+     * All the entries were removed from the cache.
+     */
+    void clear();
+
+}
@@ -0,0 +1,26 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+/**
+ * Destination of the library logs, see
+ * {@link com.iagocanalejas.dualcache.utils.CacheLog#setWriter(LogWriter)}.
+ */
+public interface LogWriter {
+
+    /**
+     * @param tag caller class name.
+     * @param msg the msg to log.
+     */
+    void info(String tag, String msg);
+
+    /**
+     * @param tag caller class name.
+     * @param msg the msg to log.
+     */
+    void warning(String tag, String msg);
+
+    /**
+     * @param tag caller class name.
+     * @param msg the msg to log.
+     */
+    void error(String tag, String msg);
+}
@@ -0,0 +1,38 @@
+package com.iagocanalejas.dualcache.interfaces;
+
+import java.util.Map;
+
+/**
+ * Created by Iago on 07/01/2017.
+ */
+public interface VolatileCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Put an object in cache with a lifetime if we are in a
+     * {@link com.iagocanalejas.dualcache.modes.DualCacheVolatileMode#VOLATILE} cache
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     */
+    V put(K key, V object, long entryLife);
+
+    /**
+     * Like {@link #put(Object, Object, long)} without reading or decoding the previous object.
+     *
+     * @param key       the key of the object.
+     * @param object    the object to put in cache.
+     * @param entryLife persistence time for given entry
+     */
+    void set(K key, V object, long entryLife);
+
+    /**
+     * Put all the given objects in cache with the same lifetime if we are in a
+     * {@link com.iagocanalejas.dualcache.modes.DualCacheVolatileMode#VOLATILE} cache
+     *
+     * @param entries   the objects to put in cache by key.
+     * @param entryLife persistence time for given entries
+     */
+    void putAll(Map<K, V> entries, long entryLife);
+
+}
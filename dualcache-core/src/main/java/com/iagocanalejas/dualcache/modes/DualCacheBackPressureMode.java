@@ -0,0 +1,16 @@
+package com.iagocanalejas.dualcache.modes;
+
+/**
+ * Define what a write does when the write-behind queue of the disk layer is full.
+ */
+public enum DualCacheBackPressureMode {
+    /**
+     * The caller waits until the background writer makes room in the queue.
+     */
+    BLOCK,
+
+    /**
+     * The caller writes the pending entries to disk itself before queueing its own.
+     */
+    CALLER_RUNS
+}
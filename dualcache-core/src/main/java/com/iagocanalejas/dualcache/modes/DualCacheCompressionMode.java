@@ -0,0 +1,22 @@
+package com.iagocanalejas.dualcache.modes;
+
+/**
+ * Define how entries are compressed before being written to the disk layer.
+ */
+public enum DualCacheCompressionMode {
+    /**
+     * Entries are written as the serializer outputs them. Compressed entries already stored are
+     * still read.
+     */
+    NONE,
+
+    /**
+     * Entries are compressed with deflate, smaller output but more CPU.
+     */
+    DEFLATE,
+
+    /**
+     * Entries are compressed with the LZ4 block format, faster but bigger output.
+     */
+    LZ4
+}
@@ -0,0 +1,28 @@
+package com.iagocanalejas.dualcache.modes;
+
+/**
+ * Define when an entry read from disk is also stored in RAM.
+ */
+public enum DualCachePromotionMode {
+    /**
+     * Every disk hit is stored in RAM before returning.
+     */
+    ALWAYS,
+
+    /**
+     * Disk hits are never stored in RAM, only writes fill it.
+     */
+    NEVER,
+
+    /**
+     * A disk hit is stored in RAM once its key has been read from disk a given number of times,
+     * so one-off reads do not evict hot RAM entries.
+     */
+    AFTER_HITS,
+
+    /**
+     * Disk hits are returned right away and stored in RAM by a background thread. Promotions
+     * are dropped if that thread falls behind.
+     */
+    ASYNC
+}
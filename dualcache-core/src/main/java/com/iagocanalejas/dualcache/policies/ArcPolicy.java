@@ -0,0 +1,160 @@
+package com.iagocanalejas.dualcache.policies;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive Replacement Cache. Entries seen once live in a recency list (T1) and entries seen
+ * more than once in a frequency list (T2). Evicted keys are remembered in two ghost lists
+ * (B1, B2), and a hit on a ghost moves the target size of T1 towards the list that would have
+ * kept the entry. Sizes are measured with the entry sizes instead of entry counts.
+ *
+ * @param <K> is the class of the cache keys.
+ */
+public class ArcPolicy<K> implements EvictionPolicy<K> {
+
+    private final SizedList<K> mT1 = new SizedList<>();
+    private final SizedList<K> mT2 = new SizedList<>();
+    private final SizedList<K> mB1 = new SizedList<>();
+    private final SizedList<K> mB2 = new SizedList<>();
+    private int mMaxSize;
+    // Target size of T1
+    private int mTarget;
+
+    @Override
+    public void init(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    @Override
+    public void onInsert(K key, int size) {
+        if (mB1.contains(key)) {
+            int ratio = Math.max(1, mB2.mSize / Math.max(1, mB1.mSize));
+            mTarget = (int) Math.min(mMaxSize, (long) mTarget + (long) size * ratio);
+            mB1.remove(key);
+            mT2.addLast(key, size);
+        } else if (mB2.contains(key)) {
+            int ratio = Math.max(1, mB1.mSize / Math.max(1, mB2.mSize));
+            mTarget = (int) Math.max(0, (long) mTarget - (long) size * ratio);
+            mB2.remove(key);
+            mT2.addLast(key, size);
+        } else {
+            mT1.addLast(key, size);
+        }
+
+        // Keep |T1| + |B1| <= c and |T1| + |T2| + |B1| + |B2| <= 2c
+        while (mT1.mSize + mB1.mSize > mMaxSize && mB1.mSize > 0) {
+            mB1.removeFirst();
+        }
+        while ((long) mT1.mSize + mT2.mSize + mB1.mSize + mB2.mSize > 2L * mMaxSize
+                && mB2.mSize > 0) {
+            mB2.removeFirst();
+        }
+    }
+
+    @Override
+    public void onUpdate(K key, int oldSize, int newSize) {
+        Integer size = mT1.remove(key);
+        if (size == null) {
+            size = mT2.remove(key);
+        }
+        if (size != null) {
+            mT2.addLast(key, newSize);
+        }
+    }
+
+    @Override
+    public void onAccess(K key) {
+        Integer size = mT1.remove(key);
+        if (size == null) {
+            size = mT2.remove(key);
+        }
+        if (size != null) {
+            mT2.addLast(key, size);
+        }
+    }
+
+    @Override
+    public void onRemove(K key) {
+        if (mT1.remove(key) == null) {
+            mT2.remove(key);
+        }
+    }
+
+    @Override
+    public K evict() {
+        if (mT1.mSize > 0 && (mT1.mSize > mTarget || mT2.mSize == 0)) {
+            return moveFirst(mT1, mB1);
+        }
+        if (mT2.mSize > 0) {
+            return moveFirst(mT2, mB2);
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        mT1.clear();
+        mT2.clear();
+        mB1.clear();
+        mB2.clear();
+        mTarget = 0;
+    }
+
+    private K moveFirst(SizedList<K> from, SizedList<K> ghosts) {
+        Map.Entry<K, Integer> first = from.first();
+        if (first == null) {
+            return null;
+        }
+        K key = first.getKey();
+        int size = first.getValue();
+        from.remove(key);
+        ghosts.addLast(key, size);
+        return key;
+    }
+
+    /**
+     * Keys in insertion order with the sum of their sizes.
+     */
+    private static final class SizedList<K> {
+        private final LinkedHashMap<K, Integer> mKeys = new LinkedHashMap<>();
+        int mSize;
+
+        boolean contains(K key) {
+            return mKeys.containsKey(key);
+        }
+
+        void addLast(K key, int size) {
+            mKeys.put(key, size);
+            mSize += size;
+        }
+
+        Integer remove(K key) {
+            Integer size = mKeys.remove(key);
+            if (size != null) {
+                mSize -= size;
+            }
+            return size;
+        }
+
+        Map.Entry<K, Integer> first() {
+            Iterator<Map.Entry<K, Integer>> iterator = mKeys.entrySet().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        void removeFirst() {
+            Map.Entry<K, Integer> first = first();
+            if (first != null) {
+                remove(first.getKey());
+            }
+        }
+
+        void clear() {
+            mKeys.clear();
+            mSize = 0;
+        }
+    }
+}
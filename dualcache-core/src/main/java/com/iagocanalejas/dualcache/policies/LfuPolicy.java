@@ -0,0 +1,95 @@
+package com.iagocanalejas.dualcache.policies;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Evict the least frequently used entry, the oldest one if several have the same frequency.
+ * Frequencies are counted since the entry was inserted.
+ *
+ * @param <K> is the class of the cache keys.
+ */
+public class LfuPolicy<K> implements EvictionPolicy<K> {
+
+    private final HashMap<K, Integer> mFrequencies = new HashMap<>();
+    // Keys by frequency, in insertion order for each frequency
+    private final TreeMap<Integer, LinkedHashSet<K>> mBuckets = new TreeMap<>();
+
+    @Override
+    public void init(int maxSize) {
+    }
+
+    @Override
+    public void onInsert(K key, int size) {
+        mFrequencies.put(key, 1);
+        bucket(1).add(key);
+    }
+
+    @Override
+    public void onUpdate(K key, int oldSize, int newSize) {
+        onAccess(key);
+    }
+
+    @Override
+    public void onAccess(K key) {
+        Integer frequency = mFrequencies.get(key);
+        if (frequency == null || frequency == Integer.MAX_VALUE) {
+            return;
+        }
+        removeFromBucket(key, frequency);
+        mFrequencies.put(key, frequency + 1);
+        bucket(frequency + 1).add(key);
+    }
+
+    @Override
+    public void onRemove(K key) {
+        Integer frequency = mFrequencies.remove(key);
+        if (frequency != null) {
+            removeFromBucket(key, frequency);
+        }
+    }
+
+    @Override
+    public K evict() {
+        Map.Entry<Integer, LinkedHashSet<K>> lowest = mBuckets.firstEntry();
+        if (lowest == null) {
+            return null;
+        }
+        Iterator<K> iterator = lowest.getValue().iterator();
+        K victim = iterator.next();
+        iterator.remove();
+        if (lowest.getValue().isEmpty()) {
+            mBuckets.remove(lowest.getKey());
+        }
+        mFrequencies.remove(victim);
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        mFrequencies.clear();
+        mBuckets.clear();
+    }
+
+    private LinkedHashSet<K> bucket(int frequency) {
+        LinkedHashSet<K> bucket = mBuckets.get(frequency);
+        if (bucket == null) {
+            bucket = new LinkedHashSet<>();
+            mBuckets.put(frequency, bucket);
+        }
+        return bucket;
+    }
+
+    private void removeFromBucket(K key, int frequency) {
+        LinkedHashSet<K> bucket = mBuckets.get(frequency);
+        bucket.remove(key);
+        if (bucket.isEmpty()) {
+            mBuckets.remove(frequency);
+        }
+    }
+}
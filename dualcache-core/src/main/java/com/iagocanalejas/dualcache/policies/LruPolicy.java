@@ -0,0 +1,57 @@
+package com.iagocanalejas.dualcache.policies;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evict the least recently used entry.
+ *
+ * @param <K> is the class of the cache keys.
+ */
+public class LruPolicy<K> implements EvictionPolicy<K> {
+
+    // Keys in access order, least recently used first
+    private final LinkedHashMap<K, Boolean> mKeys = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void init(int maxSize) {
+    }
+
+    @Override
+    public void onInsert(K key, int size) {
+        mKeys.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void onUpdate(K key, int oldSize, int newSize) {
+        mKeys.get(key);
+    }
+
+    @Override
+    public void onAccess(K key) {
+        mKeys.get(key);
+    }
+
+    @Override
+    public void onRemove(K key) {
+        mKeys.remove(key);
+    }
+
+    @Override
+    public K evict() {
+        Iterator<K> iterator = mKeys.keySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        K victim = iterator.next();
+        iterator.remove();
+        return victim;
+    }
+
+    @Override
+    public void clear() {
+        mKeys.clear();
+    }
+}
@@ -0,0 +1,145 @@
+package com.iagocanalejas.dualcache.policies;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * S3-FIFO, three FIFO queues. New entries go into a small queue (10% of the size) and only move
+ * to the main queue if they are read before leaving it, otherwise they are evicted and their key
+ * is remembered in a ghost queue. Keys inserted again while in the ghost queue go straight to the
+ * main queue. Entries leaving the main queue are reinserted while they have been read since
+ * their last pass, with a frequency capped at 3.
+ *
+ * @param <K> is the class of the cache keys.
+ */
+public class S3FifoPolicy<K> implements EvictionPolicy<K> {
+
+    private static final int MAX_FREQUENCY = 3;
+
+    private final HashMap<K, Entry> mEntries = new HashMap<>();
+    private final LinkedHashMap<K, Entry> mSmall = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Entry> mMain = new LinkedHashMap<>();
+    private final LinkedHashSet<K> mGhost = new LinkedHashSet<>();
+    private int mMaxSmallSize;
+    private int mSmallSize;
+
+    @Override
+    public void init(int maxSize) {
+        mMaxSmallSize = Math.max(1, maxSize / 10);
+    }
+
+    @Override
+    public void onInsert(K key, int size) {
+        Entry entry = new Entry(size);
+        mEntries.put(key, entry);
+        if (mGhost.remove(key)) {
+            entry.mMain = true;
+            mMain.put(key, entry);
+        } else {
+            mSmall.put(key, entry);
+            mSmallSize += size;
+        }
+    }
+
+    @Override
+    public void onUpdate(K key, int oldSize, int newSize) {
+        Entry entry = mEntries.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (!entry.mMain) {
+            mSmallSize += newSize - oldSize;
+        }
+        entry.mSize = newSize;
+        onAccess(key);
+    }
+
+    @Override
+    public void onAccess(K key) {
+        Entry entry = mEntries.get(key);
+        if (entry != null && entry.mFrequency < MAX_FREQUENCY) {
+            entry.mFrequency++;
+        }
+    }
+
+    @Override
+    public void onRemove(K key) {
+        Entry entry = mEntries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.mMain) {
+            mMain.remove(key);
+        } else {
+            mSmall.remove(key);
+            mSmallSize -= entry.mSize;
+        }
+    }
+
+    @Override
+    public K evict() {
+        while (true) {
+            if (!mSmall.isEmpty() && (mSmallSize > mMaxSmallSize || mMain.isEmpty())) {
+                K key = mSmall.keySet().iterator().next();
+                Entry entry = mSmall.remove(key);
+                mSmallSize -= entry.mSize;
+                if (entry.mFrequency > 0) {
+                    entry.mFrequency = 0;
+                    entry.mMain = true;
+                    mMain.put(key, entry);
+                } else {
+                    mEntries.remove(key);
+                    addGhost(key);
+                    return key;
+                }
+            } else if (!mMain.isEmpty()) {
+                K key = mMain.keySet().iterator().next();
+                Entry entry = mMain.remove(key);
+                if (entry.mFrequency > 0) {
+                    entry.mFrequency--;
+                    mMain.put(key, entry);
+                } else {
+                    mEntries.remove(key);
+                    return key;
+                }
+            } else {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        mEntries.clear();
+        mSmall.clear();
+        mMain.clear();
+        mGhost.clear();
+        mSmallSize = 0;
+    }
+
+    /**
+     * Remember an evicted key, keeping as many ghosts as entries in the cache.
+     */
+    private void addGhost(K key) {
+        mGhost.add(key);
+        Iterator<K> iterator = mGhost.iterator();
+        while (mGhost.size() > Math.max(1, mEntries.size()) && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class Entry {
+        int mSize;
+        int mFrequency;
+        boolean mMain;
+
+        Entry(int size) {
+            mSize = size;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.iagocanalejas.dualcache.stats;
+
+/**
+ * Immutable snapshot of the statistics of a cache, see {@link StatsCounter}.
+ * <p>
+ * Every lookup reaching the RAM layer is either a RAM hit or a RAM miss, RAM misses reaching the
+ * disk layer are either a disk hit or a disk miss. Expired entries are counted as misses of the
+ * layer they were found in. Lookups answered by the negative cache are not counted.
+ */
+public final class CacheStats {
+
+    private final long mRamHitCount;
+    private final long mRamMissCount;
+    private final long mDiskHitCount;
+    private final long mDiskMissCount;
+    private final long mPromotionCount;
+    private final long mRamEvictionCount;
+    private final long mRamExpirationCount;
+    private final long mDiskExpirationCount;
+    private final long mLoadSuccessCount;
+    private final long mLoadFailureCount;
+
+    private final LatencyHistogram mSerialization;
+    private final LatencyHistogram mDeserialization;
+    private final LatencyHistogram mDiskReads;
+    private final LatencyHistogram mDiskWrites;
+    private final LatencyHistogram mLoads;
+
+    CacheStats(long ramHitCount, long ramMissCount, long diskHitCount, long diskMissCount,
+               long promotionCount, long ramEvictionCount, long ramExpirationCount,
+               long diskExpirationCount, long loadSuccessCount, long loadFailureCount,
+               LatencyHistogram serialization, LatencyHistogram deserialization,
+               LatencyHistogram diskReads, LatencyHistogram diskWrites,
+               LatencyHistogram loads) {
+        this.mRamHitCount = ramHitCount;
+        this.mRamMissCount = ramMissCount;
+        this.mDiskHitCount = diskHitCount;
+        this.mDiskMissCount = diskMissCount;
+        this.mPromotionCount = promotionCount;
+        this.mRamEvictionCount = ramEvictionCount;
+        this.mRamExpirationCount = ramExpirationCount;
+        this.mDiskExpirationCount = diskExpirationCount;
+        this.mLoadSuccessCount = loadSuccessCount;
+        this.mLoadFailureCount = loadFailureCount;
+        this.mSerialization = serialization;
+        this.mDeserialization = deserialization;
+        this.mDiskReads = diskReads;
+        this.mDiskWrites = diskWrites;
+        this.mLoads = loads;
+    }
+
+    public long getRamHitCount() {
+        return mRamHitCount;
+    }
+
+    public long getRamMissCount() {
+        return mRamMissCount;
+    }
+
+    public long getDiskHitCount() {
+        return mDiskHitCount;
+    }
+
+    public long getDiskMissCount() {
+        return mDiskMissCount;
+    }
+
+    /**
+     * @return number of lookups, the ones of a cache without RAM layer are only counted by the
+     * disk layer.
+     */
+    public long getRequestCount() {
+        return (mRamHitCount + mRamMissCount > 0)
+                ? mRamHitCount + mRamMissCount
+                : mDiskHitCount + mDiskMissCount;
+    }
+
+    /**
+     * @return number of lookups found in any layer.
+     */
+    public long getHitCount() {
+        return mRamHitCount + mDiskHitCount;
+    }
+
+    /**
+     * @return number of lookups not found in any layer.
+     */
+    public long getMissCount() {
+        return getRequestCount() - getHitCount();
+    }
+
+    /**
+     * @return ratio of lookups found in any layer, 1 if there were no lookups.
+     */
+    public double getHitRate() {
+        return rate(getHitCount(), getRequestCount());
+    }
+
+    /**
+     * @return ratio of lookups found in RAM, 1 if there were no lookups.
+     */
+    public double getRamHitRate() {
+        return rate(mRamHitCount, mRamHitCount + mRamMissCount);
+    }
+
+    /**
+     * @return ratio of the disk lookups found in disk, 1 if there were no disk lookups.
+     */
+    public double getDiskHitRate() {
+        return rate(mDiskHitCount, mDiskHitCount + mDiskMissCount);
+    }
+
+    /**
+     * @return number of entries read from disk and stored in RAM.
+     */
+    public long getPromotionCount() {
+        return mPromotionCount;
+    }
+
+    /**
+     * @return number of entries evicted from RAM to keep it under its maximum size, 0 if the RAM
+     * layer does not count them.
+     */
+    public long getRamEvictionCount() {
+        return mRamEvictionCount;
+    }
+
+    /**
+     * @return number of volatile entries removed from RAM because they expired.
+     */
+    public long getRamExpirationCount() {
+        return mRamExpirationCount;
+    }
+
+    /**
+     * @return number of volatile entries found expired in disk.
+     */
+    public long getDiskExpirationCount() {
+        return mDiskExpirationCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return mLoadSuccessCount;
+    }
+
+    /**
+     * @return number of loads returning no object or throwing an exception.
+     */
+    public long getLoadFailureCount() {
+        return mLoadFailureCount;
+    }
+
+    /**
+     * @return latencies of the objects serialization, for any layer.
+     */
+    public LatencyHistogram getSerializationLatency() {
+        return mSerialization;
+    }
+
+    /**
+     * @return latencies of the objects deserialization, for any layer.
+     */
+    public LatencyHistogram getDeserializationLatency() {
+        return mDeserialization;
+    }
+
+    /**
+     * @return latencies of the entries read from the disk files.
+     */
+    public LatencyHistogram getDiskReadLatency() {
+        return mDiskReads;
+    }
+
+    /**
+     * @return latencies of the entries written to the disk files.
+     */
+    public LatencyHistogram getDiskWriteLatency() {
+        return mDiskWrites;
+    }
+
+    /**
+     * @return latencies of the loads, either successful or not.
+     */
+    public LatencyHistogram getLoadLatency() {
+        return mLoads;
+    }
+
+    private static double rate(long count, long total) {
+        return (total == 0) ? 1.0 : (double) count / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{ramHitCount=" + mRamHitCount
+                + ", ramMissCount=" + mRamMissCount
+                + ", diskHitCount=" + mDiskHitCount
+                + ", diskMissCount=" + mDiskMissCount
+                + ", promotionCount=" + mPromotionCount
+                + ", ramEvictionCount=" + mRamEvictionCount
+                + ", ramExpirationCount=" + mRamExpirationCount
+                + ", diskExpirationCount=" + mDiskExpirationCount
+                + ", loadSuccessCount=" + mLoadSuccessCount
+                + ", loadFailureCount=" + mLoadFailureCount
+                + ", serialization=" + mSerialization
+                + ", deserialization=" + mDeserialization
+                + ", diskReads=" + mDiskReads
+                + ", diskWrites=" + mDiskWrites
+                + ", loads=" + mLoads + "}";
+    }
+}
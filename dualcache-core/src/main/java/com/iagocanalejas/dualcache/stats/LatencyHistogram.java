@@ -0,0 +1,109 @@
+package com.iagocanalejas.dualcache.stats;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of the latencies recorded for an operation. Latencies are counted in buckets
+ * of powers of two nanoseconds: bucket 0 holds latencies of 0 ns and bucket i the ones in
+ * [2^(i-1), 2^i) ns. The last bucket also holds all the latencies above it, about 4.5 minutes.
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKETS = 40;
+
+    private final long[] mCounts;
+    private final long mTotalNanos;
+
+    LatencyHistogram(long[] counts, long totalNanos) {
+        this.mCounts = counts;
+        this.mTotalNanos = totalNanos;
+    }
+
+    /**
+     * @param nanos recorded latency.
+     * @return bucket counting the latency.
+     */
+    static int bucketOf(long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * @param bucket index of the bucket.
+     * @return latencies below this number of nanoseconds are in the bucket or a lower one.
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+        return 1L << bucket;
+    }
+
+    /**
+     * @param bucket index of the bucket.
+     * @return number of latencies in the bucket.
+     */
+    public long getBucketCount(int bucket) {
+        return mCounts[bucket];
+    }
+
+    /**
+     * @return number of recorded latencies.
+     */
+    public long getCount() {
+        long count = 0;
+        for (long bucketCount : mCounts) {
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    /**
+     * @return sum of the recorded latencies in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return mTotalNanos;
+    }
+
+    /**
+     * @return average latency in nanoseconds, 0 if no latency was recorded.
+     */
+    public double getAverageNanos() {
+        long count = getCount();
+        return (count == 0) ? 0 : (double) mTotalNanos / count;
+    }
+
+    /**
+     * Approximate a percentile by the upper bound of the bucket it falls in, so it is never
+     * lower than the real one and at most twice it.
+     *
+     * @param percentile between 0 and 100.
+     * @return upper bound of the percentile in nanoseconds, 0 if no latency was recorded.
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += mCounts[i];
+            if (seen >= rank) {
+                return getBucketUpperBoundNanos(i);
+            }
+        }
+        return getBucketUpperBoundNanos(BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{count=" + getCount()
+                + ", averageNanos=" + (long) getAverageNanos()
+                + ", p50Nanos=" + getPercentileNanos(50)
+                + ", p99Nanos=" + getPercentileNanos(99)
+                + ", buckets=" + Arrays.toString(mCounts) + "}";
+    }
+}
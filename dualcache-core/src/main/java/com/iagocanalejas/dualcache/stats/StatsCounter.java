@@ -0,0 +1,232 @@
+package com.iagocanalejas.dualcache.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the statistics of a cache with low contention: every counter and histogram bucket is
+ * striped, each thread updates the stripe chosen by its id and a snapshot sums all of them.
+ * Stripes are laid out one after the other in a single array, so threads on different stripes
+ * rarely write the same cache line.
+ * <p>
+ * A disabled counter, see {@link #disabled()}, ignores everything and does not read the clock.
+ * Snapshots and resets are not atomic, updates running meanwhile may be partially seen.
+ */
+public class StatsCounter {
+
+    private static final int MAX_STRIPES = 16;
+
+    // Counters
+    private static final int RAM_HITS = 0;
+    private static final int RAM_MISSES = 1;
+    private static final int DISK_HITS = 2;
+    private static final int DISK_MISSES = 3;
+    private static final int PROMOTIONS = 4;
+    private static final int RAM_EXPIRATIONS = 5;
+    private static final int DISK_EXPIRATIONS = 6;
+    private static final int LOAD_SUCCESSES = 7;
+    private static final int LOAD_FAILURES = 8;
+    private static final int COUNTERS = 9;
+
+    // Histograms, each made of its buckets followed by the total of nanoseconds
+    private static final int SERIALIZATION = 0;
+    private static final int DESERIALIZATION = 1;
+    private static final int DISK_READS = 2;
+    private static final int DISK_WRITES = 3;
+    private static final int LOADS = 4;
+    private static final int HISTOGRAMS = 5;
+    private static final int HISTOGRAM_CELLS = LatencyHistogram.BUCKETS + 1;
+
+    // Cells of a stripe, rounded to a multiple of a 64 bytes cache line
+    private static final int STRIPE_CELLS = (COUNTERS + HISTOGRAMS * HISTOGRAM_CELLS + 7) & ~7;
+
+    private static final StatsCounter DISABLED = new StatsCounter(0);
+
+    private final AtomicLongArray mCells;
+    private final int mMask;
+
+    public StatsCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    private StatsCounter(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            mCells = null;
+            mMask = 0;
+            return;
+        }
+        int stripes = 1;
+        while (stripes < concurrencyLevel && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        mCells = new AtomicLongArray(stripes * STRIPE_CELLS);
+        mMask = stripes - 1;
+    }
+
+    /**
+     * @return a counter ignoring everything, its snapshots are always empty.
+     */
+    public static StatsCounter disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return mCells != null;
+    }
+
+    /**
+     * Read the clock to measure a latency, see {@link System#nanoTime()}.
+     *
+     * @return current time in nanoseconds, or 0 if the counter is disabled.
+     */
+    public long time() {
+        return (mCells != null) ? System.nanoTime() : 0;
+    }
+
+    public void recordRamHit() {
+        increment(RAM_HITS);
+    }
+
+    public void recordRamMiss() {
+        increment(RAM_MISSES);
+    }
+
+    public void recordDiskHit() {
+        increment(DISK_HITS);
+    }
+
+    public void recordDiskMiss() {
+        increment(DISK_MISSES);
+    }
+
+    /**
+     * Record an entry read from disk being stored in RAM.
+     */
+    public void recordPromotion() {
+        increment(PROMOTIONS);
+    }
+
+    public void recordRamExpiration() {
+        increment(RAM_EXPIRATIONS);
+    }
+
+    public void recordDiskExpiration() {
+        increment(DISK_EXPIRATIONS);
+    }
+
+    /**
+     * @param start time returned by {@link #time()} before the object was serialized.
+     */
+    public void recordSerialization(long start) {
+        recordLatency(SERIALIZATION, start);
+    }
+
+    /**
+     * @param start time returned by {@link #time()} before the object was deserialized.
+     */
+    public void recordDeserialization(long start) {
+        recordLatency(DESERIALIZATION, start);
+    }
+
+    /**
+     * @param start time returned by {@link #time()} before the disk was read.
+     */
+    public void recordDiskRead(long start) {
+        recordLatency(DISK_READS, start);
+    }
+
+    /**
+     * @param start time returned by {@link #time()} before the disk was written.
+     */
+    public void recordDiskWrite(long start) {
+        recordLatency(DISK_WRITES, start);
+    }
+
+    /**
+     * @param start time returned by {@link #time()} before the load started.
+     */
+    public void recordLoadSuccess(long start) {
+        increment(LOAD_SUCCESSES);
+        recordLatency(LOADS, start);
+    }
+
+    /**
+     * Record a load returning no object or throwing an exception.
+     *
+     * @param start time returned by {@link #time()} before the load started.
+     */
+    public void recordLoadFailure(long start) {
+        increment(LOAD_FAILURES);
+        recordLatency(LOADS, start);
+    }
+
+    /**
+     * Sum all the stripes.
+     *
+     * @param ramEvictions number of entries evicted from RAM, counted by the RAM layer itself.
+     * @return statistics recorded since the counter was created or reset.
+     */
+    public CacheStats snapshot(long ramEvictions) {
+        long[] counters = new long[COUNTERS];
+        long[][] buckets = new long[HISTOGRAMS][LatencyHistogram.BUCKETS];
+        long[] totals = new long[HISTOGRAMS];
+        if (mCells != null) {
+            for (int stripe = 0; stripe <= mMask; stripe++) {
+                int base = stripe * STRIPE_CELLS;
+                for (int i = 0; i < COUNTERS; i++) {
+                    counters[i] += mCells.get(base + i);
+                }
+                for (int h = 0; h < HISTOGRAMS; h++) {
+                    int histogram = base + COUNTERS + h * HISTOGRAM_CELLS;
+                    for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+                        buckets[h][i] += mCells.get(histogram + i);
+                    }
+                    totals[h] += mCells.get(histogram + LatencyHistogram.BUCKETS);
+                }
+            }
+        }
+
+        LatencyHistogram[] histograms = new LatencyHistogram[HISTOGRAMS];
+        for (int h = 0; h < HISTOGRAMS; h++) {
+            histograms[h] = new LatencyHistogram(buckets[h], totals[h]);
+        }
+        return new CacheStats(counters[RAM_HITS], counters[RAM_MISSES], counters[DISK_HITS],
+                counters[DISK_MISSES], counters[PROMOTIONS], ramEvictions,
+                counters[RAM_EXPIRATIONS], counters[DISK_EXPIRATIONS],
+                counters[LOAD_SUCCESSES], counters[LOAD_FAILURES],
+                histograms[SERIALIZATION], histograms[DESERIALIZATION],
+                histograms[DISK_READS], histograms[DISK_WRITES], histograms[LOADS]);
+    }
+
+    /**
+     * Set every counter and histogram back to zero.
+     */
+    public void reset() {
+        if (mCells != null) {
+            for (int i = 0; i < mCells.length(); i++) {
+                mCells.set(i, 0);
+            }
+        }
+    }
+
+    private void increment(int counter) {
+        if (mCells != null) {
+            mCells.incrementAndGet(stripe() + counter);
+        }
+    }
+
+    private void recordLatency(int histogram, long start) {
+        if (mCells != null) {
+            long nanos = System.nanoTime() - start;
+            int base = stripe() + COUNTERS + histogram * HISTOGRAM_CELLS;
+            mCells.incrementAndGet(base + LatencyHistogram.bucketOf(nanos));
+            mCells.addAndGet(base + LatencyHistogram.BUCKETS, Math.max(0, nanos));
+        }
+    }
+
+    /**
+     * @return first cell of the stripe of the current thread.
+     */
+    private int stripe() {
+        return ((int) Thread.currentThread().getId() & mMask) * STRIPE_CELLS;
+    }
+}
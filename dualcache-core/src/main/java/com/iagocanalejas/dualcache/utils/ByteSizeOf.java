@@ -0,0 +1,14 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+/**
+ * Size of serialized entries stored in RAM, their length in bytes.
+ */
+public class ByteSizeOf implements SizeOf<byte[]> {
+
+    @Override
+    public int sizeOf(byte[] object) {
+        return object.length;
+    }
+}
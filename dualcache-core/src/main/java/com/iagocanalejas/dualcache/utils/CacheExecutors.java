@@ -0,0 +1,81 @@
+package com.iagocanalejas.dualcache.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for the executors used by the cache to run disk operations out of the calling thread.
+ */
+public final class CacheExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private CacheExecutors() {
+    }
+
+    /**
+     * Create a bounded executor for disk I/O. Threads are only started when a task is submitted
+     * and die after being idle. When the queue is full new tasks are rejected, so disk work never
+     * runs on the calling thread.
+     *
+     * @param name            used as prefix for the thread names.
+     * @param threads         max number of threads running disk operations.
+     * @param maxPendingTasks max number of tasks waiting for a thread.
+     * @return the executor.
+     */
+    public static ThreadPoolExecutor newIoExecutor(String name, int threads, int maxPendingTasks) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(maxPendingTasks),
+                newThreadFactory(name + "-io-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create a single thread executor for optional work, like storing disk hits in RAM or
+     * refreshing entries. When the queue is full, or the executor is shut down, tasks are
+     * dropped so callers are never slowed down. Dropped futures are cancelled so nobody waits
+     * for them.
+     *
+     * @param name            used as prefix for the thread name.
+     * @param maxPendingTasks max number of tasks waiting for the thread.
+     * @return the executor.
+     */
+    public static Executor newDiscardingExecutor(String name, int maxPendingTasks) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(maxPendingTasks),
+                newThreadFactory(name + "-background-"),
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+                        if (task instanceof Future) {
+                            ((Future<?>) task).cancel(false);
+                        }
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        return new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.LogWriter;
+
+/**
+ * Entry point of every log of the library. Logs go to {@link java.util.logging} unless another
+ * {@link LogWriter} is set, the Android module sets one writing to logcat.
+ */
+public final class CacheLog {
+
+    private static volatile LogWriter sWriter = new JavaLogWriter();
+
+    private CacheLog() {
+    }
+
+    /**
+     * Replace the destination of the logs of all the caches.
+     *
+     * @param writer {@link LogWriter}.
+     */
+    public static void setWriter(LogWriter writer) {
+        if (writer == null) {
+            throw new IllegalArgumentException("Log writer can not be null");
+        }
+        sWriter = writer;
+    }
+
+    public static void info(String tag, String msg) {
+        sWriter.info(tag, msg);
+    }
+
+    public static void warning(String tag, String msg) {
+        sWriter.warning(tag, msg);
+    }
+
+    public static void error(String tag, String msg) {
+        sWriter.error(tag, msg);
+    }
+}
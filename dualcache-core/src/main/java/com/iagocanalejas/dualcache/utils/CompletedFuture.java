@@ -0,0 +1,62 @@
+package com.iagocanalejas.dualcache.utils;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Future} already holding its result, used to answer asynchronous calls that can be
+ * resolved on the calling thread without any thread hop, or that failed before running.
+ */
+public class CompletedFuture<V> implements Future<V> {
+
+    private final V mValue;
+    private final Throwable mFailure;
+
+    public CompletedFuture(V value) {
+        this(value, null);
+    }
+
+    private CompletedFuture(V value, Throwable failure) {
+        this.mValue = value;
+        this.mFailure = failure;
+    }
+
+    /**
+     * Create a future whose get methods throw an {@link ExecutionException} wrapping the cause.
+     *
+     * @param failure why the operation failed.
+     * @return the failed future.
+     */
+    public static <V> CompletedFuture<V> failed(Throwable failure) {
+        return new CompletedFuture<>(null, failure);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return true;
+    }
+
+    @Override
+    public V get() throws ExecutionException {
+        if (mFailure != null) {
+            throw new ExecutionException(mFailure);
+        }
+        return mValue;
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws ExecutionException {
+        return get();
+    }
+}
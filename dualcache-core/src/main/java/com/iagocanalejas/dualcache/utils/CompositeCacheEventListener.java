@@ -0,0 +1,59 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.CacheEventListener;
+
+import java.util.List;
+
+/**
+ * {@link CacheEventListener} forwarding every event to several listeners, in order.
+ */
+public class CompositeCacheEventListener implements CacheEventListener {
+
+    private final CacheEventListener[] mListeners;
+
+    public CompositeCacheEventListener(List<CacheEventListener> listeners) {
+        this.mListeners = listeners.toArray(new CacheEventListener[listeners.size()]);
+    }
+
+    @Override
+    public void onHit(String key, Layer layer) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onHit(key, layer);
+        }
+    }
+
+    @Override
+    public void onMiss(String key, Layer layer) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onMiss(key, layer);
+        }
+    }
+
+    @Override
+    public void onPut(String key) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onPut(key);
+        }
+    }
+
+    @Override
+    public void onEvict(String key) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onEvict(key);
+        }
+    }
+
+    @Override
+    public void onExpire(String key, Layer layer) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onExpire(key, layer);
+        }
+    }
+
+    @Override
+    public void onPromote(String key) {
+        for (CacheEventListener listener : mListeners) {
+            listener.onPromote(key);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.iagocanalejas.dualcache.utils;
+
+/**
+ * Count-min sketch estimating how often keys have been accessed, with 4 bit counters and
+ * periodic aging. Every time the number of recorded accesses reaches 10 times the capacity all
+ * the counters are halved, so old popularity fades away.
+ * <p>
+ * Not thread safe.
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_FREQUENCY = 15;
+
+    // Each long holds 16 counters of 4 bits
+    private long[] mTable;
+    private int mTableMask;
+    private int mSampleSize;
+    private int mSize;
+
+    /**
+     * @param expectedEntries number of keys the frequencies are kept for.
+     */
+    public FrequencySketch(int expectedEntries) {
+        resize(expectedEntries);
+    }
+
+    /**
+     * Grow the sketch if it is too small for the given number of keys, losing the recorded
+     * frequencies.
+     *
+     * @param expectedEntries number of keys the frequencies are kept for.
+     */
+    public void ensureCapacity(int expectedEntries) {
+        if (expectedEntries > mTable.length) {
+            resize(expectedEntries);
+        }
+    }
+
+    /**
+     * @param key to check.
+     * @return estimated number of accesses to the key, at most 15.
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((mTable[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record an access to the key, aging all the counters if the sample is complete.
+     *
+     * @param key accessed.
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++mSize == mSampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Forget all the recorded accesses.
+     */
+    public void clear() {
+        mTable = new long[mTable.length];
+        mSize = 0;
+    }
+
+    private void resize(int expectedEntries) {
+        int length = 8;
+        while (length < expectedEntries && length < (1 << 30)) {
+            length <<= 1;
+        }
+        mTable = new long[length];
+        mTableMask = length - 1;
+        mSampleSize = 10 * length;
+        mSize = 0;
+    }
+
+    /**
+     * @param index of the long holding the counter.
+     * @param j     counter in the long, from 0 to 15.
+     * @return true if the counter was not at its maximum.
+     */
+    private boolean incrementAt(int index, int j) {
+        int offset = j << 2;
+        long mask = 0xfL << offset;
+        if ((mTable[index] & mask) != mask) {
+            mTable[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halve all the counters.
+     */
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < mTable.length; i++) {
+            odd += Long.bitCount(mTable[i] & ONE_MASK);
+            mTable[i] = (mTable[i] >>> 1) & RESET_MASK;
+        }
+        mSize = (mSize >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long value = (hash + SEEDS[i]) * SEEDS[i];
+        value += value >>> 32;
+        return ((int) value) & mTableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,27 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.LogWriter;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link LogWriter} using {@link java.util.logging}, the tag is the name of the logger.
+ */
+public class JavaLogWriter implements LogWriter {
+
+    @Override
+    public void info(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.INFO, msg);
+    }
+
+    @Override
+    public void warning(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.WARNING, msg);
+    }
+
+    @Override
+    public void error(String tag, String msg) {
+        Logger.getLogger(tag).log(Level.SEVERE, msg);
+    }
+}
@@ -0,0 +1,243 @@
+package com.iagocanalejas.dualcache.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded map evicting the least recently used entries, with the same contract as the
+ * Android {@code LruCache} the RAM caches used to extend so they also run on plain JVMs.
+ * <p>
+ * All the operations lock on the cache itself, subclasses can hold that lock to make several
+ * operations atomic. {@link #entryRemoved} is called without holding it.
+ *
+ * @param <K> is the class of the keys.
+ * @param <V> is the class of the values.
+ */
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> mMap;
+    private int mSize;
+    private int mMaxSize;
+    private int mEvictionCount;
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *                the maximum number of entries in the cache. For all other caches,
+     *                this is the maximum sum of the sizes of the entries in this cache.
+     */
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        // Insertion ordered, accessed entries are moved to the end so peek can skip it
+        mMap = new LinkedHashMap<>(0, 0.75f);
+    }
+
+    /**
+     * @return the value of the key, which becomes the most recently used entry, or null.
+     */
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        synchronized (this) {
+            V value = mMap.remove(key);
+            if (value != null) {
+                mMap.put(key, value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return the value of the key or null, without changing the order of the entries.
+     */
+    public final V peek(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        synchronized (this) {
+            return mMap.get(key);
+        }
+    }
+
+    /**
+     * Store a value as the most recently used entry, evicting entries if the cache overflows.
+     *
+     * @return the previous value of the key or null.
+     */
+    public final V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+        V previous;
+        synchronized (this) {
+            mSize += safeSizeOf(key, value);
+            previous = mMap.remove(key);
+            mMap.put(key, value);
+            if (previous != null) {
+                mSize -= safeSizeOf(key, previous);
+            }
+        }
+        if (previous != null) {
+            entryRemoved(false, key, previous, value);
+        }
+        trimToSize(mMaxSize);
+        return previous;
+    }
+
+    /**
+     * Store a value as the most recently used entry only if the key has none, evicting entries
+     * if the cache overflows.
+     *
+     * @return the existing value of the key, or null if the given one was stored.
+     */
+    public final V putIfAbsent(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+        synchronized (this) {
+            V current = mMap.get(key);
+            if (current != null) {
+                return current;
+            }
+            mSize += safeSizeOf(key, value);
+            mMap.put(key, value);
+        }
+        trimToSize(mMaxSize);
+        return null;
+    }
+
+    /**
+     * @return the removed value of the key or null.
+     */
+    public final V remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        V previous;
+        synchronized (this) {
+            previous = mMap.remove(key);
+            if (previous != null) {
+                mSize -= safeSizeOf(key, previous);
+            }
+        }
+        if (previous != null) {
+            entryRemoved(false, key, previous, null);
+        }
+        return previous;
+    }
+
+    /**
+     * Remove a key only if it is still mapped to the given instance, so a value stored
+     * meanwhile by another thread is kept.
+     *
+     * @return true if the value was removed.
+     */
+    public final boolean remove(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+        synchronized (this) {
+            if (mMap.get(key) != value) {
+                return false;
+            }
+            mMap.remove(key);
+            mSize -= safeSizeOf(key, value);
+        }
+        entryRemoved(false, key, value, null);
+        return true;
+    }
+
+    /**
+     * Evict the least recently used entries until the cache is not bigger than the given size.
+     *
+     * @param maxSize to reach, -1 evicts every entry.
+     */
+    public void trimToSize(int maxSize) {
+        while (true) {
+            K key;
+            V value;
+            synchronized (this) {
+                if (mSize <= maxSize || mMap.isEmpty()) {
+                    break;
+                }
+                Iterator<Map.Entry<K, V>> iterator = mMap.entrySet().iterator();
+                Map.Entry<K, V> eldest = iterator.next();
+                key = eldest.getKey();
+                value = eldest.getValue();
+                iterator.remove();
+                mSize -= safeSizeOf(key, value);
+                mEvictionCount++;
+            }
+            entryRemoved(true, key, value, null);
+        }
+    }
+
+    /**
+     * Evict every entry, calling {@link #entryRemoved} for each of them.
+     */
+    public final void evictAll() {
+        trimToSize(-1);
+    }
+
+    /**
+     * Called when an entry is evicted, removed or replaced.
+     *
+     * @param evicted  true if the entry was removed to make space.
+     * @param key      of the entry.
+     * @param oldValue removed value.
+     * @param newValue value replacing it, or null.
+     */
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {
+    }
+
+    /**
+     * @return the size of an entry in user defined units, 1 by default so the size of the cache
+     * is its number of entries. The size of an entry must not change while it is cached.
+     */
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    private int safeSizeOf(K key, V value) {
+        int size = sizeOf(key, value);
+        if (size < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return size;
+    }
+
+    /**
+     * @return the sum of the sizes of the entries.
+     */
+    public final synchronized int size() {
+        return mSize;
+    }
+
+    public final synchronized int maxSize() {
+        return mMaxSize;
+    }
+
+    /**
+     * @return number of entries evicted to make space.
+     */
+    public final synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * @return a copy of the entries, from the least to the most recently used.
+     */
+    public final synchronized Map<K, V> snapshot() {
+        return new LinkedHashMap<>(mMap);
+    }
+
+    @Override
+    public final synchronized String toString() {
+        return getClass().getSimpleName() + "[maxSize=" + mMaxSize + ", size=" + mSize
+                + ", evictions=" + mEvictionCount + "]";
+    }
+}
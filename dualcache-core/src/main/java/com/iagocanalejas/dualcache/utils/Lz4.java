@@ -0,0 +1,192 @@
+package com.iagocanalejas.dualcache.utils;
+
+/**
+ * Compressor and decompressor for the LZ4 block format. Matches are found with a single hash
+ * table of previous positions, favouring speed over ratio.
+ */
+public final class Lz4 {
+
+    private static final int MIN_MATCH = 4;
+    // The last 5 bytes are always literals and the last match starts 12 bytes before the end
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 15;
+
+    private Lz4() {
+    }
+
+    /**
+     * @param length of the data to compress.
+     * @return max size of the compressed data.
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress a region of a byte array.
+     *
+     * @param src    data to compress.
+     * @param offset of the first byte to compress.
+     * @param length number of bytes to compress.
+     * @param dst       where the compressed data is written, with room for at least
+     *                  {@link #maxCompressedLength(int)} bytes.
+     * @param dstOffset of the first compressed byte inside dst.
+     * @return number of bytes written to dst.
+     */
+    public static int compress(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int end = offset + length;
+        int anchor = offset;
+        int out = dstOffset;
+
+        if (length >= MF_LIMIT + 1) {
+            // Positions plus one, zero is empty
+            int[] table = new int[1 << HASH_LOG];
+            int limit = end - MF_LIMIT;
+            int position = offset;
+            while (position < limit) {
+                int sequence = readInt(src, position);
+                int hash = hash(sequence);
+                int reference = table[hash] - 1;
+                table[hash] = position + 1;
+                if (reference < 0 || position - reference > MAX_OFFSET
+                        || readInt(src, reference) != sequence) {
+                    // Skip faster over data that does not compress
+                    position += 1 + ((position - anchor) >>> 6);
+                    continue;
+                }
+
+                int matchLength = MIN_MATCH;
+                while (position + matchLength < end - LAST_LITERALS
+                        && src[reference + matchLength] == src[position + matchLength]) {
+                    matchLength++;
+                }
+                int token = out;
+                out = writeLiterals(src, anchor, position - anchor, dst, out);
+                dst[out++] = (byte) (position - reference);
+                dst[out++] = (byte) ((position - reference) >>> 8);
+                dst[token] |= (byte) Math.min(matchLength - MIN_MATCH, RUN_MASK);
+                out = writeExtraLength(matchLength - MIN_MATCH, dst, out);
+                position += matchLength;
+                anchor = position;
+            }
+        }
+
+        return writeLiterals(src, anchor, end - anchor, dst, out) - dstOffset;
+    }
+
+    /**
+     * Decompress a block.
+     *
+     * @param src              compressed data.
+     * @param offset           of the first compressed byte.
+     * @param length           number of compressed bytes.
+     * @param decompressedSize exact size of the original data.
+     * @return the original data.
+     * @throws IllegalArgumentException if the data is not a valid block of the given size.
+     */
+    public static byte[] decompress(byte[] src, int offset, int length, int decompressedSize) {
+        byte[] dst = new byte[decompressedSize];
+        int end = offset + length;
+        int in = offset;
+        int out = 0;
+        try {
+            // Every read is checked against the end of the block, not of the array
+            while (true) {
+                checkBlock(in < end);
+                int token = src[in++] & 0xff;
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int b;
+                    do {
+                        checkBlock(in < end);
+                        b = src[in++] & 0xff;
+                        literals += b;
+                    } while (b == 255);
+                }
+                checkBlock(literals <= end - in);
+                System.arraycopy(src, in, dst, out, literals);
+                in += literals;
+                out += literals;
+                if (in == end) {
+                    break;
+                }
+
+                checkBlock(end - in >= 2);
+                int distance = (src[in] & 0xff) | ((src[in + 1] & 0xff) << 8);
+                in += 2;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        checkBlock(in < end);
+                        b = src[in++] & 0xff;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int from = out - distance;
+                checkBlock(distance > 0 && from >= 0 && out + matchLength <= dst.length);
+                if (distance >= matchLength) {
+                    System.arraycopy(dst, from, dst, out, matchLength);
+                    out += matchLength;
+                } else {
+                    // Overlapping copy repeats the last bytes
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[out++] = dst[from + i];
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed LZ4 block", e);
+        }
+        checkBlock(out == decompressedSize);
+        return dst;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a block is not valid.
+     */
+    private static void checkBlock(boolean valid) {
+        if (!valid) {
+            throw new IllegalArgumentException("Malformed LZ4 block");
+        }
+    }
+
+    /**
+     * Write a token holding the literal length, followed by the literals. The match length of
+     * the token is left to the caller.
+     */
+    private static int writeLiterals(byte[] src, int start, int literals, byte[] dst, int out) {
+        dst[out++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+        out = writeExtraLength(literals, dst, out);
+        System.arraycopy(src, start, dst, out, literals);
+        return out + literals;
+    }
+
+    /**
+     * Write the part of a length that does not fit in its token.
+     */
+    private static int writeExtraLength(int length, byte[] dst, int out) {
+        if (length >= RUN_MASK) {
+            length -= RUN_MASK;
+            while (length >= 255) {
+                dst[out++] = (byte) 255;
+                length -= 255;
+            }
+            dst[out++] = (byte) length;
+        }
+        return out;
+    }
+
+    private static int readInt(byte[] data, int i) {
+        return (data[i] & 0xff) | ((data[i + 1] & 0xff) << 8) | ((data[i + 2] & 0xff) << 16)
+                | ((data[i + 3] & 0xff) << 24);
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
@@ -0,0 +1,34 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.CacheEventListener;
+
+/**
+ * {@link CacheEventListener} ignoring all the events, extend it to receive only some of them.
+ * It is the listener of the caches without any other, its calls are removed by the JIT.
+ */
+public class SimpleCacheEventListener implements CacheEventListener {
+
+    @Override
+    public void onHit(String key, Layer layer) {
+    }
+
+    @Override
+    public void onMiss(String key, Layer layer) {
+    }
+
+    @Override
+    public void onPut(String key) {
+    }
+
+    @Override
+    public void onEvict(String key) {
+    }
+
+    @Override
+    public void onExpire(String key, Layer layer) {
+    }
+
+    @Override
+    public void onPromote(String key) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.interfaces.Serializer;
+
+import java.nio.charset.Charset;
+
+/**
+ * Adapts a {@link Serializer} to the {@link ByteSerializer} interface encoding its output as
+ * UTF-8, which is the same charset used by previous versions of the disk layer, so already
+ * stored entries can still be read.
+ */
+public class StringByteSerializer<T> implements ByteSerializer<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Serializer<T> mSerializer;
+
+    public StringByteSerializer(Serializer<T> serializer) {
+        this.mSerializer = serializer;
+    }
+
+    /**
+     * @return the wrapped {@link Serializer}.
+     */
+    public Serializer<T> getSerializer() {
+        return mSerializer;
+    }
+
+    @Override
+    public T fromBytes(byte[] data, int offset, int length) {
+        return mSerializer.fromString(new String(data, offset, length, UTF_8));
+    }
+
+    @Override
+    public byte[] toBytes(T object) {
+        return mSerializer.toString(object).getBytes(UTF_8);
+    }
+}
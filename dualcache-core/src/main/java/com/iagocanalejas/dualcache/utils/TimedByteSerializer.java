@@ -0,0 +1,35 @@
+package com.iagocanalejas.dualcache.utils;
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.stats.StatsCounter;
+
+/**
+ * Wraps a {@link ByteSerializer} recording the latency of every serialization and
+ * deserialization in a {@link StatsCounter}.
+ */
+public class TimedByteSerializer<T> implements ByteSerializer<T> {
+
+    private final ByteSerializer<T> mSerializer;
+    private final StatsCounter mStats;
+
+    public TimedByteSerializer(ByteSerializer<T> serializer, StatsCounter stats) {
+        this.mSerializer = serializer;
+        this.mStats = stats;
+    }
+
+    @Override
+    public T fromBytes(byte[] data, int offset, int length) {
+        long start = mStats.time();
+        T object = mSerializer.fromBytes(data, offset, length);
+        mStats.recordDeserialization(start);
+        return object;
+    }
+
+    @Override
+    public byte[] toBytes(T object) {
+        long start = mStats.time();
+        byte[] data = mSerializer.toBytes(object);
+        mStats.recordSerialization(start);
+        return data;
+    }
+}
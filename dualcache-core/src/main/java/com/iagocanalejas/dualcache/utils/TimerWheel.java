@@ -0,0 +1,196 @@
+package com.iagocanalejas.dualcache.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel keeping the expiration time of keys, so expired keys can be found
+ * without scanning all of them.
+ * <p>
+ * Each level is a ring of buckets covering a power of two span of milliseconds, from about a
+ * second per bucket in the first level to about six and a half months in the last one. A key is
+ * placed in the lowest level whose ring covers its remaining time, and when the time advances past
+ * a bucket its keys are either expired or moved down to a more precise level. Scheduling,
+ * descheduling and expiring a key are O(1), keys are expired up to one bucket of the first level
+ * late.
+ * <p>
+ * All the methods are synchronized.
+ *
+ * @param <K> is the class of the keys.
+ */
+public class TimerWheel<K> {
+
+    private static final int BUCKETS = 64;
+    // Milliseconds per bucket of each level, as a shift, each level spans a bucket of the next
+    private static final int[] SHIFTS = {10, 16, 22, 28, 34};
+
+    private final Node<K>[][] mWheel;
+    private final HashMap<K, Node<K>> mNodes = new HashMap<>();
+    private volatile long mTime;
+
+    /**
+     * @param time current time in milliseconds.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long time) {
+        mTime = time;
+        mWheel = new Node[SHIFTS.length][BUCKETS];
+        for (Node<K>[] level : mWheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                level[i] = new Node<>(null, 0);
+            }
+        }
+    }
+
+    /**
+     * Set or replace the expiration time of a key.
+     *
+     * @param key        to expire.
+     * @param expiration time in milliseconds.
+     */
+    public synchronized void schedule(K key, long expiration) {
+        Node<K> node = mNodes.get(key);
+        if (node == null) {
+            node = new Node<>(key, expiration);
+            mNodes.put(key, node);
+        } else {
+            node.unlink();
+            node.mExpiration = expiration;
+        }
+        link(node);
+    }
+
+    /**
+     * Forget the expiration time of a key, if any.
+     *
+     * @param key not expiring anymore.
+     */
+    public synchronized void deschedule(K key) {
+        Node<K> node = mNodes.remove(key);
+        if (node != null) {
+            node.unlink();
+        }
+    }
+
+    /**
+     * @return number of scheduled keys.
+     */
+    public synchronized int size() {
+        return mNodes.size();
+    }
+
+    public synchronized void clear() {
+        for (Node<K> node : mNodes.values()) {
+            node.unlink();
+        }
+        mNodes.clear();
+    }
+
+    /**
+     * Advance the wheel to the given time, descheduling the keys expired by then. Calls that do
+     * not move the wheel to a new bucket of the first level return without locking.
+     *
+     * @param time current time in milliseconds.
+     * @return expired keys.
+     */
+    public List<K> advance(long time) {
+        if ((time >>> SHIFTS[0]) <= (mTime >>> SHIFTS[0])) {
+            return Collections.emptyList();
+        }
+        synchronized (this) {
+            long previous = mTime;
+            if (time <= previous) {
+                return Collections.emptyList();
+            }
+            mTime = time;
+
+            List<K> expired = new ArrayList<>();
+            for (int i = 0; i < SHIFTS.length; i++) {
+                long previousTicks = previous >>> SHIFTS[i];
+                long ticks = time >>> SHIFTS[i];
+                if (ticks == previousTicks) {
+                    // Higher levels can not have moved either
+                    break;
+                }
+                // From the last processed bucket to the current one, which may have keys
+                // expiring before the next bucket
+                int buckets = (int) Math.min(ticks - previousTicks + 1, BUCKETS);
+                for (int j = 0; j < buckets; j++) {
+                    expire(mWheel[i][(int) ((previousTicks + j) & (BUCKETS - 1))], expired);
+                }
+            }
+            return expired;
+        }
+    }
+
+    /**
+     * Empty a bucket, adding its expired keys to the list and rescheduling the other ones.
+     */
+    private void expire(Node<K> sentinel, List<K> expired) {
+        Node<K> node = sentinel.mNext;
+        sentinel.mPrevious = sentinel;
+        sentinel.mNext = sentinel;
+        while (node != sentinel) {
+            Node<K> next = node.mNext;
+            node.mPrevious = null;
+            node.mNext = null;
+            if (node.mExpiration <= mTime) {
+                mNodes.remove(node.mKey);
+                expired.add(node.mKey);
+            } else {
+                link(node);
+            }
+            node = next;
+        }
+    }
+
+    /**
+     * Add a node to the bucket of the lowest level covering its remaining time.
+     */
+    private void link(Node<K> node) {
+        long remaining = node.mExpiration - mTime;
+        int level = SHIFTS.length - 1;
+        for (int i = 0; i < SHIFTS.length - 1; i++) {
+            if (remaining < (1L << SHIFTS[i + 1])) {
+                level = i;
+                break;
+            }
+        }
+        // Keys already expired go to the current bucket so they are not skipped for a whole turn
+        long expiration = Math.max(node.mExpiration, mTime);
+        Node<K> sentinel = mWheel[level][(int) ((expiration >>> SHIFTS[level]) & (BUCKETS - 1))];
+
+        node.mPrevious = sentinel.mPrevious;
+        node.mNext = sentinel;
+        sentinel.mPrevious.mNext = node;
+        sentinel.mPrevious = node;
+    }
+
+    /**
+     * Element of the circular doubly linked list of a bucket, buckets have a sentinel node.
+     */
+    private static final class Node<K> {
+        final K mKey;
+        long mExpiration;
+        Node<K> mPrevious;
+        Node<K> mNext;
+
+        Node(K key, long expiration) {
+            mKey = key;
+            mExpiration = expiration;
+            mPrevious = this;
+            mNext = this;
+        }
+
+        void unlink() {
+            if (mPrevious != null) {
+                mPrevious.mNext = mNext;
+                mNext.mPrevious = mPrevious;
+                mPrevious = null;
+                mNext = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.iagocanalejas.dualcache.utils;
+
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+
+import java.nio.charset.Charset;
+
+/**
+ * Created by Iagocanalejas on 26/12/2016.
+ * Wraps the default {@link ByteSerializer} to add required timestamp value for volatile entries
+ * <p>
+ * Entries start with a fixed size header: a magic, the format version, a flags byte, reserved
+ * and always 0, and the timestamp as a big endian long. The payload follows the header, so the
+ * timestamp can be read without touching it. The magic is not valid UTF-8, so it can not be
+ * confused with entries of previous versions, which end with the timestamp in text after a
+ * separator. Those entries can still be read. Entries with the magic but another version or flags
+ * were written by a later version, or are corrupt, and can not be read, see
+ * {@link #isReadable(byte[], int, int)}.
+ *
+ * @see {@link VolatileEntry}
+ */
+public class VolatileSerializer<T> implements ByteSerializer<VolatileEntry<T>> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] TIMESTAMP_KEY = " timestamp_key:".getBytes(UTF_8);
+
+    private static final byte MAGIC_0 = (byte) 0xd1;
+    private static final byte MAGIC_1 = (byte) 0xce;
+    private static final byte VERSION = 1;
+    // Magic, version, flags and timestamp
+    private static final int HEADER_SIZE = 12;
+    private static final int TIMESTAMP_OFFSET = 4;
+
+    private ByteSerializer<T> mSerializer;
+
+    public VolatileSerializer(ByteSerializer<T> serializer) {
+        this.mSerializer = serializer;
+    }
+
+    /**
+     * Create a {@link VolatileEntry} from a byte array. The payload is never copied.
+     *
+     * @param data   is the byte array representing the serialized data.
+     * @param offset of the first serialized byte inside data.
+     * @param length number of serialized bytes.
+     * @return {@link VolatileEntry}
+     */
+    @Override
+    public VolatileEntry<T> fromBytes(byte[] data, int offset, int length) {
+        if (hasHeader(data, offset, length)) {
+            return new VolatileEntry<>(readTimestamp(data, offset),
+                    mSerializer.fromBytes(data, offset + HEADER_SIZE, length - HEADER_SIZE));
+        }
+        checkNotHeader(data, offset, length);
+
+        int separator = lastIndexOfTimestampKey(data, offset, offset + length);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Volatile entry without timestamp");
+        }
+        return new VolatileEntry<>(parseTimestamp(data, separator, offset + length),
+                mSerializer.fromBytes(data, offset, separator - offset));
+    }
+
+    /**
+     * Add the timestamp header to the serialized object
+     *
+     * @param object is the object to serialize.
+     * @return timestamp header + object serialized
+     */
+    @Override
+    public byte[] toBytes(VolatileEntry<T> object) {
+        byte[] payload = mSerializer.toBytes(object.getItem());
+        long timestamp = object.getTimestamp().getTime();
+
+        byte[] result = new byte[HEADER_SIZE + payload.length];
+        result[0] = MAGIC_0;
+        result[1] = MAGIC_1;
+        result[2] = VERSION;
+        result[3] = 0;
+        for (int i = 0; i < 8; i++) {
+            result[TIMESTAMP_OFFSET + i] = (byte) (timestamp >>> (56 - i * 8));
+        }
+        System.arraycopy(payload, 0, result, HEADER_SIZE, payload.length);
+        return result;
+    }
+
+    /**
+     * Read the timestamp of a serialized entry without deserializing its object.
+     *
+     * @param data   is the byte array representing the serialized data.
+     * @param offset of the first serialized byte inside data.
+     * @param length number of serialized bytes.
+     * @return the timestamp of the entry, 0 if it never expires.
+     */
+    public long timestampOf(byte[] data, int offset, int length) {
+        if (hasHeader(data, offset, length)) {
+            return readTimestamp(data, offset);
+        }
+        checkNotHeader(data, offset, length);
+        int separator = lastIndexOfTimestampKey(data, offset, offset + length);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Volatile entry without timestamp");
+        }
+        return parseTimestamp(data, separator, offset + length);
+    }
+
+    /**
+     * Check if a serialized entry can be read, either with the current header or in the format of
+     * previous versions. The other methods throw {@link IllegalArgumentException} for entries
+     * that can not be read.
+     *
+     * @param data   is the byte array representing the serialized data.
+     * @param offset of the first serialized byte inside data.
+     * @param length number of serialized bytes.
+     * @return false if the entry was written by a later version or is corrupt.
+     */
+    public boolean isReadable(byte[] data, int offset, int length) {
+        if (hasMagic(data, offset, length)) {
+            return hasHeader(data, offset, length);
+        }
+        return lastIndexOfTimestampKey(data, offset, offset + length) >= 0;
+    }
+
+    /**
+     * Check if a serialized entry was written by a previous version, in which case it should be
+     * written again to use the current format.
+     *
+     * @param data   is the byte array representing the serialized data.
+     * @param offset of the first serialized byte inside data.
+     * @param length number of serialized bytes.
+     * @return true if the entry does not have the timestamp header.
+     */
+    public boolean isLegacy(byte[] data, int offset, int length) {
+        return !hasMagic(data, offset, length);
+    }
+
+    private static boolean hasMagic(byte[] data, int offset, int length) {
+        return length >= 2 && data[offset] == MAGIC_0 && data[offset + 1] == MAGIC_1;
+    }
+
+    /**
+     * @return true if the entry has the magic and a header of the current version.
+     */
+    private static boolean hasHeader(byte[] data, int offset, int length) {
+        return length >= HEADER_SIZE && hasMagic(data, offset, length)
+                && data[offset + 2] == VERSION && data[offset + 3] == 0;
+    }
+
+    /**
+     * Fail for entries with the magic but an unknown header, instead of reading them as entries
+     * of previous versions.
+     */
+    private static void checkNotHeader(byte[] data, int offset, int length) {
+        if (hasMagic(data, offset, length)) {
+            throw new IllegalArgumentException("Unknown volatile entry header");
+        }
+    }
+
+    private static long readTimestamp(byte[] data, int offset) {
+        long timestamp = 0;
+        for (int i = 0; i < 8; i++) {
+            timestamp = (timestamp << 8) | (data[offset + TIMESTAMP_OFFSET + i] & 0xff);
+        }
+        return timestamp;
+    }
+
+    private static long parseTimestamp(byte[] data, int separator, int end) {
+        long timestamp = 0;
+        for (int i = separator + TIMESTAMP_KEY.length; i < end; i++) {
+            timestamp = timestamp * 10 + (data[i] - '0');
+        }
+        return timestamp;
+    }
+
+    private static int lastIndexOfTimestampKey(byte[] data, int offset, int end) {
+        outer:
+        for (int i = end - TIMESTAMP_KEY.length; i >= offset; i--) {
+            for (int j = 0; j < TIMESTAMP_KEY.length; j++) {
+                if (data[i + j] != TIMESTAMP_KEY[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
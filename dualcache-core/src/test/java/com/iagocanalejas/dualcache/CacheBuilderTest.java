@@ -0,0 +1,320 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.interfaces.CacheCallback;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Caches built without Android, with the disk layer in a temporary folder.
+ */
+public class CacheBuilderTest {
+    private static final int RAM_MAX_SIZE = 1000;
+    private static final int DISK_MAX_SIZE = 20 * RAM_MAX_SIZE;
+    private static final String CACHE_NAME = "test_jvm";
+    private static final int TEST_APP_VERSION = 0;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+    private DualCache<String, String> mCache;
+
+    @After
+    public void tearDown() throws Exception {
+        if (mCache != null) {
+            mCache.clear();
+            mCache.close();
+        }
+    }
+
+    @Test
+    public void testSerializerInRamAndDisk() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useByteSerializerInRam(RAM_MAX_SIZE, new Utf8Serializer())
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .build();
+        checkOperations(true);
+    }
+
+    @Test
+    public void testReferenceInRamNoDisk() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfString())
+                .noDisk()
+                .build();
+        checkOperations(false);
+    }
+
+    @Test
+    public void testVolatileDiskOnly() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .noRam()
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .useVolatileCache(60)
+                .build();
+        mCache.set("a", "1");
+        mCache.set("b", "2", 1);
+        Thread.sleep(10);
+
+        assertEquals("1", mCache.get("a"));
+        assertNull(mCache.get("b"));
+        assertFalse(mCache.contains("b"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRecursiveLoad() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfString())
+                .noDisk()
+                .build();
+        mCache.get("a", new CacheLoader<String, String>() {
+            @Override
+            public String load(String key) throws Exception {
+                return mCache.get(key, this);
+            }
+        });
+    }
+
+    @Test
+    public void testRefreshRunsInBackground() throws Exception {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final AtomicReference<Thread> loaderThread = new AtomicReference<>();
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfString())
+                .noDisk()
+                .useVolatileCache(60)
+                .useStaleWhileRevalidate(60)
+                .useRefreshLoader(new CacheLoader<String, String>() {
+                    @Override
+                    public String load(String key) throws Exception {
+                        loaderThread.set(Thread.currentThread());
+                        loaded.countDown();
+                        return "2";
+                    }
+                })
+                .build();
+        mCache.set("a", "1", 1);
+        Thread.sleep(10);
+
+        assertEquals("1", mCache.get("a"));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), loaderThread.get());
+    }
+
+    @Test
+    public void testAsyncExpiredEntryIsRemovedInExecutor() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfString())
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .useVolatileCache(60)
+                .useIoExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                })
+                .build();
+        mCache.set("a", "1", 1);
+        mCache.set("b", "2");
+        Thread.sleep(10);
+
+        assertEquals("2", mCache.getAsync("b").get());
+        Future<String> expired = mCache.getAsync("a");
+        assertEquals(1, tasks.size());
+        assertFalse(expired.isDone());
+        tasks.get(0).run();
+        assertNull(expired.get());
+        assertFalse(mCache.contains("a"));
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testAsyncRejectedOperationFails() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .noRam()
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .useIoExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        throw new RejectedExecutionException();
+                    }
+                })
+                .build();
+        mCache.getAsync("a").get();
+    }
+
+    @Test
+    public void testAsyncCallbacks() throws Exception {
+        final List<Runnable> tasks = new ArrayList<>();
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfString())
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .useIoExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        tasks.add(command);
+                    }
+                })
+                .build();
+        mCache.put("a", "1");
+
+        RecordingCallback<String> ramHit = new RecordingCallback<>();
+        mCache.getAsync("a", ramHit);
+        assertEquals("1", ramHit.mResult.get());
+        assertTrue(tasks.isEmpty());
+
+        mCache.clearRam();
+        RecordingCallback<String> diskHit = new RecordingCallback<>();
+        mCache.getAsync("a", diskHit);
+        assertNull(diskHit.mResult.get());
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals("1", diskHit.mResult.get());
+
+        RecordingCallback<String> removed = new RecordingCallback<>();
+        mCache.removeAsync("a", removed);
+        tasks.get(1).run();
+        assertEquals("1", removed.mResult.get());
+        assertNull(removed.mFailure.get());
+    }
+
+    @Test
+    public void testAsyncRejectedOperationCallsBack() throws Exception {
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .noRam()
+                .useByteSerializerInDisk(DISK_MAX_SIZE, mFolder.newFolder(),
+                        new Utf8Serializer())
+                .useIoExecutor(new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        throw new RejectedExecutionException();
+                    }
+                })
+                .build();
+        RecordingCallback<String> callback = new RecordingCallback<>();
+        mCache.putAsync("a", "1", callback);
+        assertTrue(callback.mFailure.get() instanceof RejectedExecutionException);
+        assertNull(callback.mResult.get());
+    }
+
+    @Test
+    public void testUnreadableVolatileEntryIsDeleted() throws Exception {
+        File folder = mFolder.newFolder();
+        DualCache<String, String> plain = new CacheBuilder<String, String>(CACHE_NAME,
+                TEST_APP_VERSION)
+                .noRam()
+                .useByteSerializerInDisk(DISK_MAX_SIZE, folder, new Latin1Serializer())
+                .build();
+        // Header of a later version of the volatile entries
+        char[] header = new char[12];
+        header[0] = 0xd1;
+        header[1] = 0xce;
+        header[2] = 2;
+        plain.set("a", new String(header));
+        plain.close();
+
+        mCache = new CacheBuilder<String, String>(CACHE_NAME, TEST_APP_VERSION)
+                .noRam()
+                .useByteSerializerInDisk(DISK_MAX_SIZE, folder, new Latin1Serializer())
+                .useVolatileCache(60)
+                .build();
+        assertTrue(mCache.contains("a"));
+        assertNull(mCache.get("a"));
+        assertFalse(mCache.contains("a"));
+    }
+
+    private void checkOperations(boolean hasDisk) {
+        assertNull(mCache.put("a", "1"));
+        assertEquals("1", mCache.get("a"));
+        assertEquals("1", mCache.put("a", "2"));
+        assertTrue(mCache.contains("a"));
+
+        mCache.clearRam();
+        assertEquals(hasDisk ? "2" : null, mCache.get("a"));
+        assertEquals(hasDisk, mCache.contains("a"));
+
+        mCache.set("b", "3");
+        assertEquals("3", mCache.remove("b"));
+        assertFalse(mCache.contains("b"));
+
+        mCache.clear();
+        assertNull(mCache.get("a"));
+    }
+
+    private static final class Utf8Serializer implements ByteSerializer<String> {
+        private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+        @Override
+        public String fromBytes(byte[] data, int offset, int length) {
+            return new String(data, offset, length, UTF_8);
+        }
+
+        @Override
+        public byte[] toBytes(String object) {
+            return object.getBytes(UTF_8);
+        }
+    }
+
+    private static final class Latin1Serializer implements ByteSerializer<String> {
+        private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+        @Override
+        public String fromBytes(byte[] data, int offset, int length) {
+            return new String(data, offset, length, ISO_8859_1);
+        }
+
+        @Override
+        public byte[] toBytes(String object) {
+            return object.getBytes(ISO_8859_1);
+        }
+    }
+
+    private static final class SizeOfString implements SizeOf<String> {
+        @Override
+        public int sizeOf(String object) {
+            return object.length();
+        }
+    }
+
+    private static final class RecordingCallback<T> implements CacheCallback<T> {
+        final AtomicReference<T> mResult = new AtomicReference<>();
+        final AtomicReference<Throwable> mFailure = new AtomicReference<>();
+
+        @Override
+        public void onSuccess(T result) {
+            mResult.set(result);
+        }
+
+        @Override
+        public void onFailure(Throwable failure) {
+            mFailure.set(failure);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CompressedDiskCacheTest {
+    private static final int MIN_SIZE = 64;
+    private static final byte[] TEXT = text(4096);
+    private static final byte[] SHORT = {1, 2, 3};
+    // Looks like the header of a compressed entry
+    private static final byte[] HEADER_LIKE = {0, (byte) 0xdc, 2, 0, 0, 0, 1, 9};
+
+    private final MapDiskCache mDisk = new MapDiskCache();
+
+    @Test
+    public void testRoundTrips() {
+        for (DualCacheCompressionMode mode : DualCacheCompressionMode.values()) {
+            CompressedDiskCache cache = new CompressedDiskCache(mDisk, mode, MIN_SIZE);
+            cache.put("text", TEXT);
+            cache.put("short", SHORT);
+
+            assertArrayEquals(TEXT, cache.get("text"));
+            assertArrayEquals(SHORT, cache.get("short"));
+            boolean compressed = !mode.equals(DualCacheCompressionMode.NONE);
+            assertEquals(compressed, mDisk.get("text").length < TEXT.length);
+            // Below the threshold entries are written as they are
+            assertArrayEquals(SHORT, mDisk.get("short"));
+        }
+    }
+
+    @Test
+    public void testEntriesOfAnyCodecAreRead() {
+        new CompressedDiskCache(mDisk, DualCacheCompressionMode.DEFLATE, MIN_SIZE)
+                .put("deflate", TEXT);
+        new CompressedDiskCache(mDisk, DualCacheCompressionMode.LZ4, MIN_SIZE)
+                .put("lz4", TEXT);
+        mDisk.put("plain", TEXT);
+
+        for (DualCacheCompressionMode mode : DualCacheCompressionMode.values()) {
+            CompressedDiskCache cache = new CompressedDiskCache(mDisk, mode, MIN_SIZE);
+            assertArrayEquals(TEXT, cache.get("deflate"));
+            assertArrayEquals(TEXT, cache.get("lz4"));
+            assertArrayEquals(TEXT, cache.get("plain"));
+
+            Map<String, byte[]> found = cache.getAll(Arrays.asList("deflate", "lz4", "plain"));
+            assertEquals(3, found.size());
+            assertArrayEquals(TEXT, found.get("lz4"));
+        }
+    }
+
+    @Test
+    public void testEntriesLookingLikeAHeaderAreEscaped() {
+        for (DualCacheCompressionMode mode : DualCacheCompressionMode.values()) {
+            CompressedDiskCache cache = new CompressedDiskCache(mDisk, mode, MIN_SIZE);
+            cache.put("header", HEADER_LIKE);
+
+            assertFalse(Arrays.equals(HEADER_LIKE, mDisk.get("header")));
+            assertArrayEquals(HEADER_LIKE, cache.get("header"));
+            assertArrayEquals(HEADER_LIKE, cache.remove("header"));
+        }
+    }
+
+    @Test
+    public void testIncompressibleEntriesAreWrittenAsTheyAre() {
+        byte[] random = new byte[1024];
+        new Random(42).nextBytes(random);
+        random[0] = 1;
+        for (DualCacheCompressionMode mode : DualCacheCompressionMode.values()) {
+            CompressedDiskCache cache = new CompressedDiskCache(mDisk, mode, MIN_SIZE);
+            cache.put("random", random);
+
+            assertArrayEquals(random, mDisk.get("random"));
+            assertArrayEquals(random, cache.get("random"));
+        }
+    }
+
+    @Test
+    public void testCorruptedEntriesAreMisses() {
+        CompressedDiskCache cache =
+                new CompressedDiskCache(mDisk, DualCacheCompressionMode.LZ4, MIN_SIZE);
+        cache.put("text", TEXT);
+        byte[] stored = mDisk.get("text");
+        mDisk.put("text", Arrays.copyOf(stored, stored.length / 2));
+        // Unknown codec
+        mDisk.put("unknown", new byte[]{0, (byte) 0xdc, 9, 0, 0, 0, 1, 9});
+
+        // Corrupted entries are deleted once read
+        assertFalse(cache.contains("text"));
+        assertFalse(mDisk.contains("text"));
+        assertNull(cache.get("unknown"));
+        assertFalse(mDisk.contains("unknown"));
+
+        cache.put("text", TEXT);
+        mDisk.put("truncated", Arrays.copyOf(stored, stored.length / 2));
+        Map<String, byte[]> found = cache.getAll(Arrays.asList("text", "truncated"));
+        assertEquals(1, found.size());
+        assertArrayEquals(TEXT, found.get("text"));
+        assertFalse(mDisk.contains("truncated"));
+        assertTrue(cache.contains("text"));
+    }
+
+    private static byte[] text(int length) {
+        byte[] text = new byte[length];
+        String words = "compressed disk cache entries ";
+        for (int i = 0; i < length; i++) {
+            text[i] = (byte) words.charAt(i % words.length());
+        }
+        return text;
+    }
+}
@@ -0,0 +1,220 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentRamCacheTest {
+    // Ring buffer capacity of the reads
+    private static final int READ_BUFFER_CAPACITY = 16;
+
+    private static final SizeOf<String> LENGTH = new SizeOf<String>() {
+        @Override
+        public int sizeOf(String object) {
+            return object.length();
+        }
+    };
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentRamCache<String> cache = newCache(3, evicted);
+        cache.put("a", "1");
+        cache.put("b", "1");
+        cache.put("c", "1");
+        assertEquals("1", cache.get("a"));
+
+        // Reads are applied to the order by the next write
+        cache.put("d", "1");
+        assertEquals(Arrays.asList("b"), evicted);
+        cache.put("e", "1");
+        assertEquals(Arrays.asList("b", "c"), evicted);
+        assertTrue(cache.contains("a"));
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    public void testPeekDoesNotChangeOrder() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentRamCache<String> cache = newCache(2, evicted);
+        cache.put("a", "1");
+        cache.put("b", "1");
+        assertEquals("1", cache.peek("a"));
+        cache.put("c", "1");
+        assertEquals(Arrays.asList("a"), evicted);
+    }
+
+    @Test
+    public void testFullReadBufferIsDrained() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentRamCache<String> cache = newCache(3, evicted);
+        cache.put("a", "1");
+        cache.put("b", "1");
+        cache.put("c", "1");
+
+        // The read that finds the buffer full is dropped and drains it, so "a" is still the
+        // most recently used and later reads fit again
+        for (int i = 0; i <= READ_BUFFER_CAPACITY; i++) {
+            cache.get("a");
+        }
+        for (int i = 0; i < 4 * READ_BUFFER_CAPACITY; i++) {
+            cache.get((i % 2 == 0) ? "a" : "b");
+        }
+        cache.get("b");
+        cache.put("d", "1");
+        assertEquals(Arrays.asList("c"), evicted);
+        cache.put("e", "1");
+        assertEquals(Arrays.asList("c", "a"), evicted);
+    }
+
+    @Test
+    public void testReplacedNodeInReadBuffer() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentRamCache<String> cache = newCache(2, evicted);
+        cache.put("a", "1");
+        cache.put("b", "1");
+        // The buffered node of "a" is removed before the buffer is drained, so it must not be
+        // linked again
+        cache.get("a");
+        assertEquals("1", cache.remove("a"));
+        cache.put("a", "2");
+        assertEquals(2, cache.size());
+
+        cache.get("b");
+        assertTrue(cache.remove("b", cache.peek("b")));
+        cache.put("c", "1");
+        cache.put("d", "1");
+        assertEquals(Arrays.asList("a"), evicted);
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.size());
+
+        cache.get("c");
+        cache.clear();
+        cache.put("e", "1");
+        cache.put("f", "1");
+        cache.put("g", "1");
+        assertEquals(Arrays.asList("a", "e"), evicted);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testWeightAccountingDuringEviction() {
+        List<String> evicted = new ArrayList<>();
+        ConcurrentRamCache<String> cache = newCache(10, evicted);
+        cache.put("a", "aaa");
+        cache.put("b", "bbb");
+        cache.put("c", "ccc");
+        assertEquals(9, cache.size());
+
+        // A heavy entry evicts as many entries as needed
+        cache.put("d", "ddddddd");
+        assertEquals(Arrays.asList("a", "b"), evicted);
+        assertEquals(10, cache.size());
+
+        // Replacing an entry counts its new weight only
+        assertEquals("ccc", cache.put("c", "c"));
+        assertEquals(8, cache.size());
+        assertEquals("c", cache.putIfAbsent("c", "cc"));
+        assertEquals(8, cache.size());
+        assertNull(cache.putIfAbsent("e", "ee"));
+        assertEquals(10, cache.size());
+
+        // An entry heavier than the cache does not stay
+        cache.put("f", "fffffffffff");
+        assertFalse(cache.contains("f"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNegativeSize() {
+        ConcurrentRamCache<String> cache = new ConcurrentRamCache<>(new SizeOf<String>() {
+            @Override
+            public int sizeOf(String object) {
+                return -1;
+            }
+        }, 10, 1);
+        cache.put("a", "value");
+    }
+
+    @Test
+    public void testConcurrentAccessKeepsSize() throws Exception {
+        final int maxSize = 200;
+        final int keys = 100;
+        final ConcurrentRamCache<String> cache = new ConcurrentRamCache<>(LENGTH, maxSize, 4);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final long seed = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        start.await();
+                        for (int i = 0; i < 20000; i++) {
+                            String key = "k" + random.nextInt(keys);
+                            switch (random.nextInt(10)) {
+                                case 0:
+                                    cache.put(key, new String(new char[1 + random.nextInt(10)]));
+                                    break;
+                                case 1:
+                                    cache.remove(key);
+                                    break;
+                                case 2:
+                                    cache.remove(key, cache.peek(key));
+                                    break;
+                                default:
+                                    cache.get(key);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+
+        int size = 0;
+        for (int i = 0; i < keys; i++) {
+            String value = cache.peek("k" + i);
+            if (value != null) {
+                size += value.length();
+            }
+        }
+        assertEquals(size, cache.size());
+        assertTrue(cache.size() <= maxSize);
+    }
+
+    private static ConcurrentRamCache<String> newCache(int maxSize, final List<String> evicted) {
+        ConcurrentRamCache<String> cache = new ConcurrentRamCache<>(LENGTH, maxSize, 1);
+        cache.setEvictionListener(new EvictionListener() {
+            @Override
+            public void onEviction(String key) {
+                evicted.add(key);
+            }
+        });
+        return cache;
+    }
+}
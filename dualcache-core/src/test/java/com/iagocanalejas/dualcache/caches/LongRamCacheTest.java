@@ -0,0 +1,172 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongRamCacheTest {
+    // Slots of the initial table
+    private static final int MASK = 15;
+
+    private static final SizeOf<String> LENGTH = new SizeOf<String>() {
+        @Override
+        public int sizeOf(String object) {
+            return object.length();
+        }
+    };
+
+    @Test
+    public void testCollidingKeysAcrossTheWrapPoint() {
+        // Keys probing from the last slot, so the following ones wrap to the start of the table
+        List<Long> keys = keysInSlot(MASK, 3);
+        keys.addAll(keysInSlot(0, 2));
+        LongRamCache<String> cache = new LongRamCache<>(LENGTH, Integer.MAX_VALUE);
+        Map<Long, String> expected = new HashMap<>();
+        for (long key : keys) {
+            cache.put(key, "v" + key);
+            expected.put(key, "v" + key);
+        }
+        check(cache, expected, keys);
+
+        // Removing the entries in front of the wrapped ones must shift them back
+        for (long key : keys) {
+            assertEquals(expected.remove(key), cache.remove(key));
+            check(cache, expected, keys);
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(42);
+        LongRamCache<String> cache = new LongRamCache<>(LENGTH, Integer.MAX_VALUE);
+        Map<Long, String> expected = new HashMap<>();
+        List<Long> keys = new ArrayList<>();
+        for (long key = 0; key < 40; key++) {
+            keys.add(key);
+        }
+        for (long key : keysInSlot(MASK, 4)) {
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+
+        for (int i = 0; i < 20000; i++) {
+            long key = keys.get(random.nextInt(keys.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    String value = "v" + i;
+                    assertEquals(expected.put(key, value), cache.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), cache.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), cache.get(key));
+            }
+            if (i % 100 == 0) {
+                check(cache, expected, keys);
+            }
+        }
+        check(cache, expected, keys);
+        cache.clear();
+        check(cache, new HashMap<Long, String>(), keys);
+    }
+
+    @Test
+    public void testSizeBoundUnderEviction() {
+        Random random = new Random(7);
+        int maxSize = 100;
+        LongRamCache<String> cache = new LongRamCache<>(LENGTH, maxSize);
+        Map<Long, String> written = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long key = random.nextInt(200);
+            String value = new String(new char[1 + random.nextInt(20)]);
+            cache.put(key, value);
+            written.put(key, value);
+            if (random.nextBoolean()) {
+                cache.get(random.nextInt(200));
+            }
+
+            assertTrue(cache.size() <= maxSize);
+            int size = 0;
+            for (Map.Entry<Long, String> entry : written.entrySet()) {
+                String cached = cache.get(entry.getKey());
+                if (cached != null) {
+                    assertEquals(entry.getValue(), cached);
+                    size += cached.length();
+                }
+            }
+            assertEquals(size, cache.size());
+        }
+    }
+
+    @Test
+    public void testEntryBiggerThanMaxSize() {
+        LongRamCache<String> cache = new LongRamCache<>(LENGTH, 10);
+        cache.put(1, "small");
+        assertEquals("small", cache.put(1, "much too big"));
+        assertFalse(cache.contains(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNegativeSize() {
+        LongRamCache<String> cache = new LongRamCache<>(new SizeOf<String>() {
+            @Override
+            public int sizeOf(String object) {
+                return -1;
+            }
+        }, 10);
+        cache.put(1, "value");
+    }
+
+    /**
+     * Compare every key of the cache with the expected map.
+     */
+    private static void check(LongRamCache<String> cache, Map<Long, String> expected,
+                              List<Long> keys) {
+        int size = 0;
+        for (long key : keys) {
+            String value = expected.get(key);
+            assertEquals(value != null, cache.contains(key));
+            assertEquals(value, cache.get(key));
+            if (value != null) {
+                size += value.length();
+            }
+        }
+        assertEquals(size, cache.size());
+        assertNull(cache.get(-1));
+    }
+
+    /**
+     * @return keys whose first probe in the initial table is the given slot, using the same
+     * mix as the cache.
+     */
+    private static List<Long> keysInSlot(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            long hash = key;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            if (((int) hash & MASK) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
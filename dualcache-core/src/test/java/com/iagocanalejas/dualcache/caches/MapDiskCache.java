@@ -0,0 +1,93 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.BulkCache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Disk layer kept in a map, to test the disk decorators without touching the file system.
+ * Batch writes can be slowed down to keep them in flight.
+ */
+class MapDiskCache implements BulkCache<String, byte[]> {
+
+    final Map<String, byte[]> mData = new ConcurrentHashMap<>();
+    volatile long mBatchDelayMillis;
+
+    @Override
+    public boolean contains(String key) {
+        return mData.containsKey(key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        return mData.get(key);
+    }
+
+    @Override
+    public byte[] put(String key, byte[] value) {
+        return mData.put(key, value);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (byte[] value : mData.values()) {
+            size += value.length;
+        }
+        return size;
+    }
+
+    @Override
+    public byte[] remove(String key) {
+        return mData.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        mData.clear();
+    }
+
+    @Override
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        Map<String, byte[]> found = new HashMap<>();
+        for (String key : keys) {
+            byte[] value = mData.get(key);
+            if (value != null) {
+                found.put(key, value);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<String, byte[]> entries) {
+        if (mBatchDelayMillis > 0) {
+            try {
+                Thread.sleep(mBatchDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        mData.putAll(entries);
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        for (String key : keys) {
+            mData.remove(key);
+        }
+    }
+
+    @Override
+    public void set(String key, byte[] value) {
+        mData.put(key, value);
+    }
+
+    @Override
+    public void delete(String key) {
+        mData.remove(key);
+    }
+}
@@ -0,0 +1,78 @@
+package com.iagocanalejas.dualcache.caches;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NegativeCacheTest {
+    private static final long ENTRY_LIFE = 60 * 1000;
+
+    @Test
+    public void testMarkAndInvalidate() {
+        NegativeCache cache = new NegativeCache(10, ENTRY_LIFE);
+        cache.markMissing("a", cache.startLookup("a"));
+        assertTrue(cache.isMissing("a"));
+
+        cache.invalidate("a");
+        assertFalse(cache.isMissing("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWriteDuringLookupIsNotRecorded() {
+        NegativeCache cache = new NegativeCache(10, ENTRY_LIFE);
+        Object lookup = cache.startLookup("a");
+        cache.invalidate("a");
+        cache.markMissing("a", lookup);
+
+        assertFalse(cache.isMissing("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWritesOfOtherKeysDoNotCancelLookups() {
+        NegativeCache cache = new NegativeCache(10, ENTRY_LIFE);
+        Object lookup = cache.startLookup("a");
+        cache.invalidate("b");
+        cache.markMissing("a", lookup);
+
+        assertTrue(cache.isMissing("a"));
+    }
+
+    @Test
+    public void testExpiredKeysAreForgotten() throws Exception {
+        NegativeCache cache = new NegativeCache(10, 1);
+        cache.markMissing("a", cache.startLookup("a"));
+        Thread.sleep(10);
+
+        assertFalse(cache.isMissing("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyMissedKeysAreEvicted() {
+        NegativeCache cache = new NegativeCache(2, ENTRY_LIFE);
+        cache.markMissing("a", cache.startLookup("a"));
+        cache.markMissing("b", cache.startLookup("b"));
+        assertTrue(cache.isMissing("a"));
+        cache.markMissing("c", cache.startLookup("c"));
+
+        assertTrue(cache.isMissing("a"));
+        assertFalse(cache.isMissing("b"));
+        assertTrue(cache.isMissing("c"));
+    }
+
+    @Test
+    public void testClear() {
+        NegativeCache cache = new NegativeCache(10, ENTRY_LIFE);
+        Object lookup = cache.startLookup("b");
+        cache.markMissing("a", cache.startLookup("a"));
+        cache.clear();
+        cache.markMissing("b", lookup);
+
+        assertFalse(cache.isMissing("a"));
+        assertFalse(cache.isMissing("b"));
+    }
+}
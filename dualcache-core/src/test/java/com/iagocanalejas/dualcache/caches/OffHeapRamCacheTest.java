@@ -0,0 +1,129 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A single slab of 640 bytes, split in 10 chunks of 64 bytes or 8 chunks of 80 bytes.
+ */
+public class OffHeapRamCacheTest {
+    private static final int SLAB_SIZE = 640;
+    private static final int SMALL_CHUNK = 64;
+    private static final int NEXT_CHUNK = 80;
+
+    private final List<String> mEvicted = new ArrayList<>();
+    private OffHeapRamCache mCache;
+
+    @Before
+    public void setUp() throws Exception {
+        mCache = new OffHeapRamCache(SLAB_SIZE);
+        mCache.setEvictionListener(new EvictionListener() {
+            @Override
+            public void onEviction(String key) {
+                mEvicted.add(key);
+            }
+        });
+    }
+
+    @Test
+    public void testSizeCountsChunks() {
+        mCache.put("a", bytes(10, 1));
+        assertEquals(SMALL_CHUNK, mCache.size());
+        mCache.put("b", bytes(SMALL_CHUNK, 2));
+        assertEquals(2 * SMALL_CHUNK, mCache.size());
+
+        assertArrayEquals(bytes(SMALL_CHUNK, 2), mCache.put("b", bytes(20, 3)));
+        assertEquals(2 * SMALL_CHUNK, mCache.size());
+        assertArrayEquals(bytes(20, 3), mCache.get("b"));
+
+        assertArrayEquals(bytes(10, 1), mCache.remove("a"));
+        assertEquals(SMALL_CHUNK, mCache.size());
+        mCache.clear();
+        assertEquals(0, mCache.size());
+        assertNull(mCache.get("b"));
+    }
+
+    @Test
+    public void testConditionalOperations() {
+        for (int i = 0; i < SLAB_SIZE / SMALL_CHUNK; i++) {
+            mCache.put("key" + i, bytes(10, i));
+        }
+        // Peeking does not make the entry recently used
+        assertArrayEquals(bytes(10, 0), mCache.peek("key0"));
+        assertArrayEquals(bytes(10, 1), mCache.putIfAbsent("key1", bytes(10, 42)));
+        assertNull(mCache.putIfAbsent("new", bytes(10, 42)));
+        assertEquals(Arrays.asList("key0"), mEvicted);
+
+        // Values are compared by content
+        assertFalse(mCache.remove("new", bytes(10, 1)));
+        assertTrue(mCache.remove("new", bytes(10, 42)));
+        assertFalse(mCache.contains("new"));
+    }
+
+    @Test
+    public void testEntriesBiggerThanASlabAreNotStored() {
+        mCache.put("a", bytes(SLAB_SIZE + 1, 1));
+
+        assertFalse(mCache.contains("a"));
+        assertEquals(0, mCache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedOfTheClass() {
+        for (int i = 0; i < SLAB_SIZE / SMALL_CHUNK; i++) {
+            mCache.put("key" + i, bytes(10, i));
+        }
+        mCache.get("key0");
+        mCache.put("new", bytes(10, 42));
+
+        assertEquals(Arrays.asList("key1"), mEvicted);
+        assertEquals(SLAB_SIZE, mCache.size());
+        assertArrayEquals(bytes(10, 0), mCache.get("key0"));
+        assertArrayEquals(bytes(10, 42), mCache.get("new"));
+    }
+
+    @Test
+    public void testSlabIsReassignedToAnEmptyClass() {
+        int entries = SLAB_SIZE / SMALL_CHUNK;
+        for (int i = 0; i < entries; i++) {
+            mCache.put("key" + i, bytes(10, i));
+        }
+        mCache.put("big", bytes(NEXT_CHUNK, 7));
+
+        // The only slab is emptied and given to the 80 bytes class
+        assertEquals(entries, mCache.evictionCount());
+        assertEquals(entries, mEvicted.size());
+        assertEquals(NEXT_CHUNK, mCache.size());
+        assertArrayEquals(bytes(NEXT_CHUNK, 7), mCache.get("big"));
+        for (int i = 0; i < entries; i++) {
+            assertFalse(mCache.contains("key" + i));
+        }
+
+        for (int i = 0; i < SLAB_SIZE / NEXT_CHUNK - 1; i++) {
+            mCache.put("big" + i, bytes(NEXT_CHUNK, i));
+        }
+        assertEquals(SLAB_SIZE, mCache.size());
+        assertEquals(entries, mCache.evictionCount());
+        assertTrue(mCache.contains("big"));
+    }
+
+    private static byte[] bytes(int length, int seed) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) (seed + i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,153 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.EvictionPolicy;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+import com.iagocanalejas.dualcache.policies.ArcPolicy;
+import com.iagocanalejas.dualcache.policies.LfuPolicy;
+import com.iagocanalejas.dualcache.policies.S3FifoPolicy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Entries evicted by {@link PolicyRamCache} with each {@link EvictionPolicy}. Every entry has
+ * size 1, so the max size is the number of entries.
+ */
+public class PolicyRamCacheTest {
+
+    private static final SizeOf<String> ONE = new SizeOf<String>() {
+        @Override
+        public int sizeOf(String object) {
+            return 1;
+        }
+    };
+
+    private final List<String> mEvicted = new ArrayList<>();
+
+    @Test
+    public void testLfuEvictsLeastFrequentThenOldest() {
+        PolicyRamCache<String> cache = newCache(3, new LfuPolicy<String>());
+        put(cache, "a", "b", "c");
+        cache.get("a");
+        cache.get("a");
+        cache.get("c");
+
+        // b and d are read once, b is older
+        put(cache, "d");
+        assertEvicted("b");
+        put(cache, "e");
+        assertEvicted("b", "d");
+
+        // A new entry is the least frequent one once the others are read more
+        cache.get("e");
+        cache.get("e");
+        put(cache, "f");
+        assertEvicted("b", "d", "f");
+        assertTrue(cache.contains("a") && cache.contains("c") && cache.contains("e"));
+    }
+
+    @Test
+    public void testArcKeepsFrequentEntriesOverRecentOnes() {
+        PolicyRamCache<String> cache = newCache(4, new ArcPolicy<String>());
+        put(cache, "a", "b", "c", "d");
+        cache.get("a");
+        cache.get("b");
+
+        // Entries seen once are evicted first
+        put(cache, "e", "f");
+        assertEvicted("c", "d");
+        assertTrue(cache.contains("a") && cache.contains("b"));
+    }
+
+    @Test
+    public void testArcGhostHitsAdaptTheTarget() {
+        PolicyRamCache<String> cache = newCache(4, new ArcPolicy<String>());
+        put(cache, "a", "b", "c", "d");
+        cache.get("a");
+        cache.get("b");
+        put(cache, "e");
+        assertEvicted("c");
+
+        // Hits on the recency ghosts grow the room for entries seen once, until an entry seen
+        // twice is evicted while an entry seen once is kept
+        put(cache, "c");
+        assertEvicted("c", "d");
+        put(cache, "d");
+        assertEvicted("c", "d", "a");
+        assertTrue(cache.contains("e"));
+
+        // A hit on a frequency ghost gives the room back to the entries seen twice
+        put(cache, "a");
+        put(cache, "f");
+        assertEvicted("c", "d", "a", "b", "e");
+        assertTrue(cache.contains("a") && cache.contains("c") && cache.contains("d"));
+    }
+
+    @Test
+    public void testS3FifoEvictsOneHitEntriesFirst() {
+        PolicyRamCache<String> cache = newCache(3, new S3FifoPolicy<String>());
+        put(cache, "a", "b", "c");
+        cache.get("b");
+
+        put(cache, "d", "e");
+        // b was read while in the small queue and moved to the main queue
+        assertEvicted("a", "c");
+        assertTrue(cache.contains("b"));
+    }
+
+    @Test
+    public void testS3FifoReinsertsGhostsInMainQueue() {
+        PolicyRamCache<String> cache = newCache(3, new S3FifoPolicy<String>());
+        put(cache, "a", "b", "c", "d");
+        assertEvicted("a");
+
+        // a is remembered, inserting it again skips the small queue
+        put(cache, "a");
+        assertEvicted("a", "b");
+        put(cache, "e", "f", "g");
+        assertEvicted("a", "b", "c", "d", "e");
+        assertTrue(cache.contains("a"));
+    }
+
+    @Test
+    public void testSizeAndRemoveAreTracked() {
+        PolicyRamCache<String> cache = newCache(3, new LfuPolicy<String>());
+        put(cache, "a", "b", "c");
+        assertEquals("b", cache.remove("b"));
+        put(cache, "d");
+
+        assertEquals(3, cache.size());
+        assertEquals(0, cache.evictionCount());
+        put(cache, "e");
+        assertEquals(1, cache.evictionCount());
+        assertEvicted("a");
+    }
+
+    private PolicyRamCache<String> newCache(int maxSize, EvictionPolicy<String> policy) {
+        PolicyRamCache<String> cache = new PolicyRamCache<>(ONE, maxSize, policy);
+        cache.setEvictionListener(new EvictionListener() {
+            @Override
+            public void onEviction(String key) {
+                mEvicted.add(key);
+            }
+        });
+        return cache;
+    }
+
+    private static void put(PolicyRamCache<String> cache, String... keys) {
+        for (String key : keys) {
+            cache.put(key, key);
+        }
+    }
+
+    private void assertEvicted(String... keys) {
+        assertEquals(Arrays.asList(keys), mEvicted);
+    }
+}
@@ -0,0 +1,74 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.interfaces.EvictionListener;
+import com.iagocanalejas.dualcache.interfaces.SizeOf;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TinyLfuRamCacheTest {
+    private static final int MAX_SIZE = 100;
+    private static final int HOT_KEYS = 50;
+
+    private static final SizeOf<String> ONE = new SizeOf<String>() {
+        @Override
+        public int sizeOf(String object) {
+            return 1;
+        }
+    };
+
+    @Test
+    public void testScanDoesNotEvictFrequentEntries() {
+        TinyLfuRamCache<String> cache = new TinyLfuRamCache<>(ONE, MAX_SIZE);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < HOT_KEYS; i++) {
+                if (cache.get("hot" + i) == null) {
+                    cache.put("hot" + i, "value");
+                }
+            }
+        }
+
+        for (int i = 0; i < 10 * MAX_SIZE; i++) {
+            cache.put("scan" + i, "value");
+        }
+
+        int hotKeysKept = 0;
+        for (int i = 0; i < HOT_KEYS; i++) {
+            if (cache.contains("hot" + i)) {
+                hotKeysKept++;
+            }
+        }
+        // A plain LRU would keep none of them
+        assertTrue("Hot keys kept: " + hotKeysKept, hotKeysKept >= HOT_KEYS * 9 / 10);
+        assertEquals(MAX_SIZE, cache.size());
+    }
+
+    @Test
+    public void testEvictionsAreCountedAndNotified() {
+        final List<String> evicted = new ArrayList<>();
+        TinyLfuRamCache<String> cache = new TinyLfuRamCache<>(ONE, MAX_SIZE);
+        cache.setEvictionListener(new EvictionListener() {
+            @Override
+            public void onEviction(String key) {
+                evicted.add(key);
+            }
+        });
+
+        for (int i = 0; i < MAX_SIZE + 10; i++) {
+            cache.put("key" + i, "value");
+        }
+        cache.remove("key" + (MAX_SIZE + 9));
+
+        assertEquals(10, cache.evictionCount());
+        assertEquals(10, evicted.size());
+        for (String key : evicted) {
+            assertFalse(cache.contains(key));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.iagocanalejas.dualcache.caches;
+
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class WriteBehindDiskCacheTest {
+    private static final byte[] VALUE = {1, 2, 3};
+
+    private MapDiskCache mDisk;
+    private WriteBehindDiskCache mCache;
+
+    @Before
+    public void setUp() throws Exception {
+        mDisk = new MapDiskCache();
+        mCache = new WriteBehindDiskCache(mDisk, 8, DualCacheBackPressureMode.BLOCK, "test");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mCache.close();
+    }
+
+    @Test
+    public void testQueuedWritesAreVisible() throws Exception {
+        mDisk.mBatchDelayMillis = 50;
+        mCache.set("a", VALUE);
+        mCache.delete("b");
+
+        assertArrayEquals(VALUE, mCache.get("a"));
+        assertFalse(mCache.contains("b"));
+        mCache.flush();
+        assertArrayEquals(VALUE, mDisk.get("a"));
+    }
+
+    @Test
+    public void testPreviousValuesOnlyOnDisk() throws Exception {
+        byte[] newer = {4, 5};
+        mDisk.put("a", VALUE);
+        mDisk.put("b", VALUE);
+        mDisk.mBatchDelayMillis = 50;
+
+        assertArrayEquals(VALUE, mCache.put("a", newer));
+        assertArrayEquals(newer, mCache.remove("a"));
+        assertArrayEquals(VALUE, mCache.remove("b"));
+        assertNull(mCache.remove("c"));
+        mCache.flush();
+        assertNull(mDisk.get("a"));
+        assertNull(mDisk.get("b"));
+    }
+
+    @Test(timeout = 10000)
+    public void testFlushDoesNotWaitForLaterWrites() throws Exception {
+        mDisk.mBatchDelayMillis = 5;
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                int i = 0;
+                while (writing.get()) {
+                    mCache.set("key" + (i++ % 4), VALUE);
+                }
+            }
+        });
+        writer.start();
+        try {
+            Thread.sleep(20);
+            mCache.set("flushed", VALUE);
+            mCache.flush();
+            assertArrayEquals(VALUE, mDisk.get("flushed"));
+        } finally {
+            writing.set(false);
+            writer.join();
+        }
+    }
+
+    @Test
+    public void testCloseStoresQueuedWrites() throws Exception {
+        mDisk.mBatchDelayMillis = 50;
+        mCache.set("a", VALUE);
+        mCache.set("b", VALUE);
+        mCache.remove("b");
+        mCache.close();
+
+        assertArrayEquals(VALUE, mDisk.get("a"));
+        assertNull(mDisk.get("b"));
+        // Writes after closing go straight to disk
+        mCache.delete("a");
+        assertNull(mDisk.get("a"));
+    }
+}
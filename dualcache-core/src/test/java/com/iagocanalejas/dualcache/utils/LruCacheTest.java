@@ -0,0 +1,82 @@
+package com.iagocanalejas.dualcache.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        final List<String> evicted = new ArrayList<>();
+        LruCache<String, Integer> cache = new LruCache<String, Integer>(3) {
+            @Override
+            protected int sizeOf(String key, Integer value) {
+                return value;
+            }
+
+            @Override
+            protected void entryRemoved(boolean isEvicted, String key, Integer oldValue,
+                                        Integer newValue) {
+                if (isEvicted) {
+                    evicted.add(key);
+                }
+            }
+        };
+
+        cache.put("a", 2);
+        cache.put("b", 1);
+        cache.get("a");
+        cache.put("c", 1);
+
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(2), cache.get("a"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(Arrays.asList("b"), evicted);
+    }
+
+    @Test
+    public void testRemoveIsNotEviction() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1");
+        cache.put("a", "2");
+
+        assertEquals("2", cache.remove("a"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.evictionCount());
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.evictAll();
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    public void testConditionalOperations() {
+        LruCache<String, String> cache = new LruCache<>(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        // Peeking does not make the entry recently used
+        assertEquals("1", cache.peek("a"));
+        assertEquals("2", cache.putIfAbsent("b", "3"));
+        assertNull(cache.putIfAbsent("c", "3"));
+        assertNull(cache.peek("a"));
+        assertEquals("2", cache.peek("b"));
+
+        // Only the stored instance is removed
+        assertFalse(cache.remove("b", new String("2")));
+        assertTrue(cache.remove("b", cache.peek("b")));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.iagocanalejas.dualcache.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Lz4Test {
+
+    @Test
+    public void testRoundTrips() {
+        Random random = new Random(42);
+        byte[] randomBytes = new byte[100 * 1024];
+        random.nextBytes(randomBytes);
+        byte[] text = new byte[200 * 1024];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (byte) ("the quick brown fox ".charAt(i % 20) + (i / 4096) % 3);
+        }
+
+        assertRoundTrip(new byte[0]);
+        assertRoundTrip(new byte[]{1, 2, 3});
+        assertRoundTrip(new byte[12]);
+        assertRoundTrip(new byte[70 * 1024]);
+        assertRoundTrip(randomBytes);
+        assertRoundTrip(text);
+    }
+
+    @Test
+    public void testRepetitiveDataGetsSmaller() {
+        byte[] data = new byte[64 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+        byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+
+        assertTrue(Lz4.compress(data, 0, data.length, compressed, 0) < data.length / 10);
+    }
+
+    @Test
+    public void testRegionsAndOffsets() {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        int offset = 100;
+        int length = 500;
+        byte[] compressed = new byte[5 + Lz4.maxCompressedLength(length)];
+        int compressedLength = Lz4.compress(data, offset, length, compressed, 5);
+
+        byte[] expected = new byte[length];
+        System.arraycopy(data, offset, expected, 0, length);
+        assertArrayEquals(expected, Lz4.decompress(compressed, 5, compressedLength, length));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongSizeIsRejected() {
+        byte[] data = new byte[1000];
+        byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+        int length = Lz4.compress(data, 0, data.length, compressed, 0);
+
+        Lz4.decompress(compressed, 0, length, data.length + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedBlockIsRejected() {
+        byte[] data = new byte[1000];
+        byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+        int length = Lz4.compress(data, 0, data.length, compressed, 0);
+
+        Lz4.decompress(compressed, 0, length / 2, data.length);
+    }
+
+    private static void assertRoundTrip(byte[] data) {
+        byte[] compressed = new byte[Lz4.maxCompressedLength(data.length)];
+        int length = Lz4.compress(data, 0, data.length, compressed, 0);
+        assertArrayEquals(data, Lz4.decompress(compressed, 0, length, data.length));
+    }
+}
@@ -0,0 +1,111 @@
+package com.iagocanalejas.dualcache.utils;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+    private static final long START = 1000000000000L;
+    // Keys may expire up to one bucket of the first level late
+    private static final long TICK = 1 << 10;
+
+    @Test
+    public void testScheduleAndAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(START);
+        wheel.schedule("a", START + 500);
+        wheel.schedule("b", START + 5000);
+        assertEquals(2, wheel.size());
+
+        assertTrue(wheel.advance(START + 100).isEmpty());
+        assertEquals(Collections.singletonList("a"), wheel.advance(START + 2 * TICK));
+        assertTrue(wheel.advance(START + 4000).isEmpty());
+        assertEquals(Collections.singletonList("b"), wheel.advance(START + 5000 + TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDescheduleAndReschedule() {
+        TimerWheel<String> wheel = new TimerWheel<>(START);
+        wheel.schedule("a", START + 500);
+        wheel.schedule("b", START + 500);
+        wheel.deschedule("a");
+        wheel.schedule("b", START + 60 * 1000);
+        wheel.deschedule("missing");
+        assertEquals(1, wheel.size());
+
+        assertTrue(wheel.advance(START + 10 * TICK).isEmpty());
+        assertEquals(Collections.singletonList("b"), wheel.advance(START + 60 * 1000 + TICK));
+
+        wheel.schedule("c", START);
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(START + 120 * 1000).isEmpty());
+    }
+
+    @Test
+    public void testAlreadyExpiredKey() {
+        TimerWheel<String> wheel = new TimerWheel<>(START);
+        wheel.schedule("a", START - 10000);
+        assertEquals(Collections.singletonList("a"), wheel.advance(START + TICK));
+    }
+
+    @Test
+    public void testCascadesAcrossLevels() {
+        TimerWheel<String> wheel = new TimerWheel<>(START);
+        // One key for each level, the last one about a year away
+        long[] lives = {1L << 9, 1L << 15, 1L << 21, 1L << 27, 1L << 35};
+        for (int i = 0; i < lives.length; i++) {
+            wheel.schedule("k" + i, START + lives[i]);
+        }
+
+        for (int i = 0; i < lives.length; i++) {
+            // Nothing expires just before, the key expires once the time passes it
+            assertTrue(wheel.advance(START + lives[i] - 1).isEmpty());
+            assertEquals(Collections.singletonList("k" + i),
+                    wheel.advance(START + lives[i] + TICK));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testMatchesExpirationTimes() {
+        Random random = new Random(42);
+        TimerWheel<Integer> wheel = new TimerWheel<>(START);
+        Map<Integer, Long> expirations = new HashMap<>();
+        long time = START;
+        for (int step = 0; step < 2000; step++) {
+            for (int i = 0; i < 5; i++) {
+                int key = random.nextInt(500);
+                long life = (long) (Math.pow(2, random.nextInt(30)) * random.nextDouble());
+                long expiration = time + life;
+                wheel.schedule(key, expiration);
+                expirations.put(key, expiration);
+            }
+            if (random.nextInt(4) == 0) {
+                int key = random.nextInt(500);
+                wheel.deschedule(key);
+                expirations.remove(key);
+            }
+
+            time += (long) (Math.pow(2, random.nextInt(22)) * random.nextDouble());
+            List<Integer> expired = wheel.advance(time);
+            assertEquals(expired.size(), new HashSet<>(expired).size());
+            for (Integer key : expired) {
+                long expiration = expirations.remove(key);
+                assertTrue("Expired early: " + key, expiration <= time);
+            }
+            for (long expiration : expirations.values()) {
+                assertTrue("Expired late", expiration > time - TICK);
+            }
+            assertEquals(expirations.size(), wheel.size());
+        }
+    }
+}
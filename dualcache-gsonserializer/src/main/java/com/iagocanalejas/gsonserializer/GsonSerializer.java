@@ -2,13 +2,25 @@ package com.iagocanalejas.gsonserializer;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
 import com.iagocanalejas.dualcache.interfaces.Serializer;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
 /**
  * Created by Canalejas on 29/12/2016.
  */
 
-public class GsonSerializer<T> implements Serializer<T> {
+public class GsonSerializer<T> implements Serializer<T>, ByteSerializer<T> {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     private final Gson mGson;
     private final Class<T> mClazz;
@@ -33,4 +45,24 @@ public class GsonSerializer<T> implements Serializer<T> {
         return mGson.toJson(object, mClazz);
     }
 
-}
\ No newline at end of file
+    @Override
+    public T fromBytes(byte[] data, int offset, int length) {
+        return mGson.fromJson(
+                new InputStreamReader(new ByteArrayInputStream(data, offset, length), UTF_8),
+                mClazz);
+    }
+
+    @Override
+    public byte[] toBytes(T object) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Writer writer = new OutputStreamWriter(out, UTF_8);
+            mGson.toJson(object, mClazz, writer);
+            writer.close();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -1,12 +1,12 @@
 package com.iagocanalejas.jacksonserializer;
 
-import android.util.Log;
-
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
 import com.iagocanalejas.dualcache.interfaces.Serializer;
+import com.iagocanalejas.dualcache.utils.CacheLog;
 
 import java.io.IOException;
 
@@ -14,7 +14,7 @@ import java.io.IOException;
  * Created by Canalejas on 30/12/2016.
  */
 
-public class JacksonSerializer<T> implements Serializer<T> {
+public class JacksonSerializer<T> implements Serializer<T>, ByteSerializer<T> {
     private final ObjectMapper mMapper;
     private final Class<T> mClass;
 
@@ -31,7 +31,7 @@ public class JacksonSerializer<T> implements Serializer<T> {
         try {
             return mMapper.readValue(data, mClass);
         } catch (IOException e) {
-            Log.e(getClass().getSimpleName(), e.getMessage());
+            CacheLog.error(getClass().getSimpleName(), e.getMessage());
         }
         throw new IllegalStateException();
     }
@@ -41,7 +41,27 @@ public class JacksonSerializer<T> implements Serializer<T> {
         try {
             return mMapper.writeValueAsString(object);
         } catch (JsonProcessingException e) {
-            Log.e(getClass().getSimpleName(), e.getMessage());
+            CacheLog.error(getClass().getSimpleName(), e.getMessage());
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public T fromBytes(byte[] data, int offset, int length) {
+        try {
+            return mMapper.readValue(data, offset, length, mClass);
+        } catch (IOException e) {
+            CacheLog.error(getClass().getSimpleName(), e.getMessage());
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public byte[] toBytes(T object) {
+        try {
+            return mMapper.writeValueAsBytes(object);
+        } catch (JsonProcessingException e) {
+            CacheLog.error(getClass().getSimpleName(), e.getMessage());
         }
         throw new IllegalStateException();
     }
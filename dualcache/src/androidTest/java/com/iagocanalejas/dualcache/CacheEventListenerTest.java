@@ -0,0 +1,117 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+import com.iagocanalejas.dualcache.utils.SimpleCacheEventListener;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CacheEventListenerTest
+        extends CacheFeatureTest<String, DualCache<String, AbstractVehicle>> {
+    private RecordingListener mListener;
+
+    public CacheEventListenerTest() {
+        super("test_events");
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mListener = new RecordingListener();
+    }
+
+    @Override
+    protected Builder<String, AbstractVehicle> builder() {
+        return super.builder().useEventListener(mListener);
+    }
+
+    @Test
+    public void testLookupEvents() throws Exception {
+        mCache = builder().useSerializerInRam(RAM_MAX_SIZE, mSerializer).build();
+        mCache.put("key", new CoolCar("car"));
+        mCache.get("key");
+        mCache.clearRam();
+        mCache.get("key");
+        mCache.get("missing");
+
+        assertEquals(Arrays.asList("put key", "hit RAM key", "miss RAM key", "hit DISK key",
+                "promote key", "miss RAM missing", "miss DISK missing"), mListener.mEvents);
+    }
+
+    @Test
+    public void testEvictionEvents() throws Exception {
+        mCache = builder()
+                .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .recordStats()
+                .build();
+        for (int i = 0; i < 100; i++) {
+            mCache.set("key" + i, new CoolCar("car" + i));
+        }
+        int evictions = 0;
+        for (String event : mListener.mEvents) {
+            if (event.startsWith("evict")) {
+                evictions++;
+            }
+        }
+        assertTrue(evictions > 0);
+        assertEquals(mCache.getStats().getRamEvictionCount(), evictions);
+
+        mListener.mEvents.clear();
+        mCache.clearRam();
+        assertTrue(mListener.mEvents.isEmpty());
+    }
+
+    @Test
+    public void testExpirationEvents() throws Exception {
+        mCache = builder()
+                .useSerializerInRam(RAM_MAX_SIZE, mSerializer)
+                .useVolatileCache(60)
+                .build();
+        mCache.put("key", new CoolCar("car"), 1);
+        Thread.sleep(10);
+        assertNull(mCache.get("key"));
+        assertTrue(mListener.mEvents.contains("expire RAM key"));
+    }
+
+    private static class RecordingListener extends SimpleCacheEventListener {
+        final List<String> mEvents = new ArrayList<>();
+
+        @Override
+        public void onHit(String key, Layer layer) {
+            mEvents.add("hit " + layer + " " + key);
+        }
+
+        @Override
+        public void onMiss(String key, Layer layer) {
+            mEvents.add("miss " + layer + " " + key);
+        }
+
+        @Override
+        public void onPut(String key) {
+            mEvents.add("put " + key);
+        }
+
+        @Override
+        public void onEvict(String key) {
+            mEvents.add("evict " + key);
+        }
+
+        @Override
+        public void onExpire(String key, Layer layer) {
+            mEvents.add("expire " + layer + " " + key);
+        }
+
+        @Override
+        public void onPromote(String key) {
+            mEvents.add("promote " + key);
+        }
+    }
+}
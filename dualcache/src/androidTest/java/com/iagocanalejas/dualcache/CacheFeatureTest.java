@@ -0,0 +1,76 @@
+package com.iagocanalejas.dualcache;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.iagocanalejas.dualcache.interfaces.Serializer;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.JsonSerializer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+
+import java.io.Closeable;
+import java.io.File;
+
+/**
+ * Base of the tests of a single feature, that build their own caches instead of running on every
+ * configuration like {@link DualCacheTest}. The disk layer is stored in a folder named after the
+ * cache, and the cache kept in {@link #mCache} is closed and its folder deleted after each test.
+ *
+ * @param <K> is the class of the keys of the built caches.
+ * @param <C> is the class of the built caches.
+ */
+@RunWith(AndroidJUnit4.class)
+public abstract class CacheFeatureTest<K, C extends Closeable> {
+    protected static final int RAM_MAX_SIZE = 1000;
+    protected static final int DISK_MAX_SIZE = 20 * RAM_MAX_SIZE;
+    protected static final int TEST_APP_VERSION = 0;
+
+    private final String mCacheName;
+    protected Context mContext;
+    protected Serializer<AbstractVehicle> mSerializer;
+    protected C mCache;
+
+    /**
+     * @param cacheName name of the built caches, unique for each test class.
+     */
+    protected CacheFeatureTest(String cacheName) {
+        this.mCacheName = cacheName;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mSerializer = new JsonSerializer<>(AbstractVehicle.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (mCache != null) {
+            mCache.close();
+        }
+        File[] files = getDiskFolder().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        getDiskFolder().delete();
+    }
+
+    protected File getDiskFolder() {
+        return new File(mContext.getCacheDir(), mCacheName);
+    }
+
+    /**
+     * @return a builder with logs and a disk layer using the JSON serializer.
+     */
+    protected Builder<K, AbstractVehicle> builder() {
+        return new Builder<K, AbstractVehicle>(mCacheName, TEST_APP_VERSION)
+                .enableLog()
+                .useSerializerInDisk(DISK_MAX_SIZE, getDiskFolder(), mSerializer);
+    }
+}
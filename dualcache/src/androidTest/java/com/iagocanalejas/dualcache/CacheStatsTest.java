@@ -0,0 +1,98 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.stats.CacheStats;
+import com.iagocanalejas.dualcache.stats.LatencyHistogram;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CacheStatsTest extends CacheFeatureTest<String, DualCache<String, AbstractVehicle>> {
+
+    public CacheStatsTest() {
+        super("test_stats");
+    }
+
+    @Test
+    public void testHitsAndMissesPerLayer() throws Exception {
+        mCache = builder().useSerializerInRam(RAM_MAX_SIZE, mSerializer).recordStats().build();
+        CoolCar car = new CoolCar("car");
+        mCache.put("key", car);
+
+        assertEquals(car, mCache.get("key"));
+        mCache.clearRam();
+        assertEquals(car, mCache.get("key"));
+        assertNull(mCache.get("missing"));
+
+        CacheStats stats = mCache.getStats();
+        assertEquals(1, stats.getRamHitCount());
+        assertEquals(2, stats.getRamMissCount());
+        assertEquals(1, stats.getDiskHitCount());
+        assertEquals(1, stats.getDiskMissCount());
+        assertEquals(1, stats.getPromotionCount());
+        assertEquals(3, stats.getRequestCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2.0 / 3, stats.getHitRate(), 0.0001);
+        assertTrue(stats.getSerializationLatency().getCount() > 0);
+        assertTrue(stats.getDeserializationLatency().getCount() > 0);
+        assertEquals(2, stats.getDiskReadLatency().getCount());
+        assertEquals(1, stats.getDiskWriteLatency().getCount());
+
+        mCache.resetStats();
+        stats = mCache.getStats();
+        assertEquals(0, stats.getRequestCount());
+        assertEquals(0, stats.getDiskReadLatency().getCount());
+    }
+
+    @Test
+    public void testRamEvictions() throws Exception {
+        mCache = builder()
+                .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .recordStats()
+                .build();
+        for (int i = 0; i < 100; i++) {
+            mCache.set("key" + i, new CoolCar("car" + i));
+        }
+        assertTrue(mCache.getStats().getRamEvictionCount() > 0);
+
+        mCache.resetStats();
+        mCache.clearRam();
+        assertEquals(0, mCache.getStats().getRamEvictionCount());
+    }
+
+    @Test
+    public void testLoads() throws Exception {
+        mCache = builder().useSerializerInRam(RAM_MAX_SIZE, mSerializer).recordStats().build();
+        CacheLoader<String, AbstractVehicle> loader = new CacheLoader<String, AbstractVehicle>() {
+            @Override
+            public AbstractVehicle load(String key) throws Exception {
+                return key.equals("key") ? new CoolCar(key) : null;
+            }
+        };
+        assertEquals(new CoolCar("key"), mCache.get("key", loader));
+        assertNull(mCache.get("missing", loader));
+
+        CacheStats stats = mCache.getStats();
+        assertEquals(1, stats.getLoadSuccessCount());
+        assertEquals(1, stats.getLoadFailureCount());
+        LatencyHistogram loads = stats.getLoadLatency();
+        assertEquals(2, loads.getCount());
+        assertTrue(loads.getPercentileNanos(50) <= loads.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        mCache = builder().useSerializerInRam(RAM_MAX_SIZE, mSerializer).build();
+        mCache.put("key", new CoolCar("car"));
+        assertEquals(new CoolCar("car"), mCache.get("key"));
+
+        CacheStats stats = mCache.getStats();
+        assertEquals(0, stats.getRequestCount());
+        assertEquals(0, stats.getSerializationLatency().getCount());
+    }
+}
@@ -5,6 +5,8 @@ import android.support.test.InstrumentationRegistry;
 import android.support.test.runner.AndroidJUnit4;
 import android.util.Log;
 
+import com.iagocanalejas.dualcache.interfaces.ByteSerializer;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
 import com.iagocanalejas.dualcache.interfaces.Serializer;
 import com.iagocanalejas.dualcache.interfaces.SizeOf;
 import com.iagocanalejas.dualcache.modes.DualCacheDiskMode;
@@ -20,11 +22,15 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public abstract class DualCacheTest {
@@ -51,6 +57,7 @@ public abstract class DualCacheTest {
     @After
     public void tearDown() throws Exception {
         cache.clear();
+        cache.close();
     }
 
     @Test
@@ -153,6 +160,113 @@ public abstract class DualCacheTest {
         assertEquals(false, cache.contains(keyBike));
     }
 
+    @Test
+    public void testBulkOperations() throws Exception {
+        Map<String, AbstractVehicle> vehicles = new HashMap<>();
+        vehicles.put("car", new CoolCar(CoolCar.class.getSimpleName()));
+        vehicles.put("bike", new CoolBike(CoolBike.class.getSimpleName()));
+        cache.putAll(vehicles);
+        assertEquals(vehicles, cache.getAll(vehicles.keySet()));
+
+        cache.clearRam();
+        if (cache.getDiskMode().equals(DualCacheDiskMode.DISABLE)) {
+            assertTrue(cache.getAll(vehicles.keySet()).isEmpty());
+        } else {
+            assertEquals(vehicles, cache.getAll(vehicles.keySet()));
+        }
+
+        cache.removeAll(vehicles.keySet());
+        assertTrue(cache.getAll(vehicles.keySet()).isEmpty());
+        assertFalse(cache.contains("car"));
+        assertFalse(cache.contains("bike"));
+    }
+
+    @Test
+    public void testSetAndDelete() throws Exception {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        CoolBike bike = new CoolBike(CoolBike.class.getSimpleName());
+        String key = "vehicle";
+        cache.set(key, car);
+        cache.set(key, bike);
+        assertEquals(bike, cache.get(key));
+
+        cache.clearRam();
+        if (cache.getDiskMode().equals(DualCacheDiskMode.DISABLE)) {
+            assertNull(cache.get(key));
+        } else {
+            assertEquals(bike, cache.get(key));
+        }
+
+        cache.delete(key);
+        assertNull(cache.get(key));
+        assertFalse(cache.contains(key));
+    }
+
+    @Test
+    public void testAsyncOperations() throws Exception {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        String keyCar = "car";
+        cache.putAsync(keyCar, car).get();
+        assertEquals(car, cache.getAsync(keyCar).get());
+        assertTrue(cache.containsAsync(keyCar).get());
+
+        cache.clearRam();
+        if (cache.getDiskMode().equals(DualCacheDiskMode.DISABLE)) {
+            assertNull(cache.getAsync(keyCar).get());
+        } else {
+            assertEquals(car, cache.getAsync(keyCar).get());
+        }
+
+        cache.removeAsync(keyCar).get();
+        assertNull(cache.getAsync(keyCar).get());
+        assertFalse(cache.containsAsync(keyCar).get());
+    }
+
+    @Test
+    public void testLoadingGet() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CacheLoader<String, AbstractVehicle> loader =
+                new CacheLoader<String, AbstractVehicle>() {
+                    @Override
+                    public AbstractVehicle load(String key) throws Exception {
+                        loads.incrementAndGet();
+                        Thread.sleep(100);
+                        return new CoolCar(CoolCar.class.getSimpleName());
+                    }
+                };
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    cache.get("car", loader);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(new CoolCar(CoolCar.class.getSimpleName()), cache.get("car"));
+        assertEquals(new CoolCar(CoolCar.class.getSimpleName()), cache.get("car", loader));
+        assertEquals(1, loads.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRecursiveLoadingGet() throws Exception {
+        cache.get("car", new CacheLoader<String, AbstractVehicle>() {
+            @Override
+            public AbstractVehicle load(String key) throws Exception {
+                return cache.get(key, this);
+            }
+        });
+    }
+
     @Test
     public void testLRUPolicy() {
         cache.clear();
@@ -256,6 +370,21 @@ public abstract class DualCacheTest {
         }
     }
 
+    public static class ByteSerializerForTesting implements ByteSerializer<AbstractVehicle> {
+
+        private final SerializerForTesting mSerializer = new SerializerForTesting();
+
+        @Override
+        public AbstractVehicle fromBytes(byte[] data, int offset, int length) {
+            return mSerializer.fromString(new String(data, offset, length));
+        }
+
+        @Override
+        public byte[] toBytes(AbstractVehicle object) {
+            return mSerializer.toString(object).getBytes();
+        }
+    }
+
     public static class SizeOfVehicleForTesting implements SizeOf<AbstractVehicle> {
 
         @Override
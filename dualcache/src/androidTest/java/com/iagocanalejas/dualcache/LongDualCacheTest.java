@@ -0,0 +1,86 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.hashing.Murmur3Hasher;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolBike;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LongDualCacheTest extends CacheFeatureTest<Long, LongDualCache<AbstractVehicle>> {
+
+    public LongDualCacheTest() {
+        super("test_long");
+    }
+
+    @Test
+    public void testSerializerInRam() throws Exception {
+        mCache = builder().useSerializerInRam(RAM_MAX_SIZE, mSerializer).buildLong();
+        checkOperations();
+    }
+
+    @Test
+    public void testReferenceInRam() throws Exception {
+        mCache = builder()
+                .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .buildLong();
+        checkOperations();
+    }
+
+    @Test
+    public void testRamEviction() throws Exception {
+        mCache = builder()
+                .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .buildLong();
+        for (long id = 0; id < 100; id++) {
+            mCache.set(id, new CoolCar("car" + id));
+        }
+        assertTrue(mCache.getRamUsedInBytes() <= RAM_MAX_SIZE);
+        for (long id = 0; id < 100; id++) {
+            assertEquals(new CoolCar("car" + id), mCache.get(id));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testHashedKeyNotSupported() throws Exception {
+        builder().useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .useHashedKey(new Murmur3Hasher<Long>())
+                .buildLong();
+    }
+
+    private void checkOperations() {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        CoolBike bike = new CoolBike(CoolBike.class.getSimpleName());
+        long[] ids = {0, 42, -1, Long.MIN_VALUE, Long.MAX_VALUE};
+
+        for (long id : ids) {
+            assertNull(mCache.put(id, car));
+            assertTrue(mCache.contains(id));
+            assertEquals(car, mCache.get(id));
+        }
+
+        mCache.clearRam();
+        for (long id : ids) {
+            assertTrue(mCache.contains(id));
+            assertEquals(car, mCache.get(id));
+        }
+
+        assertEquals(car, mCache.put(42, bike));
+        assertEquals(bike, mCache.get(42));
+        assertEquals(bike, mCache.remove(42));
+        assertFalse(mCache.contains(42));
+        assertNull(mCache.get(42));
+
+        mCache.delete(-1);
+        assertNull(mCache.get(-1));
+        assertEquals(car, mCache.get(0));
+
+        mCache.clear();
+        assertFalse(mCache.contains(0));
+    }
+}
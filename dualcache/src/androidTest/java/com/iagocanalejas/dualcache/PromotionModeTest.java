@@ -0,0 +1,115 @@
+package com.iagocanalejas.dualcache;
+
+import com.iagocanalejas.dualcache.modes.DualCachePromotionMode;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PromotionModeTest
+        extends CacheFeatureTest<String, DualCache<String, AbstractVehicle>> {
+
+    public PromotionModeTest() {
+        super("test_promotion");
+    }
+
+    @Override
+    protected Builder<String, AbstractVehicle> builder() {
+        return super.builder()
+                .useSerializerInRam(RAM_MAX_SIZE, mSerializer)
+                .recordStats();
+    }
+
+    private CoolCar putOnDiskOnly() {
+        CoolCar car = new CoolCar("car");
+        mCache.put("key", car);
+        mCache.clearRam();
+        return car;
+    }
+
+    @Test
+    public void testAlwaysPromotesFirstDiskHit() throws Exception {
+        mCache = builder().build();
+        CoolCar car = putOnDiskOnly();
+
+        assertEquals(car, mCache.get("key"));
+        assertEquals(car, mCache.get("key"));
+        assertEquals(1, mCache.getStats().getPromotionCount());
+        assertEquals(1, mCache.getStats().getRamHitCount());
+    }
+
+    @Test
+    public void testNeverPromotes() throws Exception {
+        mCache = builder().usePromotionInRam(DualCachePromotionMode.NEVER).build();
+        CoolCar car = putOnDiskOnly();
+
+        assertEquals(car, mCache.get("key"));
+        assertEquals(car, mCache.get("key"));
+        assertEquals(0, mCache.getStats().getPromotionCount());
+        assertEquals(2, mCache.getStats().getDiskHitCount());
+    }
+
+    @Test
+    public void testPromotesAfterHits() throws Exception {
+        mCache = builder().usePromotionInRam(DualCachePromotionMode.AFTER_HITS, 3).build();
+        CoolCar car = putOnDiskOnly();
+
+        assertEquals(car, mCache.get("key"));
+        assertEquals(car, mCache.get("key"));
+        assertEquals(0, mCache.getStats().getPromotionCount());
+        assertEquals(car, mCache.get("key"));
+        assertEquals(1, mCache.getStats().getPromotionCount());
+        assertEquals(car, mCache.get("key"));
+        assertEquals(1, mCache.getStats().getRamHitCount());
+    }
+
+    @Test
+    public void testPromotesAsynchronously() throws Exception {
+        mCache = builder().usePromotionInRam(DualCachePromotionMode.ASYNC).build();
+        CoolCar car = putOnDiskOnly();
+
+        assertEquals(car, mCache.get("key"));
+        for (int i = 0; i < 100 && mCache.getStats().getPromotionCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, mCache.getStats().getPromotionCount());
+        assertEquals(car, mCache.get("key"));
+        assertEquals(1, mCache.getStats().getRamHitCount());
+    }
+
+    @Test
+    public void testAsyncPromotionDroppedAfterWrite() throws Exception {
+        mCache = builder().usePromotionInRam(DualCachePromotionMode.ASYNC).build();
+        putOnDiskOnly();
+        CoolCar newer = new CoolCar("newer");
+
+        mCache.get("key");
+        mCache.put("key", newer);
+        Thread.sleep(100);
+        assertEquals(newer, mCache.get("key"));
+    }
+
+    @Test
+    public void testAsyncPromotionKeptAfterOtherWrites() throws Exception {
+        mCache = builder().usePromotionInRam(DualCachePromotionMode.ASYNC).build();
+        CoolCar car = putOnDiskOnly();
+
+        mCache.get("key");
+        // Only writes of the promoted key drop its promotion
+        for (int i = 0; i < 10; i++) {
+            mCache.put("other" + i, new CoolCar("other" + i));
+        }
+        for (int i = 0; i < 100 && mCache.getStats().getPromotionCount() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, mCache.getStats().getPromotionCount());
+        assertEquals(car, mCache.get("key"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAfterHitsOutOfRange() throws Exception {
+        builder().usePromotionInRam(DualCachePromotionMode.AFTER_HITS, 16).build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.hashing.Murmur3Hasher;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class HashedKeyRamReferenceDiskDefaultSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useHashedKey(new Murmur3Hasher<String>(true))
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfVehicleForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.policies.LfuPolicy;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class LfuPolicyRamCustomSerializerDiskCustomSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useSerializerInRam(RAM_MAX_SIZE, new SerializerForTesting())
+                .useEvictionPolicyInRam(new LfuPolicy<String>())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, new SerializerForTesting(), getContext())
+                .build();
+    }
+}
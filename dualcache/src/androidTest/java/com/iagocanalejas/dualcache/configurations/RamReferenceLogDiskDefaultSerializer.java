@@ -0,0 +1,112 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolBike;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RamReferenceLogDiskDefaultSerializer extends DualCacheTest {
+
+    private File mFolder;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        mFolder = new File(getContext().getCacheDir(), CACHE_NAME + "_log");
+        cache = buildCache();
+    }
+
+    private DualCache<String, AbstractVehicle> buildCache() {
+        return new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfVehicleForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, mFolder, mDefaultSerializer)
+                .useLogStructuredDisk()
+                .build();
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        CoolBike bike = new CoolBike(CoolBike.class.getSimpleName());
+        cache.put("car", car);
+        cache.put("bike", bike);
+        cache.put("car", bike);
+        cache.remove("bike");
+        cache.close();
+
+        // The key directory is rebuilt from the segments
+        cache = buildCache();
+        assertEquals(bike, cache.get("car"));
+        assertNull(cache.get("bike"));
+    }
+
+    @Test
+    public void testReopenAfterCheckpoint() throws Exception {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        cache.put("car", car);
+        cache.close();
+
+        // Written after the checkpoint taken on close, replayed from the segment
+        cache = buildCache();
+        CoolBike bike = new CoolBike(CoolBike.class.getSimpleName());
+        cache.put("bike", bike);
+        cache.remove("car");
+
+        // Crash before the next checkpoint: restore the files as they were before closing
+        Map<String, byte[]> files = readFiles(mFolder);
+        cache.close();
+        writeFiles(mFolder, files);
+
+        cache = buildCache();
+        assertNull(cache.get("car"));
+        assertEquals(bike, cache.get("bike"));
+    }
+
+    private static Map<String, byte[]> readFiles(File folder) throws IOException {
+        Map<String, byte[]> files = new HashMap<>();
+        for (File file : folder.listFiles()) {
+            byte[] content = new byte[(int) file.length()];
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                in.readFully(content);
+            } finally {
+                in.close();
+            }
+            files.put(file.getName(), content);
+        }
+        return files;
+    }
+
+    private static void writeFiles(File folder, Map<String, byte[]> files) throws IOException {
+        for (File file : folder.listFiles()) {
+            if (!files.containsKey(file.getName()) && !file.delete()) {
+                throw new IOException("Can not delete " + file);
+            }
+        }
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            FileOutputStream out = new FileOutputStream(new File(folder, file.getKey()));
+            try {
+                out.write(file.getValue());
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
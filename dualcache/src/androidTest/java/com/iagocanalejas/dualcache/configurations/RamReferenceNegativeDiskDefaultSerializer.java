@@ -0,0 +1,58 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class RamReferenceNegativeDiskDefaultSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfVehicleForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
+                .useNegativeCache(RAM_MAX_SIZE, 60)
+                .build();
+    }
+
+    @Test
+    public void testNegativeCache() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        CacheLoader<String, AbstractVehicle> loader = new CacheLoader<String, AbstractVehicle>() {
+            @Override
+            public AbstractVehicle load(String key) throws Exception {
+                loads.incrementAndGet();
+                return null;
+            }
+        };
+
+        // A null load is recorded and not repeated
+        assertNull(cache.get("missing", loader));
+        assertNull(cache.get("missing", loader));
+        assertEquals(1, loads.get());
+        assertFalse(cache.contains("missing"));
+
+        // Writing the key forgets it was missing
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        cache.put("missing", car);
+        assertEquals(car, cache.get("missing"));
+
+        cache.putMissing("missing");
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("missing", loader));
+        assertEquals(1, loads.get());
+    }
+}
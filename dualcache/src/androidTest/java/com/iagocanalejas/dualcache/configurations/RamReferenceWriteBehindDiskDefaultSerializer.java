@@ -0,0 +1,20 @@
+package com.iagocanalejas.dualcache.configurations;
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class RamReferenceWriteBehindDiskDefaultSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfVehicleForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
+                .useWriteBehindDisk(4, DualCacheBackPressureMode.BLOCK)
+                .build();
+    }
+}
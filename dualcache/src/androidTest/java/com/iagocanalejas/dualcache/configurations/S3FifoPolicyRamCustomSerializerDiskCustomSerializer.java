@@ -0,0 +1,21 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.policies.S3FifoPolicy;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class S3FifoPolicyRamCustomSerializerDiskCustomSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useSerializerInRam(RAM_MAX_SIZE, new SerializerForTesting())
+                .useEvictionPolicyInRam(new S3FifoPolicy<String>())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, new SerializerForTesting(), getContext())
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TinyLfuRamReferenceDiskDefaultSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useReferenceInRam(RAM_MAX_SIZE, new SizeOfVehicleForTesting())
+                .useTinyLfuInRam()
+                .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
+                .build();
+    }
+
+    /**
+     * Entries are not evicted in LRU order, a frequently read entry survives a scan.
+     */
+    @Test
+    @Override
+    public void testLRUPolicy() {
+        cache.clear();
+        CoolCar hotCar = new CoolCar(CoolCar.class.getSimpleName());
+        String keyCar = "car";
+        cache.put(keyCar, hotCar);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(hotCar, cache.get(keyCar));
+        }
+
+        long size = cache.getRamUsedInBytes();
+        int numberOfItemsToAddForRAMEviction = (int) (RAM_MAX_SIZE / size);
+        for (int i = 0; i < 2 * numberOfItemsToAddForRAMEviction; i++) {
+            cache.put(keyCar + i, new CoolCar(CoolCar.class.getSimpleName()));
+        }
+        assertTrue(cache.getRamUsedInBytes() <= RAM_MAX_SIZE);
+
+        cache.clearDisk();
+        assertEquals(hotCar, cache.get(keyCar));
+        assertEquals(true, cache.contains(keyCar));
+    }
+}
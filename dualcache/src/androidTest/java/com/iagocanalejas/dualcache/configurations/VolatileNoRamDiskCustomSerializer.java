@@ -2,23 +2,63 @@ package com.iagocanalejas.dualcache.configurations;
 
 
 import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
 import com.iagocanalejas.dualcache.DualCacheTest;
 import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+import com.iagocanalejas.dualcache.testobjects.ManualClock;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class VolatileNoRamDiskCustomSerializer extends DualCacheTest {
 
+    private final AtomicInteger mDecodes = new AtomicInteger();
+    private final ManualClock mClock = new ManualClock();
+
     @Override
     public void setUp() throws Exception {
         super.setUp();
-        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+        cache = buildCache(1000 * 60); // 1 min
+    }
+
+    private DualCache<String, AbstractVehicle> buildCache(long persistenceTime) {
+        return new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
                 .enableLog()
                 .noRam()
                 .useSerializerInDisk(
                         DISK_MAX_SIZE,
                         true,
-                        new DualCacheTest.SerializerForTesting(),
+                        new DualCacheTest.SerializerForTesting() {
+                            @Override
+                            public AbstractVehicle fromString(String data) {
+                                mDecodes.incrementAndGet();
+                                return super.fromString(data);
+                            }
+                        },
                         getContext())
-                .useVolatileCache(1000 * 60) // 1 min
+                .useVolatileCache(persistenceTime)
+                .useClock(mClock)
                 .build();
     }
+
+    @Test
+    public void testExpiredEntryNotDecoded() throws Exception {
+        cache.clear();
+        cache.close();
+        cache = buildCache(1);
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        cache.set("car", car);
+        assertEquals(car, cache.get("car"));
+        assertEquals(1, mDecodes.get());
+
+        // Expired entries are rejected from their header
+        mClock.advance(1001);
+        assertNull(cache.get("car"));
+        assertEquals(1, mDecodes.get());
+    }
 }
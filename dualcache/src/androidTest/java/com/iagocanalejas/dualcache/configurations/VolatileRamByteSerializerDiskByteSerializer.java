@@ -0,0 +1,21 @@
+package com.iagocanalejas.dualcache.configurations;
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class VolatileRamByteSerializerDiskByteSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        DualCacheTest.ByteSerializerForTesting serializer =
+                new DualCacheTest.ByteSerializerForTesting();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useByteSerializerInRam(RAM_MAX_SIZE, serializer)
+                .useByteSerializerInDisk(DISK_MAX_SIZE, true, serializer, getContext())
+                .useVolatileCache(1000 * 60) // 1 min
+                .build();
+    }
+}
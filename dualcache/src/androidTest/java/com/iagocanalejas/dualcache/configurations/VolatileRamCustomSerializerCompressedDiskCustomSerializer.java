@@ -0,0 +1,49 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.modes.DualCacheCompressionMode;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolBike;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VolatileRamCustomSerializerCompressedDiskCustomSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = buildCache(DualCacheCompressionMode.LZ4);
+    }
+
+    private DualCache<String, AbstractVehicle> buildCache(DualCacheCompressionMode mode) {
+        return new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useSerializerInRam(RAM_MAX_SIZE, new DualCacheTest.SerializerForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true,
+                        new DualCacheTest.SerializerForTesting(), getContext())
+                .useCompressionInDisk(mode, 0)
+                .useVolatileCache(1000 * 60) // 1 min
+                .build();
+    }
+
+    @Test
+    public void testCompressionModeChange() throws Exception {
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        cache.put("car", car);
+
+        // Entries written with other codecs are still read
+        cache = buildCache(DualCacheCompressionMode.DEFLATE);
+        CoolBike bike = new CoolBike(CoolBike.class.getSimpleName());
+        cache.put("bike", bike);
+
+        cache = buildCache(DualCacheCompressionMode.NONE);
+        assertEquals(car, cache.get("car"));
+        assertEquals(bike, cache.get("bike"));
+    }
+}
@@ -2,8 +2,19 @@ package com.iagocanalejas.dualcache.configurations;
 
 
 import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
 import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.caches.DiskCache;
 import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Created by Iago on 26/12/2016.
@@ -22,4 +33,46 @@ public class VolatileRamCustomSerializerDiskCustomSerializer extends DualCacheTe
                 .build();
     }
 
+    @Test
+    public void testLegacyEntryMigration() throws Exception {
+        File folder = new File(getContext().getCacheDir(), CACHE_NAME + "_legacy");
+        DiskCache diskCache = new DiskCache(folder, TEST_APP_VERSION, DISK_MAX_SIZE);
+        try {
+            diskCache.clear();
+            // Entries written by previous versions end with the timestamp in text
+            String legacy = CoolCar.class.getSimpleName() + " timestamp_key:"
+                    + (System.currentTimeMillis() + 60 * 1000);
+            diskCache.set("car", legacy.getBytes(Charset.forName("UTF-8")));
+        } finally {
+            diskCache.close();
+        }
+
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        DualCache<String, AbstractVehicle> legacyCache =
+                new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                        .enableLog()
+                        .useSerializerInRam(RAM_MAX_SIZE, new DualCacheTest.SerializerForTesting())
+                        .useSerializerInDisk(DISK_MAX_SIZE, folder,
+                                new DualCacheTest.SerializerForTesting())
+                        .useVolatileCache(60)
+                        .build();
+        try {
+            assertEquals(car, legacyCache.get("car"));
+            legacyCache.clearRam();
+            assertEquals(car, legacyCache.get("car"));
+        } finally {
+            legacyCache.close();
+        }
+
+        // The entry was written again with the timestamp header
+        DiskCache reader = new DiskCache(folder, TEST_APP_VERSION, DISK_MAX_SIZE);
+        try {
+            byte[] migrated = reader.get("car");
+            assertFalse(new String(migrated, Charset.forName("UTF-8")).contains("timestamp_key"));
+            reader.clear();
+        } finally {
+            reader.close();
+        }
+    }
+
 }
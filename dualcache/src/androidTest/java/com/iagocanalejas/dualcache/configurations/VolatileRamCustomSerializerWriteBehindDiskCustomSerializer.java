@@ -0,0 +1,21 @@
+package com.iagocanalejas.dualcache.configurations;
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.modes.DualCacheBackPressureMode;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+
+public class VolatileRamCustomSerializerWriteBehindDiskCustomSerializer extends DualCacheTest {
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useSerializerInRam(RAM_MAX_SIZE, new DualCacheTest.SerializerForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, new DualCacheTest.SerializerForTesting(), getContext())
+                .useWriteBehindDisk(4, DualCacheBackPressureMode.CALLER_RUNS)
+                .useVolatileCache(1000 * 60) // 1 min
+                .build();
+    }
+}
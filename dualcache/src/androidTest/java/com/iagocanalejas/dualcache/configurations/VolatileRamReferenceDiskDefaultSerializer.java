@@ -2,19 +2,51 @@ package com.iagocanalejas.dualcache.configurations;
 
 
 import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
 import com.iagocanalejas.dualcache.DualCacheTest;
 import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+import com.iagocanalejas.dualcache.testobjects.ManualClock;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
 
 public class VolatileRamReferenceDiskDefaultSerializer extends DualCacheTest {
 
+    private final ManualClock mClock = new ManualClock();
+
     @Override
     public void setUp() throws Exception {
         super.setUp();
-        cache = new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+        cache = buildCache(1000 * 60); // 1 min
+    }
+
+    private DualCache<String, AbstractVehicle> buildCache(long persistenceTime) {
+        return new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
                 .enableLog()
                 .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
                 .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
-                .useVolatileCache(1000 * 60) // 1 min
+                .useVolatileCache(persistenceTime)
+                .useClock(mClock)
                 .build();
     }
+
+    @Test
+    public void testProactiveExpiration() throws Exception {
+        cache.clear();
+        cache.close();
+        cache = buildCache(1);
+        for (int i = 0; i < 10; i++) {
+            cache.put("car" + i, new CoolCar("car" + i));
+        }
+        cache.put("persistent", new CoolCar("persistent"), 0);
+        long persistentSize = new SizeOfVehicleForTesting().sizeOf(new CoolCar("persistent"));
+
+        // Expired entries leave RAM without being read
+        mClock.advance(2500);
+        cache.cleanUp();
+        assertEquals(10, cache.getRamExpirationCount());
+        assertEquals(persistentSize, cache.getRamUsedInBytes());
+    }
 }
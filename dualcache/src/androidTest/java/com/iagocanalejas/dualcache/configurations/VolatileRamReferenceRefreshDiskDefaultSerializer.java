@@ -0,0 +1,65 @@
+package com.iagocanalejas.dualcache.configurations;
+
+
+import com.iagocanalejas.dualcache.Builder;
+import com.iagocanalejas.dualcache.DualCache;
+import com.iagocanalejas.dualcache.DualCacheTest;
+import com.iagocanalejas.dualcache.interfaces.CacheLoader;
+import com.iagocanalejas.dualcache.testobjects.AbstractVehicle;
+import com.iagocanalejas.dualcache.testobjects.CoolCar;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class VolatileRamReferenceRefreshDiskDefaultSerializer extends DualCacheTest {
+
+    private final AtomicInteger mRefreshes = new AtomicInteger();
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        cache = buildCache(1000 * 60); // 1 min
+    }
+
+    private DualCache<String, AbstractVehicle> buildCache(long persistenceTime) {
+        return new Builder<String, AbstractVehicle>(CACHE_NAME, TEST_APP_VERSION)
+                .enableLog()
+                .useReferenceInRam(RAM_MAX_SIZE, new DualCacheTest.SizeOfVehicleForTesting())
+                .useSerializerInDisk(DISK_MAX_SIZE, true, mDefaultSerializer, getContext())
+                .useVolatileCache(persistenceTime)
+                .useStaleWhileRevalidate(2)
+                .useRefreshLoader(new CacheLoader<String, AbstractVehicle>() {
+                    @Override
+                    public AbstractVehicle load(String key) throws Exception {
+                        return new CoolCar("refreshed" + mRefreshes.incrementAndGet());
+                    }
+                })
+                .build();
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        cache.clear();
+        cache = buildCache(1);
+        CoolCar car = new CoolCar(CoolCar.class.getSimpleName());
+        cache.put("car", car);
+        assertEquals(car, cache.get("car"));
+        assertEquals(0, mRefreshes.get());
+
+        // Past the persistence time the old entry is returned while it is refreshed
+        Thread.sleep(1200);
+        assertEquals(car, cache.get("car"));
+        Thread.sleep(300);
+        assertEquals(new CoolCar("refreshed1"), cache.get("car"));
+        assertEquals(1, mRefreshes.get());
+
+        // Past the stale period the entry is gone
+        cache.put("bike", car);
+        Thread.sleep(3200);
+        assertNull(cache.get("bike"));
+    }
+}
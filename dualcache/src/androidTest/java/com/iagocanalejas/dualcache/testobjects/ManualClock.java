@@ -0,0 +1,23 @@
+package com.iagocanalejas.dualcache.testobjects;
+
+import com.iagocanalejas.dualcache.interfaces.Clock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock only moved by the tests, so expiration does not depend on the wall-clock time.
+ */
+public class ManualClock implements Clock {
+
+    private final AtomicLong mTime = new AtomicLong(System.currentTimeMillis());
+
+    @Override
+    public long currentTimeMillis() {
+        return mTime.get();
+    }
+
+    public void advance(long millis) {
+        mTime.addAndGet(millis);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.iagocanalejas.dualcache.android;
+
+import android.util.Log;
+
+import com.iagocanalejas.dualcache.interfaces.LogWriter;
+
+/**
+ * {@link LogWriter} sending the library logs to logcat.
+ */
+public class LogcatWriter implements LogWriter {
+
+    @Override
+    public void info(String tag, String msg) {
+        Log.i(tag, String.valueOf(msg));
+    }
+
+    @Override
+    public void warning(String tag, String msg) {
+        Log.w(tag, String.valueOf(msg));
+    }
+
+    @Override
+    public void error(String tag, String msg) {
+        Log.e(tag, String.valueOf(msg));
+    }
+}
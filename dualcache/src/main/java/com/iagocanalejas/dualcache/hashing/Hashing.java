@@ -1,53 +0,0 @@
-package com.iagocanalejas.dualcache.hashing;
-
-import java.nio.charset.Charset;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
-/**
- * Created by Canalejas on 11/01/2017.
- */
-
-public final class Hashing {
-
-    private static String convertToHex(byte[] data) {
-        StringBuilder buf = new StringBuilder();
-        for (byte b : data) {
-            int halfByte = (b >>> 4) & 0x0F;
-            int twoHalf = 0;
-            do {
-                buf.append((0 <= halfByte) && (halfByte <= 9)
-                        ? (char) ('0' + halfByte)
-                        : (char) ('a' + (halfByte - 10)));
-                halfByte = b & 0x0F;
-            } while (twoHalf++ < 1);
-        }
-        return buf.toString();
-    }
-
-
-    public static String sha1(String text, Charset charset) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            byte[] textBytes = text.getBytes(charset);
-            md.update(textBytes, 0, textBytes.length);
-            return convertToHex(md.digest());
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    public static String sha1(String text) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-1");
-            byte[] textBytes = text.getBytes(Charset.defaultCharset());
-            md.update(textBytes, 0, textBytes.length);
-            return convertToHex(md.digest());
-        } catch (NoSuchAlgorithmException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-}